@@ -36,7 +36,7 @@ public class GatewayConfig {
 
         return builder.routes()
                 // AUTH — REGISTER (сначала admin фильтр!)
-                .route("auth-register", r -> r.path("/api/v1/auth/register")
+                .route("auth-register", r -> r.path("/api/v1/auth/register", "/api/v1/auth/register/batch")
                         .filters(f -> f
                                 .filter(adminAuthFilter)
                                 .filter(requestLoggingFilter)
@@ -56,6 +56,18 @@ public class GatewayConfig {
                         .filters(f -> f.filter(requestLoggingFilter))
                         .uri(authServiceUrl))
 
+                .route("auth-logout", r -> r.path("/api/v1/auth/logout")
+                        .filters(f -> f.filter(requestLoggingFilter))
+                        .uri(authServiceUrl))
+
+                .route("auth-sessions", r -> r.path("/api/v1/auth/users/*/sessions")
+                        .filters(f -> f.filter(requestLoggingFilter))
+                        .uri(authServiceUrl))
+
+                .route("auth-registrations", r -> r.path("/api/v1/auth/registrations/**")
+                        .filters(f -> f.filter(requestLoggingFilter))
+                        .uri(authServiceUrl))
+
                 .route("auth-rollback", r -> r.path("/api/v1/auth/rollback/**")
                         .filters(f -> f.filter(requestLoggingFilter))
                         .uri(authServiceUrl))
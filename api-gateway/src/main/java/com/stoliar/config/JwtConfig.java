@@ -0,0 +1,37 @@
+package com.stoliar.config;
+
+import com.stoliar.security.IdentityHeader;
+import com.stoliar.security.JwtClaimsCache;
+import com.stoliar.security.JwtVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public JwtVerifier jwtVerifier(JwtProperties jwtProperties) {
+        return new JwtVerifier(jwtProperties.getSecret());
+    }
+
+    // SPA шлет один токен весь его срок: HMAC и разбор JSON на event loop один раз на токен
+    @Bean
+    public JwtClaimsCache jwtClaimsCache(JwtVerifier jwtVerifier,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.token-cache.max-size:100000}") long maxSize,
+                                         @Value("${app.token-cache.negative-ttl:30s}") Duration negativeTtl) {
+        return new JwtClaimsCache(jwtVerifier::verify, meterRegistry, "gateway-jwt-claims", maxSize, negativeTtl);
+    }
+
+    // Проверенные claims уходят сервисам подписанным заголовком, чтобы они не проверяли JWT повторно
+    @Bean
+    @ConditionalOnProperty(name = "app.identity-propagation.enabled", havingValue = "true")
+    public IdentityHeader identityHeader(@Value("${app.identity-propagation.secret}") String secret) {
+        return new IdentityHeader(secret);
+    }
+}
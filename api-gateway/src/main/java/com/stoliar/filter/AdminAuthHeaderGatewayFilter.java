@@ -1,6 +1,7 @@
 package com.stoliar.filter;
 
 import com.stoliar.admin.AdminTokenManager;
+import com.stoliar.security.IdentityHeader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
@@ -52,6 +53,8 @@ public class AdminAuthHeaderGatewayFilter implements GatewayFilter, Ordered {
                     .header("Authorization", "Bearer " + token)
                     .header("X-Service-Name", "api-gateway")
                     .header("X-Original-User-Agent", exchange.getRequest().getHeaders().getFirst("User-Agent"))
+                    // Authorization подменен, личность пользователя сервису не передаем
+                    .headers(headers -> headers.remove(IdentityHeader.NAME))
                     .build();
 
             // Логируем измененные заголовки
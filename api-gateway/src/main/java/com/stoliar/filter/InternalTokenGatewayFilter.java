@@ -1,5 +1,6 @@
 package com.stoliar.filter;
 
+import com.stoliar.security.IdentityHeader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -20,6 +21,8 @@ public class InternalTokenGatewayFilter implements GatewayFilter {
         ServerHttpRequest request = exchange.getRequest().mutate()
             .header("Authorization", "Bearer " + internalToken)
             .header("X-Service-Name", "api-gateway")
+            // Authorization подменен, личность пользователя сервису не передаем
+            .headers(headers -> headers.remove(IdentityHeader.NAME))
             .build();
 
         return chain.filter(exchange.mutate().request(request).build());
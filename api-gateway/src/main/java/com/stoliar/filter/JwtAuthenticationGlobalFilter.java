@@ -1,8 +1,12 @@
 package com.stoliar.filter;
 
-import com.stoliar.util.JwtTokenProvider;
+import com.stoliar.security.BearerTokens;
+import com.stoliar.security.IdentityHeader;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtClaimsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -22,7 +26,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
 
-    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtClaimsCache jwtClaimsCache;
+    private final ObjectProvider<IdentityHeader> identityHeader;
 
     // пути, которые не требуют авторизации через JWT
     private final List<String> excludedPaths = List.of(
@@ -40,6 +45,13 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
 
         log.debug("JwtAuthenticationGlobalFilter: {} {}", method, path);
 
+        // Заголовок личности выставляет только gateway, присланный клиентом отбрасываем
+        if (exchange.getRequest().getHeaders().containsKey(IdentityHeader.NAME)) {
+            exchange = exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.remove(IdentityHeader.NAME)))
+                    .build();
+        }
+
         // Проверяем исключения (публичные эндпоинты)
         for (String pattern : excludedPaths) {
             if (pathMatcher.match(pattern, path)) {
@@ -49,11 +61,7 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
         }
 
         // Проверяем Authorization header
-        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
-        String token = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-        }
+        String token = BearerTokens.resolve(exchange.getRequest().getHeaders().getFirst("Authorization"));
 
         // Специальная обработка для /api/v1/auth/register
         if ("/api/v1/auth/register".equals(path)) {
@@ -62,13 +70,14 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
                 return unauthorizedResponse(exchange, "Authorization required");
             }
 
-            if (!jwtTokenProvider.validateToken(token)) {
+            JwtClaims claims = jwtClaimsCache.verify(token).orElse(null);
+            if (claims == null) {
                 log.warn("Invalid token for register endpoint");
                 return unauthorizedResponse(exchange, "Invalid token");
             }
 
             // Проверяем роль - должен быть ADMIN
-            String role = jwtTokenProvider.getRoleFromToken(token);
+            String role = claims.role();
             if (role == null || !"ADMIN".equals(role)) {
                 log.warn("User with role {} attempted to access admin-only endpoint", role);
                 return forbiddenResponse(exchange, "Admin access required");
@@ -76,7 +85,7 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
 
             // Если пользователь ADMIN - пропускаем
             log.info("Admin user (role: {}) accessing register endpoint", role);
-            return chain.filter(exchange);
+            return chain.filter(withVerifiedIdentity(exchange, claims));
         }
 
         // Стандартная проверка для других защищенных эндпоинтов
@@ -85,13 +94,28 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
             return unauthorizedResponse(exchange, "Authorization required");
         }
 
-        if (!jwtTokenProvider.validateToken(token)) {
+        JwtClaims claims = jwtClaimsCache.verify(token).orElse(null);
+        if (claims == null) {
             log.warn("Invalid token for endpoint: {}", path);
             return unauthorizedResponse(exchange, "Invalid or expired token");
         }
 
         log.debug("JWT validation passed for endpoint: {}", path);
-        return chain.filter(exchange);
+        return chain.filter(withVerifiedIdentity(exchange, claims));
+    }
+
+    private ServerWebExchange withVerifiedIdentity(ServerWebExchange exchange, JwtClaims claims) {
+        // Проверенные claims доступны следующим фильтрам без повторного разбора токена
+        exchange.getAttributes().put(JwtClaims.REQUEST_ATTRIBUTE, claims);
+
+        IdentityHeader header = identityHeader.getIfAvailable();
+        if (header == null) {
+            return exchange;
+        }
+        String identity = header.encode(claims);
+        return exchange.mutate()
+                .request(request -> request.header(IdentityHeader.NAME, identity))
+                .build();
     }
 
     private Mono<Void> unauthorizedResponse(ServerWebExchange exchange, String message) {
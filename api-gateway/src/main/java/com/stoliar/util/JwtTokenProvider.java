@@ -1,59 +0,0 @@
-package com.stoliar.util;
-
-import com.stoliar.config.JwtProperties;
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
-
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
-
-@Slf4j
-@Component
-@RequiredArgsConstructor
-public class JwtTokenProvider {
-    private final JwtProperties jwtProperties;
-
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (SecurityException | MalformedJwtException e) {
-            log.debug("Invalid JWT signature: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.debug("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.debug("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.debug("JWT claims string is empty: {}", e.getMessage());
-        } catch (Exception e) {
-            log.debug("JWT validation error: {}", e.getMessage());
-        }
-        return false;
-    }
-
-    public String getRoleFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.get("role", String.class);
-        } catch (Exception e) {
-            log.error("Error extracting role from token: {}", e.getMessage());
-            return null;
-        }
-    }
-}
\ No newline at end of file
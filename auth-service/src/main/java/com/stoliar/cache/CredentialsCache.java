@@ -0,0 +1,115 @@
+package com.stoliar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.repository.UserCredentialsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Кэш учетных записей по email в памяти процесса для login, refresh и UserDetailsService.
+ * Изменения и удаления сбрасывают запись локально и рассылают инвалидацию остальным репликам
+ * через Redis pub/sub (внутри транзакции - после коммита). Короткий TTL ограничивает
+ * время жизни устаревшей записи, если сообщение потеряется. Отсутствующие email не кэшируются
+ */
+@Slf4j
+public class CredentialsCache implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final UserCredentialsRepository userCredentialsRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Cache<String, CachedCredentials> cache;
+
+    public CredentialsCache(UserCredentialsRepository userCredentialsRepository,
+                            StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry,
+                            String channel,
+                            long maxSize,
+                            Duration ttl) {
+        this.userCredentialsRepository = userCredentialsRepository;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions и т.д. с тегом cache=credentials
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "credentials");
+    }
+
+    public Optional<CachedCredentials> findByEmail(String email) {
+        return Optional.ofNullable(cache.get(email, key -> userCredentialsRepository.findByEmail(key)
+                .map(CachedCredentials::from)
+                .orElse(null)));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Повторный сброс после коммита: до него другой поток мог перечитать старую строку
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                    publish(email);
+                }
+            });
+        } else {
+            publish(email);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0) {
+            log.warn("Malformed credentials invalidation: {}", body);
+            return;
+        }
+        if (!instanceId.equals(body.substring(0, separator))) {
+            cache.invalidate(body.substring(separator + 1));
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    private void publish(String email) {
+        try {
+            redisTemplate.convertAndSend(channel, instanceId + SEPARATOR + email);
+        } catch (Exception e) {
+            // Устаревшая запись у других реплик проживет не дольше TTL
+            log.warn("Failed to publish credentials invalidation for {}: {}", email, e.getMessage());
+        }
+    }
+
+    /**
+     * Неизменяемый снимок учетной записи - сущность в кэше держать нельзя, она привязана к сессии
+     */
+    public record CachedCredentials(Long id, String email, String password, Role role, boolean active) {
+
+        static CachedCredentials from(UserCredentials credentials) {
+            return new CachedCredentials(credentials.getId(), credentials.getEmail(), credentials.getPassword(),
+                    credentials.getRole(), Boolean.TRUE.equals(credentials.getActive()));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.stoliar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "app.admission")
+@Data
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // Сколько запрос ждет свободного места, прежде чем получить 503
+    private Duration acquireTimeout = Duration.ofMillis(50);
+    // Дорогие эндпоинты с ограничением одновременных запросов, остальные не ограничиваются
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Data
+    public static class Endpoint {
+        private String name;
+        private String path;
+        private int maxConcurrent;
+    }
+}
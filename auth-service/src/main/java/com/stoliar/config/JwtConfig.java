@@ -0,0 +1,35 @@
+package com.stoliar.config;
+
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.JwtClaimsCache;
+import com.stoliar.util.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class JwtConfig {
+
+    // Результаты проверки токенов для /validate и JwtAuthenticationFilter, метрики с тегом cache=verified-tokens
+    @Bean
+    public JwtClaimsCache verifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${app.token-cache.max-size:100000}") long maxSize,
+                                             @Value("${app.token-cache.negative-ttl:30s}") Duration negativeTtl) {
+        return new JwtClaimsCache(jwtTokenProvider::verify, meterRegistry, "verified-tokens", maxSize, negativeTtl);
+    }
+
+    // Запросы через gateway несут уже проверенную личность, JWT проверяется только без нее
+    @Bean
+    public GatewayIdentityResolver gatewayIdentityResolver(
+            @Value("${app.identity-propagation.enabled:false}") boolean enabled,
+            @Value("${app.identity-propagation.secret:}") String secret,
+            @Value("${app.identity-propagation.trusted-networks:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            List<String> trustedNetworks) {
+        return GatewayIdentityResolver.create(enabled, secret, trustedNetworks);
+    }
+}
@@ -0,0 +1,39 @@
+package com.stoliar.config;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.repository.UserCredentialsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public CredentialsCache credentialsCache(
+            UserCredentialsRepository userCredentialsRepository,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.credentials-cache.invalidation-channel:auth-service:credentials-invalidation}") String channel,
+            @Value("${app.credentials-cache.max-size:10000}") long maxSize,
+            @Value("${app.credentials-cache.ttl:60s}") Duration ttl) {
+        return new CredentialsCache(userCredentialsRepository, stringRedisTemplate, meterRegistry, channel, maxSize, ttl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer credentialsInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            CredentialsCache credentialsCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(credentialsCache, new ChannelTopic(credentialsCache.getChannel()));
+        return container;
+    }
+}
@@ -55,6 +55,7 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/v1/auth/login",
                                 "/api/v1/auth/refresh",
+                                "/api/v1/auth/logout",
                                 "/api/v1/auth/validate",
                                 "/api/v1/auth/internal/**",
                                 "/api/v1/auth/rollback/**",
@@ -70,8 +71,9 @@ public class SecurityConfig {
                                 "/configuration/ui",
                                 "/configuration/security"
                         ).permitAll()
-                        .requestMatchers("/api/v1/auth/register").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/auth/register", "/api/v1/auth/register/batch").hasRole("ADMIN")
                         .requestMatchers("/api/v1/auth/users/**").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/auth/registrations/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
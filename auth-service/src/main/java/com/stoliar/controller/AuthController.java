@@ -6,7 +6,6 @@ import com.stoliar.response.ApiResponse;
 import com.stoliar.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +13,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -30,25 +28,44 @@ public class AuthController {
     @Value("${api-gateway.internal-token}")
     private String apiGatewayInternalToken;
 
-    @Operation(summary = "Save user credentials", description = "Save user credentials (ADMIN only)")
+    @Operation(summary = "Save user credentials",
+            description = "Save user credentials and request profile creation in user-service (ADMIN only). " +
+                    "Account becomes active when registration completes")
     @PostMapping("/register")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<UserCredentials>> saveUserCredentials(
-            @Valid @RequestBody UserCredentialsRequest request,
-            HttpServletRequest httpRequest) {
+            @Valid @RequestBody UserCredentialsRequest request) {
 
         log.info("Saving user credentials for username: {}", request.getEmail());
 
-        // Извлекаем токен из заголовка Authorization
-        String token = getTokenFromRequest(httpRequest);
-        if (!StringUtils.hasText(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Authorization token is required"));
-        }
+        UserCredentials credentials = authService.saveUserCredentials(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(credentials, "Registration accepted"));
+    }
+
+    @Operation(summary = "Batch register users",
+            description = "Register up to 1000 users in one request (ADMIN only). Returns an outcome per row")
+    @PostMapping("/register/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BatchRegistrationResponse>> saveUserCredentialsBatch(
+            @Valid @RequestBody BatchRegistrationRequest request) {
+
+        log.info("Batch registration request for {} users", request.getUsers().size());
+
+        BatchRegistrationResponse response = authService.saveUserCredentialsBatch(request.getUsers());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(response,
+                        String.format("Batch accepted: %d of %d users", response.getAccepted(), response.getTotal())));
+    }
+
+    @Operation(summary = "Get registration status", description = "Get registration saga status by credentials ID (ADMIN only)")
+    @GetMapping("/registrations/{credentialsId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RegistrationStatusResponse>> getRegistrationStatus(
+            @PathVariable Long credentialsId) {
 
-        UserCredentials credentials = authService.saveUserCredentials(request, token);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(credentials, "User credentials saved successfully"));
+        RegistrationStatusResponse status = authService.getRegistrationStatus(credentialsId);
+        return ResponseEntity.ok(ApiResponse.success(status, "Registration status retrieved"));
     }
 
     @Operation(summary = "Create token", description = "Create JWT token for authentication")
@@ -67,7 +84,7 @@ public class AuthController {
     public ResponseEntity<ApiResponse<TokenValidationResponse>> validateToken(
             @RequestHeader("Authorization") String authHeader) {
 
-        log.info("Token validation request");
+        log.debug("Token validation request");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return ResponseEntity.badRequest()
@@ -92,12 +109,26 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(tokenResponse, "Token refreshed successfully"));
     }
 
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(index);
-        }
-        return null;
+    @Operation(summary = "Logout", description = "Revoke the given refresh token (current session only)")
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @Valid @RequestBody RefreshTokenRequest request) {
+
+        log.info("Logout request");
+
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success(null, "Logged out successfully"));
+    }
+
+    @Operation(summary = "Revoke all sessions", description = "Revoke every refresh token of the user (ADMIN only)")
+    @DeleteMapping("/users/{id}/sessions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> revokeAllSessions(@PathVariable Long id) {
+
+        log.info("Revoking all sessions for credentials id: {}", id);
+
+        long revoked = authService.revokeAllSessions(id);
+        return ResponseEntity.ok(ApiResponse.success(revoked, "Sessions revoked successfully"));
     }
 
     @Operation(summary = "Delete user for rollback", description = "Delete user by ID (for internal use by API Gateway)")
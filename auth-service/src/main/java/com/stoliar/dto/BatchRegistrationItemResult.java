@@ -0,0 +1,25 @@
+package com.stoliar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRegistrationItemResult {
+
+    public enum Outcome {
+        ACCEPTED,
+        INVALID,
+        DUPLICATE,
+        FORBIDDEN
+    }
+
+    /** Позиция строки в запросе */
+    private int index;
+    private String email;
+    private Outcome outcome;
+    private Long credentialsId;
+    private String error;
+}
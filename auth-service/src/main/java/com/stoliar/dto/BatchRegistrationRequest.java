@@ -0,0 +1,16 @@
+package com.stoliar.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRegistrationRequest {
+
+    // Строки проверяются по отдельности, ошибка в одной не отклоняет весь пакет
+    @NotEmpty(message = "Users list is required")
+    @Size(max = 1000, message = "Batch must contain at most 1000 users")
+    private List<UserCredentialsRequest> users;
+}
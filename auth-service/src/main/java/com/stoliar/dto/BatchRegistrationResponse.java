@@ -0,0 +1,17 @@
+package com.stoliar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRegistrationResponse {
+    private int total;
+    private int accepted;
+    private int rejected;
+    private List<BatchRegistrationItemResult> results;
+}
@@ -0,0 +1,16 @@
+package com.stoliar.dto;
+
+import com.stoliar.entity.RegistrationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationStatusResponse {
+    private Long credentialsId;
+    private String email;
+    private RegistrationStatus status;
+    private String error;
+}
@@ -1,30 +0,0 @@
-package com.stoliar.dto;
-
-import com.stoliar.entity.Role;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
-import lombok.Data;
-
-import java.time.LocalDate;
-
-@Data
-public class UserCreateRequest {
-    @NotBlank(message = "Password is required")
-    private String password;
-
-    @NotNull(message = "Role is required")
-    private Role role;
-
-    // Добавляем обязательные поля для user-service
-    @NotBlank(message = "Name is required")
-    private String name;
-
-    @NotBlank(message = "Surname is required")
-    private String surname;
-
-    @NotBlank(message = "Email is required")
-    private String email;
-
-    @NotNull(message = "Birth date is required")
-    private LocalDate birthDate;
-}
\ No newline at end of file
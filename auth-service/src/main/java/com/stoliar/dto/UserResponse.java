@@ -1,19 +0,0 @@
-package com.stoliar.dto;
-
-import com.stoliar.entity.Role;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class UserResponse {
-    private Long id;
-    private String username;
-    private String email;
-    private String firstName;
-    private String lastName;
-    private Role role;
-    private Boolean active;
-}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.stoliar.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserRegistrationRequestedEvent {
+
+    /** Уникальный ID события, по нему user-service обрабатывает его идемпотентно */
+    private String eventId;
+
+    /** ID учетной записи в auth-service */
+    private Long credentialsId;
+
+    private String email;
+    private String name;
+    private String surname;
+    private LocalDate birthDate;
+    private String role;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,31 @@
+package com.stoliar.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserRegistrationResultEvent {
+
+    /** ID исходного события UserRegistrationRequestedEvent */
+    private String eventId;
+
+    private Long credentialsId;
+
+    /** ID созданного профиля в user-service, только для COMPLETED */
+    private Long userId;
+
+    /** COMPLETED, FAILED */
+    private String status;
+
+    private String reason;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,7 @@
+package com.stoliar.entity;
+
+public enum RegistrationStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
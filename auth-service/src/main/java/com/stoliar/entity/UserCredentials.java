@@ -33,11 +33,13 @@ public class UserCredentials {
     @Column(nullable = false)
     private Boolean active = true;
 
-    @Column(name = "refresh_token")
-    private String refreshToken;
+    // Статус саги регистрации: учетная запись активируется, когда user-service создал профиль
+    @Enumerated(EnumType.STRING)
+    @Column(name = "registration_status", nullable = false, length = 20)
+    private RegistrationStatus registrationStatus = RegistrationStatus.COMPLETED;
 
-    @Column(name = "refresh_token_expiry")
-    private LocalDateTime refreshTokenExpiry;
+    @Column(name = "registration_error")
+    private String registrationError;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,112 @@
+package com.stoliar.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.config.AdmissionProperties;
+import com.stoliar.response.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает число одновременных запросов к дорогим эндпоинтам (login, register),
+ * чтобы волна логинов не заняла все потоки Tomcat и дешевые /validate и /refresh
+ * сохранили свою пропускную способность. Лишние запросы сразу получают 503 с Retry-After.
+ * Стоит перед Spring Security, чтобы отказ не тратил время на разбор токена
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ObjectMapper objectMapper;
+    private final long acquireTimeoutNanos;
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (AdmissionProperties.Endpoint endpoint : properties.getEndpoints()) {
+            Semaphore permits = new Semaphore(endpoint.getMaxConcurrent());
+            Counter rejected = Counter.builder("auth.admission.rejected")
+                    .description("Requests rejected by admission control")
+                    .tag("endpoint", endpoint.getName())
+                    .register(meterRegistry);
+            Gauge.builder("auth.admission.in_flight", permits,
+                            semaphore -> endpoint.getMaxConcurrent() - semaphore.availablePermits())
+                    .description("Requests currently admitted to the endpoint")
+                    .tag("endpoint", endpoint.getName())
+                    .register(meterRegistry);
+            bulkheads.put(endpoint.getPath(), new Bulkhead(endpoint.getName(), permits, rejected));
+            log.info("Admission control for {} ({}): max {} concurrent requests",
+                    endpoint.getName(), endpoint.getPath(), endpoint.getMaxConcurrent());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !bulkheads.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheads.get(request.getRequestURI());
+        if (!tryAcquire(bulkhead.permits())) {
+            bulkhead.rejected().increment();
+            log.warn("Admission rejected for {}: too many concurrent requests", bulkhead.name());
+            reject(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.permits().release();
+        }
+    }
+
+    private boolean tryAcquire(Semaphore permits) {
+        try {
+            return permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Authentication service is busy, please retry"));
+    }
+
+    private record Bulkhead(String name, Semaphore permits, Counter rejected) {
+    }
+}
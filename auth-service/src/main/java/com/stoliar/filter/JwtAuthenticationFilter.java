@@ -1,7 +1,11 @@
 package com.stoliar.filter;
 
 import com.stoliar.entity.Role;
-import com.stoliar.util.JwtTokenProvider;
+import com.stoliar.security.BearerTokens;
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.IdentityHeader;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtClaimsCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,8 +27,8 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider jwtTokenProvider;
-    private final int index = 7;
+    private final JwtClaimsCache verifiedTokenCache;
+    private final GatewayIdentityResolver gatewayIdentityResolver;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -36,12 +40,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                   HttpServletResponse response,
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
-            String token = getTokenFromRequest(request);
+            JwtClaims verified = resolveClaims(request);
 
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String email = jwtTokenProvider.getEmailFromToken(token);
-                Role role = jwtTokenProvider.getRoleFromToken(token);
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            if (verified != null) {
+                String email = verified.subject();
+                Role role = Role.valueOf(verified.role());
+                Long userId = verified.userId();
 
                 var authorities = Collections.singletonList(
                         new SimpleGrantedAuthority("ROLE_" + role.name())
@@ -50,6 +54,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 var authentication = new UsernamePasswordAuthenticationToken(
                     userId, null, authorities
                 );
+                // Проверенные claims доступны дальше по запросу без повторного разбора токена
+                authentication.setDetails(verified);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, verified);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
                 log.debug("Authenticated user: {} with role: {}", email, role);
@@ -62,11 +69,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(index);
+    private JwtClaims resolveClaims(HttpServletRequest request) {
+        // Личность, уже проверенная на gateway, иначе JWT через кэш проверок
+        JwtClaims claims = gatewayIdentityResolver.resolve(
+                request.getHeader(IdentityHeader.NAME), request.getRemoteAddr());
+        if (claims != null) {
+            return claims;
         }
-        return null;
+        String token = BearerTokens.resolve(request.getHeader("Authorization"));
+        return StringUtils.hasText(token) ? verifiedTokenCache.verify(token).orElse(null) : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED: несколько реплик разбирают outbox параллельно, не отправляя одно событие дважды
+    @Query(value = """
+    SELECT * FROM registration_outbox
+    WHERE published_at IS NULL
+    ORDER BY id
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<OutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.aggregateId = :aggregateId AND e.publishedAt IS NULL")
+    int deleteUnpublished(@Param("aggregateId") Long aggregateId);
+}
@@ -0,0 +1,139 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная запись регистраций через JDBC. UserCredentials и OutboxEvent используют IDENTITY,
+ * поэтому Hibernate вставлял бы их по одной строке
+ */
+@Repository
+@RequiredArgsConstructor
+public class RegistrationBatchRepository {
+
+    private static final int OUTBOX_BATCH_SIZE = 500;
+
+    // Один запрос на весь пакет; занятые email пропускаются и не попадают в RETURNING
+    private static final String INSERT_PENDING_SQL = """
+    INSERT INTO user_credentials (email, password, role, name, surname, birth_date,
+                                  active, registration_status, created_at, updated_at)
+    SELECT u.email, u.password, u.role, u.name, u.surname, u.birth_date,
+           false, 'PENDING', now(), now()
+    FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[])
+         AS u(email, password, role, name, surname, birth_date)
+    ON CONFLICT (email) DO NOTHING
+    RETURNING id, email
+    """;
+
+    // Неудачные регистрации переиспользуются с прежним id: опоздавший результат прежней попытки
+    // в user-service найдет ту же запись. Отсчет таймаута PENDING начинается заново с updated_at
+    private static final String RESET_FAILED_SQL = """
+    UPDATE user_credentials c
+    SET password = u.password, role = u.role, name = u.name, surname = u.surname, birth_date = u.birth_date,
+        active = false, registration_status = 'PENDING', registration_error = NULL, updated_at = now()
+    FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[])
+         AS u(email, password, role, name, surname, birth_date)
+    WHERE c.email = u.email AND c.registration_status = 'FAILED'
+    RETURNING c.id, c.email
+    """;
+
+    private static final String DELETE_UNPUBLISHED_OUTBOX_SQL = """
+    DELETE FROM registration_outbox WHERE published_at IS NULL AND aggregate_id = ANY(?::bigint[])
+    """;
+
+    private static final String INSERT_OUTBOX_SQL = """
+    INSERT INTO registration_outbox (aggregate_id, event_type, payload, created_at)
+    VALUES (?, ?, ?, ?)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Переводит неудачные регистрации с этими email обратно в PENDING с новыми данными
+     * и удаляет их неотправленные события
+     *
+     * @return id переиспользованных записей по email
+     */
+    public Map<String, Long> resetFailedRegistrations(List<PendingCredentials> rows) {
+        Map<String, Long> ids = queryByEmail(RESET_FAILED_SQL, rows);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(DELETE_UNPUBLISHED_OUTBOX_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", ids.values().toArray()));
+                return statement;
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Вставляет учетные записи в статусе PENDING
+     *
+     * @return id вставленных записей по email; email, уже занятые в БД, в результат не входят
+     */
+    public Map<String, Long> insertPending(List<PendingCredentials> rows) {
+        return queryByEmail(INSERT_PENDING_SQL, rows);
+    }
+
+    // Строки пакета передаются колонками-массивами в unnest, запрос возвращает id и email
+    private Map<String, Long> queryByEmail(String sql, List<PendingCredentials> rows) {
+        Object[] emails = new Object[rows.size()];
+        Object[] passwords = new Object[rows.size()];
+        Object[] roles = new Object[rows.size()];
+        Object[] names = new Object[rows.size()];
+        Object[] surnames = new Object[rows.size()];
+        Object[] birthDates = new Object[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            PendingCredentials row = rows.get(i);
+            emails[i] = row.email();
+            passwords[i] = row.encodedPassword();
+            roles[i] = row.role();
+            names[i] = row.name();
+            surnames[i] = row.surname();
+            birthDates[i] = Date.valueOf(row.birthDate());
+        }
+
+        Map<String, Long> ids = new HashMap<>(rows.size() * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            Array[] arrays = {
+                    connection.createArrayOf("varchar", emails),
+                    connection.createArrayOf("varchar", passwords),
+                    connection.createArrayOf("varchar", roles),
+                    connection.createArrayOf("varchar", names),
+                    connection.createArrayOf("varchar", surnames),
+                    connection.createArrayOf("date", birthDates)
+            };
+            for (int i = 0; i < arrays.length; i++) {
+                statement.setArray(i + 1, arrays[i]);
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> ids.put(rs.getString("email"), rs.getLong("id")));
+        return ids;
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, OUTBOX_BATCH_SIZE, (statement, event) -> {
+            statement.setLong(1, event.getAggregateId());
+            statement.setString(2, event.getEventType());
+            statement.setString(3, event.getPayload());
+            statement.setTimestamp(4, Timestamp.valueOf(event.getCreatedAt()));
+        });
+    }
+
+    public record PendingCredentials(String email, String encodedPassword, String role,
+                                     String name, String surname, LocalDate birthDate) {
+    }
+}
@@ -1,13 +1,36 @@
 package com.stoliar.repository;
 
 import com.stoliar.entity.UserCredentials;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserCredentialsRepository extends JpaRepository<UserCredentials, Long> {
     Optional<UserCredentials> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Повторная регистрация после FAILED: две одновременные попытки не переиспользуют запись дважды
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM UserCredentials c WHERE c.email = :email")
+    Optional<UserCredentials> findByEmailForUpdate(@Param("email") String email);
+
+    // SKIP LOCKED: реплики не разбирают одни и те же зависшие регистрации.
+    // Ожидание считается от updated_at: повторная попытка переиспользует запись и начинает отсчет заново
+    @Query(value = """
+    SELECT * FROM user_credentials
+    WHERE registration_status = 'PENDING' AND updated_at < :requestedBefore
+    ORDER BY updated_at
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<UserCredentials> lockStalePending(@Param("requestedBefore") LocalDateTime requestedBefore,
+                                           @Param("limit") int limit);
+}
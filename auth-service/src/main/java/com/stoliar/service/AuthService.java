@@ -1,18 +1,28 @@
 package com.stoliar.service;
 
 
+import com.stoliar.dto.BatchRegistrationResponse;
 import com.stoliar.dto.LoginRequest;
+import com.stoliar.dto.RegistrationStatusResponse;
 import com.stoliar.dto.TokenResponse;
 import com.stoliar.dto.TokenValidationResponse;
 import com.stoliar.dto.UserCredentialsRequest;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
 import com.stoliar.entity.UserCredentials;
 import com.stoliar.response.ApiResponse;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+
 public interface AuthService {
-    UserCredentials saveUserCredentials(UserCredentialsRequest request, String adminToken);
+    UserCredentials saveUserCredentials(UserCredentialsRequest request);
+    BatchRegistrationResponse saveUserCredentialsBatch(List<UserCredentialsRequest> requests);
+    void applyRegistrationResult(UserRegistrationResultEvent event);
+    RegistrationStatusResponse getRegistrationStatus(Long credentialsId);
     TokenResponse login(LoginRequest request);
     TokenResponse refreshToken(String refreshToken);
+    void logout(String refreshToken);
+    long revokeAllSessions(Long credentialsId);
     TokenValidationResponse validateToken(String token);
     ResponseEntity<ApiResponse<Void>> deleteUserForRollback(Long id);
     ResponseEntity<ApiResponse<Void>> deleteUserAsAdmin(Long credentialsId, String adminToken);
@@ -1,7 +1,7 @@
 package com.stoliar.service;
 
-import com.stoliar.entity.UserCredentials;
-import com.stoliar.repository.UserCredentialsRepository;
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.cache.CredentialsCache.CachedCredentials;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -10,7 +10,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 
@@ -19,26 +18,25 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserCredentialsRepository userCredentialsRepository;
+    private final CredentialsCache credentialsCache;
 
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserCredentials credentials = userCredentialsRepository.findByEmail(email)
+        CachedCredentials credentials = credentialsCache.findByEmail(email)
                 .orElseThrow(() -> {
                     log.warn("User not found: {}", email);
                     return new UsernameNotFoundException("User not found: " + email);
                 });
 
-        if (!credentials.getActive()) {
+        if (!credentials.active()) {
             log.warn("User account is disabled: {}", email);
             throw new UsernameNotFoundException("User account is disabled: " + email);
         }
 
         return new User(
-                credentials.getEmail(),
-                credentials.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + credentials.getRole().name()))
+                credentials.email(),
+                credentials.password(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + credentials.role().name()))
         );
     }
 }
\ No newline at end of file
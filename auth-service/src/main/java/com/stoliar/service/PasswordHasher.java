@@ -0,0 +1,282 @@
+package com.stoliar.service;
+
+import com.stoliar.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет BCrypt на отдельном пуле по числу ядер с ограниченной очередью.
+ * Хеширование намеренно дорогое: на потоках Tomcat волна логинов занимает все потоки
+ * и голодают дешевые /validate и /refresh. Если очередь заполнена или ожидание дольше
+ * wait-timeout, запрос сразу отклоняется с 503 вместо того, чтобы копиться.
+ * Все пакеты вместе занимают не больше batch-parallelism потоков (не больше пула минус один),
+ * поэтому хотя бы один поток всегда остается логинам
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final int batchParallelism;
+    private final Semaphore batchPermits;
+    private final Duration batchTimeout;
+
+    private final Timer matchesQueueWait;
+    private final Timer matchesDuration;
+    private final Timer encodeQueueWait;
+    private final Timer encodeDuration;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.password-hashing.threads:0}") int threads,
+                          @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.password-hashing.wait-timeout:3s}") Duration waitTimeout,
+                          @Value("${app.password-hashing.batch-parallelism:0}") int batchParallelism,
+                          @Value("${app.password-hashing.batch-timeout:2m}") Duration batchTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.waitTimeout = waitTimeout;
+        this.batchTimeout = batchTimeout;
+
+        // Минимум два потока: один пакетам, один логинам
+        int poolSize = Math.max(2, threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.batchParallelism = batchParallelism > 0
+                ? Math.min(batchParallelism, poolSize - 1)
+                : Math.max(1, poolSize / 2);
+        this.batchPermits = new Semaphore(this.batchParallelism);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool: {} threads ({} for batches), queue capacity {}",
+                poolSize, this.batchParallelism, queueCapacity);
+
+        this.matchesQueueWait = queueWaitTimer(meterRegistry, "matches");
+        this.matchesDuration = hashTimer(meterRegistry, "matches");
+        this.encodeQueueWait = queueWaitTimer(meterRegistry, "encode");
+        this.encodeDuration = hashTimer(meterRegistry, "encode");
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+
+        Gauge.builder("auth.password.hash.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesQueueWait, matchesDuration);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword), encodeQueueWait, encodeDuration);
+    }
+
+    /**
+     * Хеширует пароли пакета параллельно. Разрешения общие для всех пакетов: сколько бы пакетов
+     * ни шло одновременно, в пуле не больше batch-parallelism их задач, и логины не ждут за ними в очереди.
+     * Порядок результатов совпадает с порядком паролей
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        long deadline = System.nanoTime() + batchTimeout.toNanos();
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                if (!batchPermits.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException();
+                }
+                BatchTask task = new BatchTask(
+                        timed(() -> passwordEncoder.encode(rawPassword), encodeQueueWait, encodeDuration));
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    batchPermits.release();
+                    rejectedQueueFull.increment();
+                    throw overloaded();
+                }
+                futures.add(task);
+            }
+
+            List<String> encoded = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                encoded.add(future.get(remaining(deadline), TimeUnit.NANOSECONDS));
+            }
+            return encoded;
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            rejectedTimeout.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw unwrap(e);
+        } catch (RuntimeException e) {
+            cancelAll(futures);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Supplier<T> task, Timer queueWait, Timer duration) {
+        Future<T> future;
+        try {
+            future = executor.submit(timed(task, queueWait, duration));
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Задача еще в очереди или считается - клиенту ответ уже не нужен
+            future.cancel(true);
+            rejectedTimeout.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Задача пакета, возвращающая разрешение ровно один раз: после выполнения или при отмене
+     * до старта. Отмененная во время BCrypt задача держит разрешение, пока поток действительно занят
+     */
+    private final class BatchTask extends FutureTask<String> {
+
+        private final AtomicBoolean permitReleased = new AtomicBoolean();
+        private volatile boolean started;
+
+        private BatchTask(Callable<String> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            try {
+                super.run();
+            } finally {
+                releasePermit();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!started) {
+                releasePermit();
+            }
+        }
+
+        private void releasePermit() {
+            if (permitReleased.compareAndSet(false, true)) {
+                batchPermits.release();
+            }
+        }
+    }
+
+    private static <T> Callable<T> timed(Supplier<T> task, Timer queueWait, Timer duration) {
+        long enqueued = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            queueWait.record(start - enqueued, TimeUnit.NANOSECONDS);
+            try {
+                return task.get();
+            } finally {
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Password hashing failed", e.getCause());
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    private static ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Authentication service is busy, please retry", RETRY_AFTER_SECONDS);
+    }
+
+    private static Timer queueWaitTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash.queue.wait")
+                .description("Time a password hashing task waited for a thread")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Password hashing time")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.password.hash.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.stoliar.service;
+
+import java.time.Duration;
+
+/**
+ * Хранилище активных refresh-токенов вне строки user_credentials.
+ * Токены хранятся хешами, у каждого свой TTL; у пользователя может быть несколько сессий
+ */
+public interface RefreshTokenStore {
+
+    void store(Long credentialsId, String refreshToken, Duration ttl);
+
+    /**
+     * Атомарно отзывает токен
+     *
+     * @return true, если токен был активен и принадлежал пользователю
+     */
+    boolean revoke(Long credentialsId, String refreshToken);
+
+    /**
+     * Отзывает все сессии пользователя
+     *
+     * @return число отозванных активных токенов
+     */
+    long revokeAll(Long credentialsId);
+}
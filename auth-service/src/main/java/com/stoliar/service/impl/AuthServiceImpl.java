@@ -1,17 +1,35 @@
 package com.stoliar.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.cache.CredentialsCache.CachedCredentials;
 import com.stoliar.dto.*;
+import com.stoliar.dto.BatchRegistrationItemResult.Outcome;
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.entity.OutboxEvent;
+import com.stoliar.entity.RegistrationStatus;
 import com.stoliar.entity.Role;
 import com.stoliar.entity.UserCredentials;
 import com.stoliar.exception.DuplicateResourceException;
 import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.exception.InvalidCredentialsException;
 import com.stoliar.exception.UserServiceException;
+import com.stoliar.repository.OutboxEventRepository;
+import com.stoliar.repository.RegistrationBatchRepository;
+import com.stoliar.repository.RegistrationBatchRepository.PendingCredentials;
 import com.stoliar.repository.UserCredentialsRepository;
 import com.stoliar.response.ApiResponse;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtClaimsCache;
 import com.stoliar.service.AuthService;
+import com.stoliar.service.PasswordHasher;
+import com.stoliar.service.RefreshTokenStore;
 import com.stoliar.service.UserServiceClient;
 import com.stoliar.util.JwtTokenProvider;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,132 +38,251 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
+    static final String REGISTRATION_REQUESTED = "USER_REGISTRATION_REQUESTED";
+
     private final UserCredentialsRepository userCredentialsRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserServiceClient userServiceClient;
+    private final RefreshTokenStore refreshTokenStore;
+    private final CredentialsCache credentialsCache;
+    private final JwtClaimsCache verifiedTokenCache;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final Validator validator;
 
     @Value("${API_GATEWAY_INTERNAL_TOKEN}")
     private String internalToken;
 
+    // Транзакция открывается только после BCrypt: соединение из пула занято лишь на время записи
     @Override
-    @Transactional
-    public UserCredentials saveUserCredentials(UserCredentialsRequest request, String adminToken) {
+    public UserCredentials saveUserCredentials(UserCredentialsRequest request) {
         log.info("Saving user credentials for username: {}", request.getEmail());
 
-        if (userCredentialsRepository.existsByEmail(request.getEmail())) {
-            throw new DuplicateResourceException("Username already exists: " + request.getEmail());
+        Role requestedRole = request.getRole();
+
+        // Только ADMIN может создавать пользователей с ролью ADMIN
+        if (requestedRole == Role.ADMIN && !isCurrentUserAdmin()) {
+            throw new SecurityException("Only ADMIN users can create users with ADMIN role");
         }
 
-        // Проверяем права на создание роли ADMIN
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isCurrentUserAdmin = false;
+        String encodedPassword = passwordHasher.encode(request.getPassword());
+
+        return transactionTemplate.execute(status -> {
+            UserCredentials credentials = userCredentialsRepository.findByEmailForUpdate(request.getEmail())
+                    .map(existing -> {
+                        if (existing.getRegistrationStatus() != RegistrationStatus.FAILED) {
+                            throw new DuplicateResourceException("Username already exists: " + request.getEmail());
+                        }
+                        // Неудачная регистрация не занимает email. Повторная попытка переиспользует запись
+                        // с тем же id: опоздавший результат прежней попытки найдет ее, а не потеряется
+                        outboxEventRepository.deleteUnpublished(existing.getId());
+                        existing.setRegistrationError(null);
+                        return existing;
+                    })
+                    .orElseGet(UserCredentials::new);
+
+            // Учетная запись неактивна, пока user-service не подтвердит создание профиля
+            credentials.setEmail(request.getEmail());
+            credentials.setPassword(encodedPassword);
+            credentials.setRole(requestedRole);
+            credentials.setActive(false);
+            credentials.setRegistrationStatus(RegistrationStatus.PENDING);
+            credentials.setName(request.getName());
+            credentials.setSurname(request.getSurname());
+            credentials.setBirthDate(request.getBirthDate());
+
+            UserCredentials savedCredentials = userCredentialsRepository.save(credentials);
+
+            // Событие пишется в той же транзакции, в Kafka его отправит RegistrationOutboxRelay
+            outboxEventRepository.save(registrationRequested(savedCredentials.getId(), request));
+            credentialsCache.evict(savedCredentials.getEmail());
+
+            log.info("Registration requested for credentials id: {}", savedCredentials.getId());
+            return savedCredentials;
+        });
+    }
 
-        if (authentication != null && authentication.isAuthenticated()) {
-            for (GrantedAuthority authority : authentication.getAuthorities()) {
-                if ("ROLE_ADMIN".equals(authority.getAuthority())) {
-                    isCurrentUserAdmin = true;
-                    break;
-                }
+    // Пароли хешируются параллельно до транзакции, затем весь пакет пишется несколькими запросами
+    @Override
+    public BatchRegistrationResponse saveUserCredentialsBatch(List<UserCredentialsRequest> requests) {
+        log.info("Batch registration of {} users", requests.size());
+
+        BatchRegistrationItemResult[] results = new BatchRegistrationItemResult[requests.size()];
+        boolean currentUserAdmin = isCurrentUserAdmin();
+        Set<String> batchEmails = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UserCredentialsRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = rejected(i, null, Outcome.INVALID, "User entry is required");
+                continue;
+            }
+            Set<ConstraintViolation<UserCredentialsRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String error = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = rejected(i, request.getEmail(), Outcome.INVALID, error);
+            } else if (request.getRole() == Role.ADMIN && !currentUserAdmin) {
+                results[i] = rejected(i, request.getEmail(), Outcome.FORBIDDEN,
+                        "Only ADMIN users can create users with ADMIN role");
+            } else if (!batchEmails.add(request.getEmail())) {
+                results[i] = rejected(i, request.getEmail(), Outcome.DUPLICATE,
+                        "Duplicate email in batch: " + request.getEmail());
+            } else {
+                candidates.add(i);
             }
         }
 
-        Role requestedRole = request.getRole();
+        if (!candidates.isEmpty()) {
+            List<String> encodedPasswords = passwordHasher.encodeAll(candidates.stream()
+                    .map(i -> requests.get(i).getPassword())
+                    .toList());
 
-        // Только ADMIN может создавать пользователей с ролью ADMIN
-        if (requestedRole == Role.ADMIN && !isCurrentUserAdmin) {
-            throw new SecurityException("Only ADMIN users can create users with ADMIN role");
-        }
-
-        // Создаем credentials
-        UserCredentials credentials = new UserCredentials();
-        credentials.setEmail(request.getEmail());
-        credentials.setPassword(passwordEncoder.encode(request.getPassword()));
-        credentials.setRole(requestedRole);
-        credentials.setActive(true);
-        credentials.setName(request.getName());
-        credentials.setSurname(request.getSurname());
-        credentials.setBirthDate(request.getBirthDate());
+            List<PendingCredentials> rows = new ArrayList<>(candidates.size());
+            for (int c = 0; c < candidates.size(); c++) {
+                UserCredentialsRequest request = requests.get(candidates.get(c));
+                rows.add(new PendingCredentials(request.getEmail(), encodedPasswords.get(c),
+                        request.getRole().name(), request.getName(), request.getSurname(), request.getBirthDate()));
+            }
 
-        UserCredentials savedCredentials = userCredentialsRepository.save(credentials);
-        Long savedCredentialsId = savedCredentials.getId();
+            transactionTemplate.executeWithoutResult(status -> {
+                // Неудачные регистрации переиспользуются с прежним id, остальные email вставляются заново
+                Map<String, Long> ids = new HashMap<>(registrationBatchRepository.resetFailedRegistrations(rows));
+                ids.keySet().forEach(credentialsCache::evict);
+                ids.putAll(registrationBatchRepository.insertPending(rows));
+
+                List<OutboxEvent> events = new ArrayList<>(ids.size());
+                for (Integer i : candidates) {
+                    UserCredentialsRequest request = requests.get(i);
+                    Long id = ids.get(request.getEmail());
+                    if (id == null) {
+                        results[i] = rejected(i, request.getEmail(), Outcome.DUPLICATE,
+                                "Username already exists: " + request.getEmail());
+                        continue;
+                    }
+                    events.add(registrationRequested(id, request));
+                    results[i] = new BatchRegistrationItemResult(i, request.getEmail(), Outcome.ACCEPTED, id, null);
+                }
+                registrationBatchRepository.insertOutboxEvents(events);
+            });
+        }
 
-        try {
-            // Создаем запись в user-service с передачей adminToken
-            UserCreateRequest userCreateRequest = new UserCreateRequest();
-            userCreateRequest.setEmail(request.getEmail());
-            userCreateRequest.setRole(requestedRole);
-            userCreateRequest.setName(request.getName());
-            userCreateRequest.setSurname(request.getSurname());
-            userCreateRequest.setBirthDate(request.getBirthDate());
+        List<BatchRegistrationItemResult> resultList = Arrays.asList(results);
+        int accepted = (int) resultList.stream()
+                .filter(result -> result.getOutcome() == Outcome.ACCEPTED)
+                .count();
+        log.info("Batch registration finished: {} accepted, {} rejected", accepted, requests.size() - accepted);
+        return new BatchRegistrationResponse(requests.size(), accepted, requests.size() - accepted, resultList);
+    }
 
-            UserResponse userResponse = userServiceClient.createUser(userCreateRequest, adminToken);
-            log.info("Successfully created user in user-service with id: {}", userResponse.getId());
+    @Override
+    @Transactional
+    public void applyRegistrationResult(UserRegistrationResultEvent event) {
+        UserCredentials credentials = userCredentialsRepository.findById(event.getCredentialsId()).orElse(null);
+        if (credentials == null) {
+            log.warn("Registration result for unknown credentials id: {}, skipping", event.getCredentialsId());
+            return;
+        }
 
-        } catch (UserServiceException e) {
+        boolean completed = RegistrationStatus.COMPLETED.name().equals(event.getStatus());
 
-            try {
-                // Вызываем метод rollback
-                deleteUserForRollback(savedCredentialsId);
-                log.info("Rollback completed successfully");
-            } catch (Exception rollbackEx) {
-                log.error("Rollback also failed! Manual intervention required.", rollbackEx);
-                // Объединяем ошибки
-                throw new RuntimeException(
-                        "User creation failed AND rollback failed! " +
-                                "Creation error: " + e.getMessage() +
-                                " | Rollback error: " + rollbackEx.getMessage(), e);
-            }
+        // Повторная доставка результата ничего не меняет. Исключение - COMPLETED после таймаута:
+        // профиль в user-service уже создан, поэтому учетная запись активируется, а не остается сиротой
+        boolean lateCompletion = completed && credentials.getRegistrationStatus() == RegistrationStatus.FAILED;
+        if (credentials.getRegistrationStatus() != RegistrationStatus.PENDING && !lateCompletion) {
+            log.info("Registration for credentials id {} already {}, skipping result {}",
+                    credentials.getId(), credentials.getRegistrationStatus(), event.getEventId());
+            return;
+        }
 
-            throw new RuntimeException("Failed to create user profile: " + e.getMessage());
+        if (completed) {
+            credentials.setRegistrationStatus(RegistrationStatus.COMPLETED);
+            credentials.setRegistrationError(null);
+            credentials.setActive(true);
+            log.info("Registration completed for credentials id: {}, user id: {}{}",
+                    credentials.getId(), event.getUserId(), lateCompletion ? " after timeout" : "");
+        } else {
+            // Компенсация: учетная запись остается неактивной и не дает войти
+            credentials.setRegistrationStatus(RegistrationStatus.FAILED);
+            credentials.setRegistrationError(event.getReason());
+            log.warn("Registration failed for credentials id: {}, reason: {}",
+                    credentials.getId(), event.getReason());
         }
+        credentialsCache.evict(credentials.getEmail());
+    }
 
-        return savedCredentials;
+    @Override
+    @Transactional(readOnly = true)
+    public RegistrationStatusResponse getRegistrationStatus(Long credentialsId) {
+        UserCredentials credentials = userCredentialsRepository.findById(credentialsId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "User credentials not found with id: " + credentialsId));
+
+        return new RegistrationStatusResponse(
+                credentials.getId(),
+                credentials.getEmail(),
+                credentials.getRegistrationStatus(),
+                credentials.getRegistrationError()
+        );
     }
 
+    // Без общей транзакции: соединение из пула не держится, пока BCrypt проверяет пароль
     @Override
-    @Transactional
     public TokenResponse login(LoginRequest request) {
         log.info("Login attempt for username: {}", request.getEmail());
 
-        UserCredentials credentials = userCredentialsRepository.findByEmail(request.getEmail())
+        CachedCredentials credentials = credentialsCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid username or password"));
 
-        if (!credentials.getActive()) {
+        if (!credentials.active()) {
             throw new InvalidCredentialsException("Account is deactivated");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), credentials.getPassword())) {
+        if (!passwordHasher.matches(request.getPassword(), credentials.password())) {
             throw new InvalidCredentialsException("Invalid username or password");
         }
 
         String accessToken = jwtTokenProvider.generateAccessToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
+                credentials.email(),
+                credentials.role(),
+                credentials.id()
         );
 
         String refreshToken = jwtTokenProvider.generateRefreshToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
+                credentials.email(),
+                credentials.role(),
+                credentials.id()
         );
 
-        // Сохраняем refresh token в базу
-        credentials.setRefreshToken(refreshToken);
-        credentials.setRefreshTokenExpiry(LocalDateTime.now().plusSeconds(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration() / 1000));
-        userCredentialsRepository.save(credentials);
+        // Сессия хранится в Redis, строка user_credentials не обновляется
+        refreshTokenStore.store(credentials.id(), refreshToken, refreshTokenTtl());
 
         log.info("Successful login for username: {}", request.getEmail());
 
@@ -158,55 +295,45 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    @Transactional
     public TokenResponse refreshToken(String refreshToken) {
         log.info("Refresh token request");
 
-        // Проверяем, что токен является refresh token
-        if (!jwtTokenProvider.isRefreshToken(refreshToken)) {
-            throw new InvalidCredentialsException("Invalid refresh token");
-        }
-
-        // Проверяем валидность токена
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        // Подпись, срок и тип проверяются за один разбор токена
+        JwtClaims verified = jwtTokenProvider.verify(refreshToken);
+        if (verified == null) {
             throw new InvalidCredentialsException("Invalid or expired refresh token");
         }
+        if (!verified.isRefreshToken()) {
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
 
-        String email = jwtTokenProvider.getUsernameFromToken(refreshToken);
-        UserCredentials credentials = userCredentialsRepository.findByEmail(email)
+        String email = verified.subject();
+        CachedCredentials credentials = credentialsCache.findByEmail(email)
                 .orElseThrow(() -> new InvalidCredentialsException("User not found"));
 
-        if (!credentials.getActive()) {
+        if (!credentials.active()) {
             throw new InvalidCredentialsException("Account is deactivated");
         }
 
-        // Проверяем, что refresh token совпадает с сохраненным
-        if (!refreshToken.equals(credentials.getRefreshToken())) {
-            throw new InvalidCredentialsException("Invalid refresh token");
-        }
-
-        // Проверяем срок действия refresh token
-        if (credentials.getRefreshTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new InvalidCredentialsException("Refresh token expired");
+        // Refresh token одноразовый: отзываем его до выпуска новой пары, повторное использование не пройдет
+        if (!refreshTokenStore.revoke(credentials.id(), refreshToken)) {
+            throw new InvalidCredentialsException("Invalid or revoked refresh token");
         }
 
         // Генерируем новую пару токенов
         String newAccessToken = jwtTokenProvider.generateAccessToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
+                credentials.email(),
+                credentials.role(),
+                credentials.id()
         );
 
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(
-                credentials.getEmail(),
-                credentials.getRole(),
-                credentials.getId()
+                credentials.email(),
+                credentials.role(),
+                credentials.id()
         );
 
-        // Обновляем refresh token в базе
-        credentials.setRefreshToken(newRefreshToken);
-        credentials.setRefreshTokenExpiry(LocalDateTime.now().plusSeconds(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration() / 1000));
-        userCredentialsRepository.save(credentials);
+        refreshTokenStore.store(credentials.id(), newRefreshToken, refreshTokenTtl());
 
         log.info("Token refreshed for username: {}", email);
 
@@ -219,18 +346,37 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    @Transactional
-    public TokenValidationResponse validateToken(String token) {
-        log.info("Validating token");
+    public void logout(String refreshToken) {
+        log.info("Logout request");
 
-        if (!jwtTokenProvider.validateToken(token)) {
-            return new TokenValidationResponse(false, null, null, "Invalid token");
+        JwtClaims verified = jwtTokenProvider.verify(refreshToken);
+        if (verified == null || !verified.isRefreshToken()) {
+            throw new InvalidCredentialsException("Invalid refresh token");
         }
 
-        String username = jwtTokenProvider.getEmailFromToken(token);
-        Role role = jwtTokenProvider.getRoleFromToken(token);
+        // Повторный logout тем же токеном не ошибка
+        refreshTokenStore.revoke(verified.userId(), refreshToken);
+    }
 
-        return new TokenValidationResponse(true, username, role, "Token is valid");
+    @Override
+    public long revokeAllSessions(Long credentialsId) {
+        log.info("Revoking all sessions for credentials id: {}", credentialsId);
+
+        if (!userCredentialsRepository.existsById(credentialsId)) {
+            throw new EntityNotFoundException("User credentials not found with id: " + credentialsId);
+        }
+        return refreshTokenStore.revokeAll(credentialsId);
+    }
+
+    // Без транзакции и обращений к БД: только подпись и claims, результат кэшируется до exp токена
+    @Override
+    public TokenValidationResponse validateToken(String token) {
+        log.debug("Validating token");
+
+        return verifiedTokenCache.verify(token)
+                .map(verified -> new TokenValidationResponse(true, verified.subject(),
+                        Role.valueOf(verified.role()), "Token is valid"))
+                .orElseGet(() -> new TokenValidationResponse(false, null, null, "Invalid token"));
     }
 
     @Override
@@ -248,13 +394,15 @@ public class AuthServiceImpl implements AuthService {
             }
 
             // 2. Удаляем пользователя в auth-service
-            if (!userCredentialsRepository.existsById(id)) {
+            UserCredentials credentials = userCredentialsRepository.findById(id).orElse(null);
+            if (credentials == null) {
                 log.warn("User not found in auth-service, id: {}", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.error("User not found in auth-service"));
             }
 
-            userCredentialsRepository.deleteById(id);
+            userCredentialsRepository.delete(credentials);
+            credentialsCache.evict(credentials.getEmail());
 
             log.info("User deleted successfully from both services, id: {}", id);
             return ResponseEntity.ok(ApiResponse.success(null, "User deleted for rollback"));
@@ -300,8 +448,10 @@ public class AuthServiceImpl implements AuthService {
                         ));
             }
 
-            // 3. Удаляем из auth-db
+            // 3. Удаляем из auth-db и отзываем все сессии
             userCredentialsRepository.delete(credentials);
+            credentialsCache.evict(email);
+            refreshTokenStore.revokeAll(credentialsId);
             log.info("User deleted from auth-db: {}", credentialsId);
 
             // 4. Возвращаем успешный ответ
@@ -327,4 +477,47 @@ public class AuthServiceImpl implements AuthService {
                     .body(ApiResponse.error("Unexpected error: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    private boolean isCurrentUserAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OutboxEvent registrationRequested(Long credentialsId, UserCredentialsRequest request) {
+        UserRegistrationRequestedEvent event = UserRegistrationRequestedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .credentialsId(credentialsId)
+                .email(request.getEmail())
+                .name(request.getName())
+                .surname(request.getSurname())
+                .birthDate(request.getBirthDate())
+                .role(request.getRole().name())
+                .timestamp(LocalDateTime.now())
+                .build();
+        return new OutboxEvent(credentialsId, REGISTRATION_REQUESTED, toJson(event));
+    }
+
+    private static BatchRegistrationItemResult rejected(int index, String email, Outcome outcome, String error) {
+        return new BatchRegistrationItemResult(index, email, outcome, null, error);
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize registration event", e);
+        }
+    }
+
+    private Duration refreshTokenTtl() {
+        return Duration.ofMillis(jwtTokenProvider.getJwtProperties().getRefreshTokenExpiration());
+    }
+}
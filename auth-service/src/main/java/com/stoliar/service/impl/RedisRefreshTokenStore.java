@@ -0,0 +1,75 @@
+package com.stoliar.service.impl;
+
+import com.stoliar.security.TokenDigest;
+import com.stoliar.service.RefreshTokenStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Refresh-токены в Redis: auth:refresh-token:{sha256} -> id учетной записи с TTL токена,
+ * auth:sessions:{id} - множество хешей сессий пользователя для массового отзыва.
+ * Сами токены не хранятся, утечка Redis не дает готовых токенов
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String TOKEN_PREFIX = "auth:refresh-token:";
+    private static final String SESSIONS_PREFIX = "auth:sessions:";
+
+    // Удаляет токены из множества сессий и само множество одной операцией,
+    // чтобы параллельный refresh не успел выпустить токен между чтением и удалением
+    private static final DefaultRedisScript<Long> REVOKE_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local revoked = 0
+            for _, hash in ipairs(redis.call('smembers', KEYS[1])) do
+                revoked = revoked + redis.call('del', ARGV[1] .. hash)
+            end
+            redis.call('del', KEYS[1])
+            return revoked
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void store(Long credentialsId, String refreshToken, Duration ttl) {
+        String hash = TokenDigest.sha256(refreshToken);
+        String sessionsKey = sessionsKey(credentialsId);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.pSetEx(TOKEN_PREFIX + hash, ttl.toMillis(), String.valueOf(credentialsId));
+            stringConnection.sAdd(sessionsKey, hash);
+            // Множество живет не меньше самой свежей сессии
+            stringConnection.pExpire(sessionsKey, ttl.toMillis());
+            return null;
+        });
+    }
+
+    @Override
+    public boolean revoke(Long credentialsId, String refreshToken) {
+        String hash = TokenDigest.sha256(refreshToken);
+        // GETDEL: один и тот же токен можно использовать только один раз даже при гонке
+        String owner = redisTemplate.opsForValue().getAndDelete(TOKEN_PREFIX + hash);
+        redisTemplate.opsForSet().remove(sessionsKey(credentialsId), hash);
+        return String.valueOf(credentialsId).equals(owner);
+    }
+
+    @Override
+    public long revokeAll(Long credentialsId) {
+        Long revoked = redisTemplate.execute(REVOKE_ALL_SCRIPT, List.of(sessionsKey(credentialsId)), TOKEN_PREFIX);
+        log.info("Revoked {} sessions for credentials {}", revoked, credentialsId);
+        return revoked != null ? revoked : 0;
+    }
+
+    private static String sessionsKey(Long credentialsId) {
+        return SESSIONS_PREFIX + credentialsId;
+    }
+}
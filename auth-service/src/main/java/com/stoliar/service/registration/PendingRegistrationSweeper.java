@@ -0,0 +1,71 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.repository.OutboxEventRepository;
+import com.stoliar.repository.UserCredentialsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Завершает регистрации, которые дольше pending-timeout ждут ответа user-service
+ * (событие не удалось прочитать, ответ потерян, сервис недоступен).
+ * Запись переводится в FAILED, email освобождается для повторной попытки.
+ * Неотправленное событие удаляется из outbox, чтобы профиль не был создан после компенсации
+ */
+@Slf4j
+@Component
+public class PendingRegistrationSweeper {
+
+    static final String TIMEOUT_REASON = "Registration timed out waiting for user-service";
+
+    private final UserCredentialsRepository userCredentialsRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final CredentialsCache credentialsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pendingTimeout;
+    private final int batchSize;
+
+    public PendingRegistrationSweeper(UserCredentialsRepository userCredentialsRepository,
+                                      OutboxEventRepository outboxEventRepository,
+                                      CredentialsCache credentialsCache,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${app.registration.pending-timeout:15m}") Duration pendingTimeout,
+                                      @Value("${app.registration.outbox.batch-size:100}") int batchSize) {
+        this.userCredentialsRepository = userCredentialsRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.credentialsCache = credentialsCache;
+        this.transactionTemplate = transactionTemplate;
+        this.pendingTimeout = pendingTimeout;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.registration.sweep-interval:PT1M}")
+    public void failStalePending() {
+        Integer failed;
+        do {
+            failed = transactionTemplate.execute(status -> failBatch());
+        } while (failed != null && failed == batchSize);
+    }
+
+    private int failBatch() {
+        List<UserCredentials> stale = userCredentialsRepository.lockStalePending(
+                LocalDateTime.now().minus(pendingTimeout), batchSize);
+        for (UserCredentials credentials : stale) {
+            outboxEventRepository.deleteUnpublished(credentials.getId());
+            credentials.setRegistrationStatus(RegistrationStatus.FAILED);
+            credentials.setRegistrationError(TIMEOUT_REASON);
+            credentialsCache.evict(credentials.getEmail());
+            log.warn("Registration for credentials id {} timed out after {}", credentials.getId(), pendingTimeout);
+        }
+        return stale.size();
+    }
+}
@@ -0,0 +1,95 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.entity.OutboxEvent;
+import com.stoliar.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Переносит события регистрации из таблицы outbox в Kafka.
+ * Отправка at-least-once: при сбое между отправкой и отметкой published_at событие уйдет повторно,
+ * user-service обрабатывает его идемпотентно по eventId
+ */
+@Slf4j
+@Component
+public class RegistrationOutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> registrationKafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    public RegistrationOutboxRelay(OutboxEventRepository outboxEventRepository,
+                                   KafkaTemplate<String, String> registrationKafkaTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${spring.kafka.topics.registration-requests}") String topic,
+                                   @Value("${app.registration.outbox.batch-size:100}") int batchSize,
+                                   @Value("${app.registration.outbox.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.registrationKafkaTemplate = registrationKafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
+    // Полные пачки разбираются подряд без ожидания следующего опроса - так уходит пакетная регистрация
+    @Scheduled(fixedDelayString = "${app.registration.outbox.poll-interval:PT0.5S}")
+    public void publishPending() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+        } while (published != null && published == batchSize);
+    }
+
+    /**
+     * @return число отправленных событий пачки
+     */
+    private int publishBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockUnpublished(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Вся пачка уходит в аккумулятор продюсера, затем ждем подтверждения брокера
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            sends.add(registrationKafkaTemplate.send(topic, String.valueOf(event.getAggregateId()), event.getPayload()));
+        }
+        registrationKafkaTemplate.flush();
+
+        LocalDateTime now = LocalDateTime.now();
+        int published = 0;
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                event.setPublishedAt(now);
+                published++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Неотмеченные события уйдут при следующем опросе
+                log.error("Failed to publish outbox event {} for credentials {}: {}",
+                        event.getId(), event.getAggregateId(), e.getMessage());
+            }
+        }
+        log.debug("Published {} of {} registration events", published, events.size());
+        return published;
+    }
+}
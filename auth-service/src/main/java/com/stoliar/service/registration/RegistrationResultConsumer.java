@@ -0,0 +1,45 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.service.AuthService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegistrationResultConsumer {
+
+    private final AuthService authService;
+
+    @KafkaListener(
+            topics = "${spring.kafka.topics.registration-results}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "registrationResultKafkaListenerContainerFactory"
+    )
+    public void handleRegistrationResult(
+            @Payload UserRegistrationResultEvent event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
+            @Header(KafkaHeaders.OFFSET) Long offset,
+            Acknowledgment acknowledgment) {
+
+        log.info("Received registration result: eventId={}, credentialsId={}, status={}, partition={}, offset={}",
+                event.getEventId(), event.getCredentialsId(), event.getStatus(), partition, offset);
+
+        if (event.getCredentialsId() == null || event.getStatus() == null) {
+            log.warn("Invalid UserRegistrationResultEvent received, skipping. event={}", event);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        // Ошибки БД пробрасываются: offset не подтверждается, обработчик ошибок повторит доставку
+        authService.applyRegistrationResult(event);
+        acknowledgment.acknowledge();
+    }
+}
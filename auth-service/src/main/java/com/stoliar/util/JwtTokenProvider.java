@@ -2,26 +2,31 @@ package com.stoliar.util;
 
 import com.stoliar.config.JwtProperties;
 import com.stoliar.entity.Role;
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtTokenProvider {
 
     private final JwtProperties jwtProperties;
+    // Ключ и парсер создаются один раз в общем модуле
+    private final JwtVerifier jwtVerifier;
+
+    public JwtTokenProvider(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.jwtVerifier = new JwtVerifier(jwtProperties.getSecret());
+    }
 
     public Key getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return jwtVerifier.getSigningKey();
     }
 
     public String generateAccessToken(String email, Role role, Long userId) {
@@ -32,7 +37,7 @@ public class JwtTokenProvider {
                 .setSubject(email)
                 .claim("role", role.name())
                 .claim("userId", userId)
-                .claim("type", "access")
+                .claim("type", JwtClaims.TYPE_ACCESS)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -47,7 +52,7 @@ public class JwtTokenProvider {
                 .setSubject(email)
                 .claim("role", role.name())
                 .claim("userId", userId)
-                .claim("type", "refresh")
+                .claim("type", JwtClaims.TYPE_REFRESH)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -55,68 +60,24 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (SecurityException | MalformedJwtException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
-        } catch (Exception e) {
-            log.error("JWT validation error: {}", e.getMessage());
-        }
-        return false;
-    }
-
-    // Переименован метод для ясности
-    public String getEmailFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.getSubject();
-    }
-
-    // Оставляем старый метод для обратной совместимости (опционально)
-    @Deprecated
-    public String getUsernameFromToken(String token) {
-        return getEmailFromToken(token);
-    }
-
-    public Role getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Role.valueOf(claims.get("role", String.class));
-    }
-
-    public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
-    }
-
-    public String getTokenTypeFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("type", String.class);
-    }
-
-    public boolean isRefreshToken(String token) {
-        return "refresh".equals(getTokenTypeFromToken(token));
+        return verify(token) != null;
     }
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Проверяет подпись и срок один раз и возвращает все нужные claims
+     *
+     * @return null, если токен недействителен
+     */
+    public JwtClaims verify(String token) {
+        return jwtVerifier.verify(token);
     }
 
     public Long getTokenExpirationInSeconds(String token) {
-        Claims claims = getClaimsFromToken(token);
-        long expirationMs = claims.getExpiration().getTime();
+        JwtClaims claims = jwtVerifier.verify(token);
+        if (claims == null) {
+            return 0L;
+        }
+        long expirationMs = claims.expiresAtMillis();
         long currentMs = System.currentTimeMillis();
         long remainingSeconds = (expirationMs - currentMs) / 1000;
 
@@ -127,4 +88,4 @@ public class JwtTokenProvider {
     public JwtProperties getJwtProperties() {
         return jwtProperties;
     }
-}
\ No newline at end of file
+}
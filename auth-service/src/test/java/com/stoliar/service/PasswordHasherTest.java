@@ -0,0 +1,124 @@
+package com.stoliar.service;
+
+import com.stoliar.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final BlockingEncoder encoder = new BlockingEncoder();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        encoder.release();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void matches_CompletesWhileBatchOccupiesBatchThreads() throws Exception {
+        hasher = hasher(2, 0, Duration.ofSeconds(10));
+        CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(
+                () -> hasher.encodeAll(Collections.nCopies(5, "password")));
+        assertTrue(encoder.awaitRunning(1));
+
+        // Поток пакета занят BCrypt, логин получает оставшийся поток
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertTrue(hasher.matches("password", "hash")));
+
+        encoder.release();
+        assertEquals(5, batch.get(5, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void encodeAll_ConcurrentBatchesShareParallelismCap() throws Exception {
+        // batch-parallelism 8 урезается до пула минус один
+        hasher = hasher(3, 8, Duration.ofSeconds(10));
+        CompletableFuture<List<String>> first = CompletableFuture.supplyAsync(
+                () -> hasher.encodeAll(Collections.nCopies(4, "first")));
+        CompletableFuture<List<String>> second = CompletableFuture.supplyAsync(
+                () -> hasher.encodeAll(Collections.nCopies(4, "second")));
+        assertTrue(encoder.awaitRunning(2));
+        Thread.sleep(100);
+
+        assertEquals(2, encoder.running.get());
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertTrue(hasher.matches("password", "hash")));
+
+        encoder.release();
+        assertEquals(4, first.get(5, TimeUnit.SECONDS).size());
+        assertEquals(4, second.get(5, TimeUnit.SECONDS).size());
+        assertEquals(2, encoder.maxRunning.get());
+    }
+
+    @Test
+    void encodeAll_TimedOutBatch_ReturnsPermits() throws Exception {
+        hasher = hasher(2, 1, Duration.ofMillis(200));
+
+        assertThrows(ServiceOverloadedException.class, () -> hasher.encodeAll(List.of("a", "b", "c")));
+
+        encoder.release();
+        assertEquals(List.of("encoded:d", "encoded:e"), hasher.encodeAll(List.of("d", "e")));
+    }
+
+    private PasswordHasher hasher(int threads, int batchParallelism, Duration batchTimeout) {
+        return new PasswordHasher(encoder, new SimpleMeterRegistry(), threads, 64, Duration.ofSeconds(3),
+                batchParallelism, batchTimeout);
+    }
+
+    /**
+     * encode ждет release(), как долгий BCrypt; matches отвечает сразу
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            } finally {
+                running.decrementAndGet();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return true;
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        boolean awaitRunning(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (running.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.stoliar.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.dto.UserCredentialsRequest;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.entity.OutboxEvent;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.Role;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.repository.OutboxEventRepository;
+import com.stoliar.repository.UserCredentialsRepository;
+import com.stoliar.service.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Сторона саги регистрации в auth-service: повторная регистрация после FAILED и применение результатов
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuthServiceImplRegistrationTest {
+
+    @Mock
+    private UserCredentialsRepository userCredentialsRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private CredentialsCache credentialsCache;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(passwordHasher.encode(any())).thenReturn("encoded");
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(userCredentialsRepository.save(any(UserCredentials.class))).thenAnswer(invocation -> {
+            UserCredentials saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(11L);
+            }
+            return saved;
+        });
+    }
+
+    @Test
+    void saveUserCredentials_AfterFailedRegistration_ReusesRecordAndRequestsAgain() {
+        UserCredentials failed = credentials(7L, RegistrationStatus.FAILED);
+        failed.setRegistrationError("User already exists");
+        when(userCredentialsRepository.findByEmailForUpdate("retry@example.com")).thenReturn(Optional.of(failed));
+
+        UserCredentials saved = authService.saveUserCredentials(request("retry@example.com"));
+
+        verify(userCredentialsRepository, never()).delete(any());
+        verify(outboxEventRepository).deleteUnpublished(7L);
+        assertEquals(7L, saved.getId());
+        assertEquals(RegistrationStatus.PENDING, saved.getRegistrationStatus());
+        assertNull(saved.getRegistrationError());
+        assertFalse(saved.getActive());
+
+        ArgumentCaptor<OutboxEvent> outbox = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(outbox.capture());
+        assertEquals(7L, outbox.getValue().getAggregateId());
+        assertEquals(AuthServiceImpl.REGISTRATION_REQUESTED, outbox.getValue().getEventType());
+    }
+
+    @Test
+    void retryAfterTimeout_LateCompletionOfFirstAttempt_ActivatesReusedRecord() {
+        // Первая попытка опубликована и истекла по таймауту, пользователь повторяет регистрацию
+        UserCredentials timedOut = credentials(7L, RegistrationStatus.FAILED);
+        timedOut.setRegistrationError("Registration timed out waiting for user-service");
+        when(userCredentialsRepository.findByEmailForUpdate("retry@example.com")).thenReturn(Optional.of(timedOut));
+        when(userCredentialsRepository.findById(7L)).thenReturn(Optional.of(timedOut));
+
+        authService.saveUserCredentials(request("retry@example.com"));
+        assertEquals(RegistrationStatus.PENDING, timedOut.getRegistrationStatus());
+
+        // user-service с опозданием обрабатывает первое событие - результат находит ту же запись
+        authService.applyRegistrationResult(result("COMPLETED", null));
+        assertEquals(RegistrationStatus.COMPLETED, timedOut.getRegistrationStatus());
+        assertTrue(timedOut.getActive());
+
+        // Событие повтора получает от user-service тот же сохраненный COMPLETED и ничего не меняет
+        authService.applyRegistrationResult(result("COMPLETED", null));
+        assertEquals(RegistrationStatus.COMPLETED, timedOut.getRegistrationStatus());
+        assertTrue(timedOut.getActive());
+        verify(userCredentialsRepository, never()).delete(any());
+    }
+
+    @Test
+    void saveUserCredentials_PendingRegistration_KeepsEmailTaken() {
+        UserCredentials pending = credentials(7L, RegistrationStatus.PENDING);
+        when(userCredentialsRepository.findByEmailForUpdate("retry@example.com")).thenReturn(Optional.of(pending));
+
+        assertThrows(DuplicateResourceException.class,
+                () -> authService.saveUserCredentials(request("retry@example.com")));
+
+        verify(userCredentialsRepository, never()).delete(any());
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void applyRegistrationResult_Failed_CompensatesPendingRecord() {
+        UserCredentials pending = credentials(7L, RegistrationStatus.PENDING);
+        when(userCredentialsRepository.findById(7L)).thenReturn(Optional.of(pending));
+
+        authService.applyRegistrationResult(result("FAILED", "User already exists"));
+
+        assertEquals(RegistrationStatus.FAILED, pending.getRegistrationStatus());
+        assertEquals("User already exists", pending.getRegistrationError());
+        assertFalse(pending.getActive());
+        verify(credentialsCache).evict("retry@example.com");
+    }
+
+    @Test
+    void applyRegistrationResult_CompletedAfterTimeout_ActivatesAccount() {
+        UserCredentials timedOut = credentials(7L, RegistrationStatus.FAILED);
+        timedOut.setRegistrationError("Registration timed out waiting for user-service");
+        when(userCredentialsRepository.findById(7L)).thenReturn(Optional.of(timedOut));
+
+        authService.applyRegistrationResult(result("COMPLETED", null));
+
+        assertEquals(RegistrationStatus.COMPLETED, timedOut.getRegistrationStatus());
+        assertNull(timedOut.getRegistrationError());
+        assertTrue(timedOut.getActive());
+    }
+
+    @Test
+    void applyRegistrationResult_RedeliveredFailure_LeavesRecordUnchanged() {
+        UserCredentials completed = credentials(7L, RegistrationStatus.COMPLETED);
+        completed.setActive(true);
+        when(userCredentialsRepository.findById(7L)).thenReturn(Optional.of(completed));
+
+        authService.applyRegistrationResult(result("FAILED", "late"));
+
+        assertEquals(RegistrationStatus.COMPLETED, completed.getRegistrationStatus());
+        assertTrue(completed.getActive());
+        verifyNoInteractions(credentialsCache);
+    }
+
+    private static UserCredentials credentials(Long id, RegistrationStatus status) {
+        UserCredentials credentials = new UserCredentials();
+        credentials.setId(id);
+        credentials.setEmail("retry@example.com");
+        credentials.setActive(false);
+        credentials.setRegistrationStatus(status);
+        return credentials;
+    }
+
+    private static UserCredentialsRequest request(String email) {
+        UserCredentialsRequest request = new UserCredentialsRequest();
+        request.setEmail(email);
+        request.setPassword("secret123");
+        request.setRole(Role.USER);
+        request.setName("John");
+        request.setSurname("Doe");
+        request.setBirthDate(LocalDate.of(1990, 1, 1));
+        return request;
+    }
+
+    private static UserRegistrationResultEvent result(String status, String reason) {
+        return UserRegistrationResultEvent.builder()
+                .eventId("event-1")
+                .credentialsId(7L)
+                .userId("COMPLETED".equals(status) ? 42L : null)
+                .status(status)
+                .reason(reason)
+                .build();
+    }
+}
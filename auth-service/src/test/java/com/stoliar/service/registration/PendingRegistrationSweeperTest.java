@@ -0,0 +1,87 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.cache.CredentialsCache;
+import com.stoliar.entity.RegistrationStatus;
+import com.stoliar.entity.UserCredentials;
+import com.stoliar.repository.OutboxEventRepository;
+import com.stoliar.repository.UserCredentialsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingRegistrationSweeperTest {
+
+    @Mock
+    private UserCredentialsRepository userCredentialsRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private CredentialsCache credentialsCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PendingRegistrationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new PendingRegistrationSweeper(userCredentialsRepository, outboxEventRepository,
+                credentialsCache, transactionTemplate, Duration.ofMinutes(15), 100);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void failStalePending_MarksFailedAndDropsUnsentEvent() {
+        UserCredentials stale = pending(7L, "stale@example.com");
+        when(userCredentialsRepository.lockStalePending(any(), eq(100))).thenReturn(List.of(stale));
+
+        sweeper.failStalePending();
+
+        assertEquals(RegistrationStatus.FAILED, stale.getRegistrationStatus());
+        assertEquals(PendingRegistrationSweeper.TIMEOUT_REASON, stale.getRegistrationError());
+        assertFalse(stale.getActive());
+        verify(outboxEventRepository).deleteUnpublished(7L);
+        verify(credentialsCache).evict("stale@example.com");
+    }
+
+    @Test
+    void failStalePending_UsesTimeoutAsCutoff() {
+        when(userCredentialsRepository.lockStalePending(any(), eq(100))).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now().minusMinutes(15);
+
+        sweeper.failStalePending();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userCredentialsRepository).lockStalePending(cutoff.capture(), eq(100));
+        assertFalse(cutoff.getValue().isBefore(before));
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusMinutes(14)));
+        verifyNoInteractions(outboxEventRepository, credentialsCache);
+    }
+
+    private static UserCredentials pending(Long id, String email) {
+        UserCredentials credentials = new UserCredentials();
+        credentials.setId(id);
+        credentials.setEmail(email);
+        credentials.setActive(false);
+        credentials.setRegistrationStatus(RegistrationStatus.PENDING);
+        return credentials;
+    }
+}
@@ -0,0 +1,101 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.entity.OutboxEvent;
+import com.stoliar.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationOutboxRelayTest {
+
+    private static final String TOPIC = "user-registration-requests";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private RegistrationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new RegistrationOutboxRelay(outboxEventRepository, kafkaTemplate, transactionTemplate,
+                TOPIC, 2, Duration.ofSeconds(1));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void publishPending_SentEvents_MarkedPublishedKeyedByCredentials() {
+        OutboxEvent event = event(1L, 7L);
+        when(outboxEventRepository.lockUnpublished(2)).thenReturn(List.of(event));
+        when(kafkaTemplate.send(TOPIC, "7", "{\"credentialsId\":7}")).thenReturn(sent());
+
+        relay.publishPending();
+
+        assertNotNull(event.getPublishedAt());
+        verify(kafkaTemplate).flush();
+    }
+
+    @Test
+    void publishPending_FailedSend_LeavesEventForNextPoll() {
+        OutboxEvent ok = event(1L, 7L);
+        OutboxEvent broken = event(2L, 8L);
+        when(outboxEventRepository.lockUnpublished(2)).thenReturn(List.of(ok, broken), List.of());
+        when(kafkaTemplate.send(TOPIC, "7", ok.getPayload())).thenReturn(sent());
+        when(kafkaTemplate.send(TOPIC, "8", broken.getPayload()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.publishPending();
+
+        assertNotNull(ok.getPublishedAt());
+        assertNull(broken.getPublishedAt());
+        // Пачка отправлена не полностью - следующая выбирается только при очередном опросе
+        verify(outboxEventRepository, times(1)).lockUnpublished(2);
+    }
+
+    @Test
+    void publishPending_FullBatch_DrainsNextBatchImmediately() {
+        OutboxEvent first = event(1L, 7L);
+        OutboxEvent second = event(2L, 8L);
+        OutboxEvent third = event(3L, 9L);
+        when(outboxEventRepository.lockUnpublished(2)).thenReturn(List.of(first, second), List.of(third));
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(sent());
+
+        relay.publishPending();
+
+        verify(outboxEventRepository, times(2)).lockUnpublished(2);
+        assertNotNull(third.getPublishedAt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, String>> sent() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    private static OutboxEvent event(Long id, Long credentialsId) {
+        OutboxEvent event = new OutboxEvent(credentialsId, "USER_REGISTRATION_REQUESTED",
+                "{\"credentialsId\":" + credentialsId + "}");
+        event.setId(id);
+        return event;
+    }
+}
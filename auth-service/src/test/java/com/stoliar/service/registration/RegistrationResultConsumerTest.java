@@ -0,0 +1,65 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationResultConsumerTest {
+
+    @Mock
+    private AuthService authService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @InjectMocks
+    private RegistrationResultConsumer consumer;
+
+    @Test
+    void handleRegistrationResult_AppliesResultThenAcknowledges() {
+        UserRegistrationResultEvent event = result(7L, "FAILED");
+
+        consumer.handleRegistrationResult(event, 0, 10L, acknowledgment);
+
+        var order = inOrder(authService, acknowledgment);
+        order.verify(authService).applyRegistrationResult(event);
+        order.verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void handleRegistrationResult_ApplyFails_DoesNotAcknowledge() {
+        UserRegistrationResultEvent event = result(7L, "COMPLETED");
+        doThrow(new IllegalStateException("db down")).when(authService).applyRegistrationResult(event);
+
+        assertThrows(IllegalStateException.class,
+                () -> consumer.handleRegistrationResult(event, 0, 10L, acknowledgment));
+
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void handleRegistrationResult_InvalidEvent_SkippedAndAcknowledged() {
+        consumer.handleRegistrationResult(result(null, "COMPLETED"), 0, 10L, acknowledgment);
+
+        verify(authService, never()).applyRegistrationResult(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static UserRegistrationResultEvent result(Long credentialsId, String status) {
+        return UserRegistrationResultEvent.builder()
+                .eventId("event-1")
+                .credentialsId(credentialsId)
+                .status(status)
+                .build();
+    }
+}
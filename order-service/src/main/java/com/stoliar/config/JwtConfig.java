@@ -0,0 +1,30 @@
+package com.stoliar.config;
+
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.List;
+
+@Configuration
+@Profile("!test")
+public class JwtConfig {
+
+    // Нужны только JwtAuthenticationFilter, который в тестовом профиле выключен
+    @Bean
+    public JwtVerifier jwtVerifier(@Value("${jwt.secret}") String jwtSecret) {
+        return new JwtVerifier(jwtSecret);
+    }
+
+    @Bean
+    public GatewayIdentityResolver gatewayIdentityResolver(
+            @Value("${app.identity-propagation.enabled:false}") boolean enabled,
+            @Value("${app.identity-propagation.secret:}") String secret,
+            @Value("${app.identity-propagation.trusted-networks:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            List<String> trustedNetworks) {
+        return GatewayIdentityResolver.create(enabled, secret, trustedNetworks);
+    }
+}
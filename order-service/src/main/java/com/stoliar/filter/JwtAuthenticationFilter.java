@@ -1,6 +1,10 @@
 package com.stoliar.filter;
 
-import com.stoliar.util.JwtTokenProvider;
+import com.stoliar.security.BearerTokens;
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.IdentityHeader;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtVerifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,19 +29,19 @@ import java.util.List;
 @Profile("!test")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtVerifier jwtVerifier;
+    private final GatewayIdentityResolver gatewayIdentityResolver;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            String token = getTokenFromRequest(request);
-
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-                String role = jwtTokenProvider.getRoleFromToken(token);
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            JwtClaims claims = resolveClaims(request);
+            if (claims != null) {
+                String username = claims.subject();
+                String role = claims.role();
+                Long userId = claims.userId();
 
                 List<SimpleGrantedAuthority> authorities = new ArrayList<>();
                 authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
@@ -51,6 +55,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 var authentication = new UsernamePasswordAuthenticationToken(
                         userId, null, authorities
                 );
+                // Claims уже проверены, дальше по запросу токен не разбирается
+                authentication.setDetails(claims);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
                 log.debug("Authenticated user: {} with role: {} and userId: {}", username, role, userId);
@@ -63,12 +70,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    private JwtClaims resolveClaims(HttpServletRequest request) {
+        // Запрос через gateway уже проверен там, доверяем подписанному заголовку из сети gateway
+        JwtClaims claims = gatewayIdentityResolver.resolve(
+                request.getHeader(IdentityHeader.NAME), request.getRemoteAddr());
+        if (claims != null) {
+            return claims;
         }
-        return null;
+        String token = BearerTokens.resolve(request.getHeader("Authorization"));
+        return StringUtils.hasText(token) ? jwtVerifier.verify(token) : null;
     }
 
     @Override
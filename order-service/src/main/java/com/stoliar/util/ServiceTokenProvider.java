@@ -1,37 +1,27 @@
 package com.stoliar.util;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.stoliar.security.JwtVerifier;
+import com.stoliar.security.ServiceTokenCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.time.Duration;
 
 @Component
 public class ServiceTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Токен подписывается один раз и переиспользуется до refresh-before перед истечением
+    private final ServiceTokenCache tokenCache;
 
-    @Value("${spring.application.name:order-service}")
-    private String serviceName;
+    public ServiceTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                                @Value("${spring.application.name:order-service}") String serviceName,
+                                @Value("${app.service-token.ttl:1h}") Duration ttl,
+                                @Value("${app.service-token.refresh-before:5m}") Duration refreshBefore) {
+        this.tokenCache = new ServiceTokenCache(JwtVerifier.hmacKey(jwtSecret), serviceName, "ADMIN",
+                ttl, refreshBefore);
+    }
 
     public String generateServiceToken() {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-            return Jwts.builder()
-                    .setSubject(serviceName)
-                    .claim("service", serviceName)
-                    .claim("role", "ADMIN")
-                    .setIssuedAt(new Date())
-                    .setExpiration(new Date(System.currentTimeMillis() + 3600000)) // 1 hour
-                    .signWith(key)
-                    .compact();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate service token", e);
-        }
+        return tokenCache.getToken();
     }
-}
\ No newline at end of file
+}
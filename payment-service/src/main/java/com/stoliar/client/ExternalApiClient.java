@@ -7,7 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 @Slf4j
 @Component
@@ -16,6 +18,7 @@ public class ExternalApiClient {
     private final RestTemplate restTemplate;
     private final Random random;
     private final String format = "?num=1&min=1&max=100&col=1&base=10&format=plain&rnd=new";
+    private final String batchFormat = "?num=%d&min=1&max=100&col=1&base=10&format=plain&rnd=new";
 
     @Value("${external.api.url:https://www.random.org/integers}")
     private String externalApiUrl;
@@ -52,6 +55,41 @@ public class ExternalApiClient {
         return getFallbackStatus();
     }
     
+    /**
+     * Определяет статусы для пачки платежей одним запросом (num=count).
+     * Если ответ не удалось разобрать целиком - fallback для всей пачки
+     */
+    public List<PaymentStatus> determinePaymentStatuses(int count) {
+        try {
+            String url = externalApiUrl + String.format(batchFormat, count);
+            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                List<PaymentStatus> statuses = parseStatuses(response.getBody());
+                if (statuses.size() == count) {
+                    log.info("Received {} random numbers from external API", count);
+                    return statuses;
+                }
+                log.warn("External API returned {} numbers instead of {}. Using fallback.", statuses.size(), count);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to call external API for batch of {}: {}. Using fallback.", count, e.getMessage());
+        }
+
+        return IntStream.range(0, count)
+                .mapToObj(i -> getFallbackStatus())
+                .toList();
+    }
+
+    static List<PaymentStatus> parseStatuses(String body) {
+        return body.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .map(Integer::parseInt)
+                .map(randomNumber -> (randomNumber % 2 == 0) ? PaymentStatus.COMPLETED : PaymentStatus.FAILED)
+                .toList();
+    }
+
     private PaymentStatus getFallbackStatus() {
         if (fallbackEnabled) {
             // Локальная генерация случайного числа
@@ -0,0 +1,95 @@
+package com.stoliar.client;
+
+import com.stoliar.entity.enums.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Неблокирующий вариант {@link ExternalApiClient} на WebClient
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExternalApiClient {
+
+    private final WebClient webClient;
+    private final Random random;
+    private final String format = "?num=1&min=1&max=100&col=1&base=10&format=plain&rnd=new";
+    private final String batchFormat = "?num=%d&min=1&max=100&col=1&base=10&format=plain&rnd=new";
+
+    @Value("${external.api.url:https://www.random.org/integers}")
+    private String externalApiUrl;
+
+    @Value("${payment.service.fallback.enabled:true}")
+    private boolean fallbackEnabled;
+
+    public ReactiveExternalApiClient(WebClient webClient, Random random) {
+        this.webClient = webClient;
+        this.random = random;
+    }
+
+    /**
+     * Определяет статус платежа через внешний API
+     * Если число четное - COMPLETED, если нечетное - FAILED
+     */
+    public Mono<PaymentStatus> determinePaymentStatus() {
+        return webClient.get()
+                .uri(externalApiUrl + format)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(body -> Integer.parseInt(body.trim()))
+                .doOnNext(randomNumber -> log.info("Received random number from external API: {}", randomNumber))
+                .map(randomNumber -> (randomNumber % 2 == 0) ? PaymentStatus.COMPLETED : PaymentStatus.FAILED)
+                .onErrorResume(e -> {
+                    log.warn("Failed to call external API: {}. Using fallback.", e.getMessage());
+                    return Mono.empty();
+                })
+                // Fallback: если внешний API недоступен или вернул пустой ответ
+                .switchIfEmpty(Mono.fromSupplier(this::getFallbackStatus));
+    }
+
+    /**
+     * Статусы для пачки платежей одним запросом, см. {@link ExternalApiClient#determinePaymentStatuses(int)}
+     */
+    public Mono<List<PaymentStatus>> determinePaymentStatuses(int count) {
+        return webClient.get()
+                .uri(externalApiUrl + String.format(batchFormat, count))
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(ExternalApiClient::parseStatuses)
+                .filter(statuses -> {
+                    if (statuses.size() != count) {
+                        log.warn("External API returned {} numbers instead of {}. Using fallback.", statuses.size(), count);
+                    }
+                    return statuses.size() == count;
+                })
+                .doOnNext(statuses -> log.info("Received {} random numbers from external API", count))
+                .onErrorResume(e -> {
+                    log.warn("Failed to call external API for batch of {}: {}. Using fallback.", count, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> IntStream.range(0, count)
+                        .mapToObj(i -> getFallbackStatus())
+                        .toList()));
+    }
+
+    private PaymentStatus getFallbackStatus() {
+        if (fallbackEnabled) {
+            int randomNumber = random.nextInt(100) + 1;
+            log.info("Using fallback random number: {}", randomNumber);
+
+            return (randomNumber % 2 == 0) ? PaymentStatus.COMPLETED : PaymentStatus.FAILED;
+        } else {
+            log.warn("Fallback disabled, returning FAILED status");
+            return PaymentStatus.FAILED;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.stoliar.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Random;
 
@@ -14,6 +15,11 @@ public class ClientConfig {
         return new RestTemplate();
     }
 
+    @Bean
+    public WebClient webClient(WebClient.Builder webClientBuilder) {
+        return webClientBuilder.build();
+    }
+
     @Bean
     public Random random() {
         return new Random();
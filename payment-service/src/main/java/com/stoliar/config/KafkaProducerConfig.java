@@ -11,6 +11,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +21,10 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Сколько send() может ждать метаданных или места в буфере, пока брокер недоступен
+    @Value("${payment.kafka.producer.max-block:60s}")
+    private Duration maxBlock;
+
     @Bean
     public ProducerFactory<String, PaymentEvent> paymentEventProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -27,6 +32,8 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
 
         return new DefaultKafkaProducerFactory<>(configProps);
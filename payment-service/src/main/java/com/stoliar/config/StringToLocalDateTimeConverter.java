@@ -0,0 +1,37 @@
+package com.stoliar.config;
+
+import org.springframework.core.convert.converter.Converter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Конвертер дат из query-параметров, общий для MVC и WebFlux конфигураций
+ */
+public class StringToLocalDateTimeConverter implements Converter<String, LocalDateTime> {
+
+    @Override
+    public LocalDateTime convert(String source) {
+        // Убираем возможные проблемы с URL encoding
+        String cleanSource = source.replace("%3A", ":");
+
+        // Пробуем разные форматы
+        try {
+            return LocalDateTime.parse(cleanSource, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (Exception e1) {
+            try {
+                // Если нет секунд
+                return LocalDateTime.parse(cleanSource + ":00", DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (Exception e2) {
+                try {
+                    // Формат без секунд явно
+                    return LocalDateTime.parse(cleanSource, DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"));
+                } catch (Exception e3) {
+                    throw new IllegalArgumentException(
+                        "Cannot parse date: " + source +
+                        ". Supported formats: yyyy-MM-dd'T'HH:mm:ss, yyyy-MM-dd'T'HH:mm");
+                }
+            }
+        }
+    }
+}
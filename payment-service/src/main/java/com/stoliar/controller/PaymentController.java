@@ -1,6 +1,7 @@
 package com.stoliar.controller;
 
 import com.stoliar.dto.ApiResponse;
+import com.stoliar.dto.PaymentBatchItemResult;
 import com.stoliar.dto.PaymentRequest;
 import com.stoliar.dto.PaymentResponse;
 import com.stoliar.entity.enums.PaymentStatus;
@@ -10,8 +11,11 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,8 +31,11 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/v1/payments")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Payment Management", description = "APIs for managing payments")
 public class PaymentController {
+
+    public static final int MAX_BATCH_SIZE = 1000;
     
     private final PaymentService paymentService;
     
@@ -47,6 +54,34 @@ public class PaymentController {
                 .body(ApiResponse.success(payment, "Payment created successfully"));
     }
     
+    @Operation(summary = "Create payments in batch",
+            description = "Create many payments at once; returns a result per item in request order")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "All payments created"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "207", description = "Some payments failed, see per-item results"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<PaymentBatchItemResult>>> createPayments(
+            @RequestBody
+            @NotEmpty(message = "Batch must contain at least one payment")
+            @Size(max = MAX_BATCH_SIZE, message = "Batch must contain at most " + MAX_BATCH_SIZE + " payments")
+            List<PaymentRequest> paymentRequests) {
+
+        log.info("Creating batch of {} payments", paymentRequests.size());
+
+        List<PaymentBatchItemResult> results = paymentService.createPayments(paymentRequests);
+        return batchResponse(results);
+    }
+
+    static ResponseEntity<ApiResponse<List<PaymentBatchItemResult>>> batchResponse(List<PaymentBatchItemResult> results) {
+        boolean allSucceeded = results.stream().allMatch(PaymentBatchItemResult::isSuccess);
+        return ResponseEntity.status(allSucceeded ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(ApiResponse.success(results, allSucceeded
+                        ? "Payments created successfully"
+                        : "Payment batch processed with errors"));
+    }
+    
     @Operation(summary = "Get payment by ID", description = "Retrieve a specific payment by ID")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment retrieved successfully"),
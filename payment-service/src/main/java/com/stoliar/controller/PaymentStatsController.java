@@ -0,0 +1,33 @@
+package com.stoliar.controller;
+
+import com.stoliar.dto.ApiResponse;
+import com.stoliar.dto.PaymentStatsResponse;
+import com.stoliar.service.stats.PaymentStatsEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Статистика из памяти, без обращения к Mongo - работает одинаково в MVC и WebFlux
+ */
+@RestController
+@RequestMapping("/api/v1/payments/stats")
+@RequiredArgsConstructor
+@Tag(name = "Payment Statistics", description = "Real-time payment statistics over sliding windows")
+public class PaymentStatsController {
+
+    private final PaymentStatsEngine paymentStatsEngine;
+
+    @Operation(summary = "Get payment statistics",
+            description = "Count, amount and status mix of payments created in the last 1m, 5m and 1h")
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, PaymentStatsResponse>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success(paymentStatsEngine.snapshot(), "Payment statistics retrieved successfully"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.stoliar.controller;
+
+import com.stoliar.dto.ApiResponse;
+import com.stoliar.dto.PaymentBatchItemResult;
+import com.stoliar.dto.PaymentRequest;
+import com.stoliar.dto.PaymentResponse;
+import com.stoliar.entity.enums.PaymentStatus;
+import com.stoliar.service.ReactivePaymentService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Тот же контракт, что у {@link PaymentController}, поверх WebFlux.
+ * Активируется профилем "reactive".
+ */
+@Slf4j
+@Validated
+@RestController
+@RequestMapping("/api/v1/payments")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Payment Management", description = "APIs for managing payments")
+public class ReactivePaymentController {
+
+    private final ReactivePaymentService paymentService;
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
+        log.info("Creating payment for order: {}, user: {}",
+                paymentRequest.getOrderId(), paymentRequest.getUserId());
+
+        return paymentService.createPayment(paymentRequest)
+                .map(payment -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success(payment, "Payment created successfully")));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<ApiResponse<List<PaymentBatchItemResult>>>> createPayments(
+            @RequestBody
+            @NotEmpty(message = "Batch must contain at least one payment")
+            @Size(max = PaymentController.MAX_BATCH_SIZE,
+                    message = "Batch must contain at most " + PaymentController.MAX_BATCH_SIZE + " payments")
+            List<PaymentRequest> paymentRequests) {
+
+        log.info("Creating batch of {} payments", paymentRequests.size());
+        return paymentService.createPayments(paymentRequests)
+                .map(PaymentController::batchResponse);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> getPaymentById(@PathVariable String id) {
+        log.info("Getting payment by id: {}", id);
+        return paymentService.getPaymentById(id)
+                .map(payment -> ResponseEntity.ok(ApiResponse.success(payment, "Payment retrieved successfully")));
+    }
+
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<ApiResponse<List<PaymentResponse>>>> getPaymentsByUserId(@PathVariable Long userId) {
+        log.info("Getting payments for user id: {}", userId);
+        return paymentService.getPaymentsByUserId(userId)
+                .map(payments -> ResponseEntity.ok(ApiResponse.success(payments, "Payments retrieved successfully")));
+    }
+
+    @GetMapping("/order/{orderId}")
+    public Mono<ResponseEntity<ApiResponse<List<PaymentResponse>>>> getPaymentsByOrderId(@PathVariable Long orderId) {
+        log.info("Getting payments for order id: {}", orderId);
+        return paymentService.getPaymentsByOrderId(orderId)
+                .map(payments -> ResponseEntity.ok(ApiResponse.success(payments, "Payments retrieved successfully")));
+    }
+
+    @GetMapping("/status/{status}")
+    public Mono<ResponseEntity<ApiResponse<List<PaymentResponse>>>> getPaymentsByStatus(@PathVariable PaymentStatus status) {
+        log.info("Getting payments with status: {}", status);
+        return paymentService.getPaymentsByStatus(status)
+                .map(payments -> ResponseEntity.ok(ApiResponse.success(payments, "Payments retrieved successfully")));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<ApiResponse<List<PaymentResponse>>>> getPaymentsByCriteria(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long orderId,
+            @RequestParam(required = false) PaymentStatus status) {
+
+        log.info("Searching payments - userId: {}, orderId: {}, status: {}", userId, orderId, status);
+        return paymentService.getPaymentsByCriteria(userId, orderId, status)
+                .map(payments -> ResponseEntity.ok(ApiResponse.success(payments, "Payments retrieved successfully")));
+    }
+
+    @GetMapping("/user/{userId}/total")
+    public Mono<ResponseEntity<ApiResponse<BigDecimal>>> getTotalSumByUserId(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Calculating total sum for user {} from {} to {}", userId, startDate, endDate);
+        return paymentService.getTotalSumByUserIdAndDateRange(userId, startDate, endDate)
+                .map(totalSum -> ResponseEntity.ok(ApiResponse.success(totalSum, "Total sum calculated successfully")));
+    }
+
+    @GetMapping("/total")
+    public Mono<ResponseEntity<ApiResponse<BigDecimal>>> getTotalSum(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Calculating total sum for all users from {} to {}", startDate, endDate);
+        return paymentService.getTotalSumByDateRange(startDate, endDate)
+                .map(totalSum -> ResponseEntity.ok(ApiResponse.success(totalSum, "Total sum calculated successfully")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат по одному элементу пакетного создания платежей.
+ * index - позиция элемента во входном массиве
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentBatchItemResult {
+    private int index;
+    private boolean success;
+    private PaymentResponse payment;
+    private String error;
+
+    public static PaymentBatchItemResult succeeded(int index, PaymentResponse payment) {
+        return PaymentBatchItemResult.builder()
+                .index(index)
+                .success(true)
+                .payment(payment)
+                .build();
+    }
+
+    public static PaymentBatchItemResult failed(int index, String error) {
+        return PaymentBatchItemResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
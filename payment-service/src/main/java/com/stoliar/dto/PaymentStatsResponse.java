@@ -0,0 +1,25 @@
+package com.stoliar.dto;
+
+import com.stoliar.entity.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatsResponse {
+    private String window;
+    private long count;
+    private BigDecimal totalAmount;
+    private long successCount;
+    private long failureCount;
+    private double successRate;
+    private double failureRate;
+    private Map<PaymentStatus, Long> statusCounts;
+}
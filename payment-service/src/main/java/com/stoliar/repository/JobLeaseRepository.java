@@ -0,0 +1,60 @@
+package com.stoliar.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Аренда фоновых задач в коллекции job_leases: задачу выполняет только реплика, владеющая арендой.
+ * Захват - upsert по _id с условием "аренда истекла": пока чужая аренда действует, условие
+ * не совпадает и upsert падает на уникальном _id. Истекшую аренду (упавшая реплика) забирает следующий
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobLeaseRepository {
+
+    static final String COLLECTION = "job_leases";
+
+    private final MongoTemplate mongoTemplate;
+
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(name).and("lockedUntil").lte(Date.from(now)));
+        Update update = new Update()
+                .set("lockedUntil", Date.from(now.plus(ttl)))
+                .set("lockedAt", Date.from(now))
+                .set("lockedBy", owner);
+        try {
+            mongoTemplate.upsert(query, update, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Продлевает аренду, пока она еще принадлежит owner
+     * @return false, если аренда истекла и могла достаться другой реплике
+     */
+    public boolean extend(String name, String owner, Duration ttl) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(name)
+                .and("lockedBy").is(owner)
+                .and("lockedUntil").gt(Date.from(now)));
+        return mongoTemplate.updateFirst(query, Update.update("lockedUntil", Date.from(now.plus(ttl))), COLLECTION)
+                .getModifiedCount() > 0;
+    }
+
+    public void release(String name, String owner) {
+        Query query = Query.query(Criteria.where("_id").is(name).and("lockedBy").is(owner));
+        mongoTemplate.updateFirst(query, Update.update("lockedUntil", new Date()), COLLECTION);
+    }
+}
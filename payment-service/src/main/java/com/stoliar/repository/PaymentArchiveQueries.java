@@ -0,0 +1,75 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.enums.PaymentStatus;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Запросы к архиву платежей, общие для блокирующего и реактивного репозиториев.
+ * Документы архива имеют ту же схему, что и Payment
+ */
+public final class PaymentArchiveQueries {
+
+    public static final String COLLECTION = "payments_archive";
+
+    // id платежа - ObjectId, созданный при вставке вскоре после timestamp.
+    // Допуск покрывает время между ними и расхождение часов реплик
+    public static final Duration ID_TIME_SLACK = Duration.ofHours(1);
+
+    private PaymentArchiveQueries() {
+    }
+
+    /**
+     * Индекса по id в time-series коллекции нет, поэтому поиск ограничен окном вокруг
+     * времени создания ObjectId: по timeField читаются только бакеты этого окна, а не весь архив
+     */
+    public static Query byId(String id) {
+        LocalDateTime created = idTime(id);
+        return Query.query(Criteria.where("id").is(id)
+                .and("timestamp").gte(created.minus(ID_TIME_SLACK)).lte(created.plus(ID_TIME_SLACK)));
+    }
+
+    public static LocalDateTime idTime(String id) {
+        return LocalDateTime.ofInstant(new ObjectId(id).getDate().toInstant(), ZoneId.systemDefault());
+    }
+
+    public static Query byUserId(Long userId) {
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+
+    public static Query byOrderId(Long orderId) {
+        return Query.query(Criteria.where("orderId").is(orderId));
+    }
+
+    public static Query byStatus(PaymentStatus status) {
+        return Query.query(Criteria.where("status").is(status));
+    }
+
+    public static Query byCriteria(Long userId, Long orderId, PaymentStatus status) {
+        Criteria criteria = new Criteria();
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (orderId != null) {
+            criteria = criteria.and("orderId").is(orderId);
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        return Query.query(criteria);
+    }
+
+    public static Query byUserIdAndTimestampBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return Query.query(Criteria.where("userId").is(userId)
+                .and("timestamp").gte(startDate).lte(endDate));
+    }
+
+    public static Query byTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return Query.query(Criteria.where("timestamp").gte(startDate).lte(endDate));
+    }
+}
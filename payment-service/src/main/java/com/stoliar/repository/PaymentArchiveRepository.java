@@ -0,0 +1,96 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.stoliar.repository.PaymentArchiveQueries.COLLECTION;
+
+/**
+ * Холодный уровень хранения платежей (time-series коллекция payments_archive).
+ * Уникальные индексы в time-series коллекции не поддерживаются, поэтому выборки
+ * дополнительно схлопывают возможные копии одного платежа по id
+ */
+@Repository
+@RequiredArgsConstructor
+public class PaymentArchiveRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public Optional<Payment> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findOne(PaymentArchiveQueries.byId(id), Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findByUserId(Long userId) {
+        return distinctById(mongoTemplate.find(PaymentArchiveQueries.byUserId(userId), Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findByOrderId(Long orderId) {
+        return distinctById(mongoTemplate.find(PaymentArchiveQueries.byOrderId(orderId), Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return distinctById(mongoTemplate.find(PaymentArchiveQueries.byStatus(status), Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findPaymentsByCriteria(Long userId, Long orderId, PaymentStatus status) {
+        return distinctById(mongoTemplate.find(PaymentArchiveQueries.byCriteria(userId, orderId, status),
+                Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findByUserIdAndTimestampBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        Query query = PaymentArchiveQueries.byUserIdAndTimestampBetween(userId, startDate, endDate);
+        return distinctById(mongoTemplate.find(query, Payment.class, COLLECTION));
+    }
+
+    public List<Payment> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return distinctById(mongoTemplate.find(PaymentArchiveQueries.byTimestampBetween(startDate, endDate),
+                Payment.class, COLLECTION));
+    }
+
+    /**
+     * Вставляет в архив платежи, которых там еще нет (повтор после сбоя между
+     * вставкой в архив и удалением из горячей коллекции не создает дублей).
+     * Проверка ограничена диапазоном времени пачки, чтобы не сканировать весь архив
+     * @return количество вставленных документов
+     */
+    public int insertMissing(List<Payment> payments, LocalDateTime from, LocalDateTime to) {
+        Query existingQuery = Query.query(Criteria.where("id").in(ids(payments))
+                .and("timestamp").gte(from).lte(to));
+        existingQuery.fields().include("id");
+
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(existingQuery, Payment.class, COLLECTION)
+                .forEach(payment -> existing.add(payment.getId()));
+
+        List<Payment> missing = payments.stream()
+                .filter(payment -> !existing.contains(payment.getId()))
+                .toList();
+        if (!missing.isEmpty()) {
+            mongoTemplate.insert(missing, COLLECTION);
+        }
+        return missing.size();
+    }
+
+    private static List<Payment> distinctById(List<Payment> payments) {
+        Set<String> seen = new HashSet<>();
+        return payments.stream()
+                .filter(payment -> seen.add(payment.getId()))
+                .toList();
+    }
+
+    private Collection<String> ids(List<Payment> payments) {
+        return payments.stream().map(Payment::getId).toList();
+    }
+}
@@ -2,6 +2,7 @@ package com.stoliar.repository;
 
 import com.stoliar.entity.Payment;
 import com.stoliar.entity.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -37,4 +38,7 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
     // Для подсчета суммы по диапазону дат для всех пользователей
     @Query("{ timestamp: { $gte: ?0, $lte: ?1 } }")
     List<Payment> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Самые старые платежи до границы архивации - очередная пачка для переноса в архив
+    List<Payment> findByTimestampBeforeOrderByTimestampAsc(LocalDateTime cutoff, Pageable pageable);
+}
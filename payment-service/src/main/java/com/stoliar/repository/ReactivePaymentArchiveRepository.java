@@ -0,0 +1,59 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static com.stoliar.repository.PaymentArchiveQueries.COLLECTION;
+
+/**
+ * Неблокирующий доступ к архиву платежей, см. {@link PaymentArchiveRepository}.
+ * Копии одного платежа в архиве схлопываются по id
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactivePaymentArchiveRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public Mono<Payment> findById(String id) {
+        return mongoTemplate.findOne(PaymentArchiveQueries.byId(id), Payment.class, COLLECTION);
+    }
+
+    public Flux<Payment> findByUserId(Long userId) {
+        return mongoTemplate.find(PaymentArchiveQueries.byUserId(userId), Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+
+    public Flux<Payment> findByOrderId(Long orderId) {
+        return mongoTemplate.find(PaymentArchiveQueries.byOrderId(orderId), Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+
+    public Flux<Payment> findByStatus(PaymentStatus status) {
+        return mongoTemplate.find(PaymentArchiveQueries.byStatus(status), Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+
+    public Flux<Payment> findPaymentsByCriteria(Long userId, Long orderId, PaymentStatus status) {
+        return mongoTemplate.find(PaymentArchiveQueries.byCriteria(userId, orderId, status), Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+
+    public Flux<Payment> findByUserIdAndTimestampBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return mongoTemplate.find(PaymentArchiveQueries.byUserIdAndTimestampBetween(userId, startDate, endDate),
+                Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+
+    public Flux<Payment> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return mongoTemplate.find(PaymentArchiveQueries.byTimestampBetween(startDate, endDate), Payment.class, COLLECTION)
+                .distinct(Payment::getId);
+    }
+}
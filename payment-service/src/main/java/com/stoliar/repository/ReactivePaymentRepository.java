@@ -0,0 +1,37 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неблокирующий аналог {@link PaymentRepository} для профиля "reactive"
+ */
+@Repository
+public interface ReactivePaymentRepository extends ReactiveMongoRepository<Payment, String> {
+
+    Flux<Payment> findByUserId(Long userId);
+
+    Flux<Payment> findByOrderId(Long orderId);
+
+    Flux<Payment> findByStatus(PaymentStatus status);
+
+    // Поиск по user_id ИЛИ order_id ИЛИ status
+    @Query("{" +
+            "$and: [" +
+            "?#{ [0] == null ? { $where: 'true' } : { 'userId' : [0] } }," +
+            "?#{ [1] == null ? { $where: 'true' } : { 'orderId' : [1] } }," +
+            "?#{ [2] == null ? { $where: 'true' } : { 'status' : [2] } }" +
+            "]" +
+            "}")
+    Flux<Payment> findPaymentsByCriteria(Long userId, Long orderId, PaymentStatus status);
+
+    // Для подсчета суммы по диапазону дат для всех пользователей
+    @Query("{ timestamp: { $gte: ?0, $lte: ?1 } }")
+    Flux<Payment> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,102 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.PaymentBatchItemResult;
+import com.stoliar.dto.PaymentRequest;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import com.stoliar.mapper.PaymentMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Состояние обработки одной пачки платежей, общее для блокирующего и реактивного сервисов.
+ * Невалидные элементы сразу получают ошибку, остальные превращаются в Payment
+ * с заранее выданным id, чтобы результаты bulk-вставки сопоставлялись по позиции.
+ */
+class PaymentBatch {
+
+    private final PaymentBatchItemResult[] results;
+    // Позиция во входном массиве для каждого элемента payments
+    private final List<Integer> positions = new ArrayList<>();
+    private final List<Payment> payments = new ArrayList<>();
+
+    private PaymentBatch(int size) {
+        this.results = new PaymentBatchItemResult[size];
+    }
+
+    static PaymentBatch prepare(List<PaymentRequest> requests, Validator validator, PaymentMapper paymentMapper) {
+        PaymentBatch batch = new PaymentBatch(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentRequest request = requests.get(i);
+            if (request == null) {
+                batch.results[i] = PaymentBatchItemResult.failed(i, "Payment request is required");
+                continue;
+            }
+
+            Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String error = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                batch.results[i] = PaymentBatchItemResult.failed(i, error);
+                continue;
+            }
+
+            Payment payment = paymentMapper.toEntity(request);
+            payment.setId(new ObjectId().toString());
+            payment.setStatus(PaymentStatus.PENDING);
+            payment.setTimestamp(now);
+
+            batch.positions.add(i);
+            batch.payments.add(payment);
+        }
+        return batch;
+    }
+
+    List<Payment> payments() {
+        return payments;
+    }
+
+    void applyStatuses(List<PaymentStatus> statuses) {
+        for (int i = 0; i < payments.size(); i++) {
+            payments.get(i).setStatus(statuses.get(i));
+        }
+    }
+
+    /**
+     * Заполняет результаты после bulk-вставки.
+     * insertErrors - ошибки по индексу в payments()
+     * @return успешно сохраненные платежи
+     */
+    List<Payment> complete(Map<Integer, String> insertErrors, PaymentMapper paymentMapper) {
+        List<Payment> saved = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            int position = positions.get(i);
+            String error = insertErrors.get(i);
+            if (error != null) {
+                results[position] = PaymentBatchItemResult.failed(position, error);
+            } else {
+                Payment payment = payments.get(i);
+                saved.add(payment);
+                results[position] = PaymentBatchItemResult.succeeded(position, paymentMapper.toResponse(payment));
+            }
+        }
+        return saved;
+    }
+
+    List<PaymentBatchItemResult> results() {
+        return Arrays.asList(results);
+    }
+}
@@ -1,21 +1,34 @@
 package com.stoliar.service;
 
 import com.stoliar.client.ExternalApiClient;
+import com.stoliar.dto.PaymentBatchItemResult;
 import com.stoliar.dto.PaymentRequest;
 import com.stoliar.dto.PaymentResponse;
 import com.stoliar.entity.Payment;
 import com.stoliar.entity.enums.PaymentStatus;
 import com.stoliar.mapper.PaymentMapper;
+import com.stoliar.repository.PaymentArchiveRepository;
 import com.stoliar.repository.PaymentRepository;
+import com.stoliar.service.archive.PaymentArchivePolicy;
+import com.stoliar.service.cache.PaymentLookupCache;
+import com.stoliar.service.stats.PaymentStatsEngine;
 import com.stoliar.service.kafka.PaymentEventProducer;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,6 +40,12 @@ public class PaymentService {
     private final PaymentMapper paymentMapper;
     private final ExternalApiClient externalApiClient;
     private final PaymentEventProducer paymentEventProducer;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final PaymentArchiveRepository archiveRepository;
+    private final PaymentArchivePolicy archivePolicy;
+    private final PaymentLookupCache paymentLookupCache;
+    private final PaymentStatsEngine paymentStatsEngine;
 
     @Transactional
     public PaymentResponse createPayment(PaymentRequest paymentRequest) {
@@ -43,6 +62,8 @@ public class PaymentService {
         payment.setStatus(externalStatus);
 
         Payment savedPayment = paymentRepository.save(payment);
+        paymentLookupCache.put(savedPayment);
+        paymentStatsEngine.record(savedPayment);
 
         log.info("Payment created with id: {}, status: {}",
                 savedPayment.getId(), savedPayment.getStatus());
@@ -53,10 +74,48 @@ public class PaymentService {
         return paymentMapper.toResponse(savedPayment);
     }
 
+    /**
+     * Пакетное создание: один запрос к внешнему API, одна unordered bulk-вставка
+     * и одна пачка событий в Kafka. Ошибка элемента не прерывает остальные
+     */
+    public List<PaymentBatchItemResult> createPayments(List<PaymentRequest> paymentRequests) {
+        log.info("Creating batch of {} payments", paymentRequests.size());
+
+        PaymentBatch batch = PaymentBatch.prepare(paymentRequests, validator, paymentMapper);
+        List<Payment> payments = batch.payments();
+
+        Map<Integer, String> insertErrors = new HashMap<>();
+        if (!payments.isEmpty()) {
+            batch.applyStatuses(externalApiClient.determinePaymentStatuses(payments.size()));
+
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                        .insert(payments)
+                        .execute();
+            } catch (BulkOperationException e) {
+                e.getErrors().forEach(error -> insertErrors.put(error.getIndex(), error.getMessage()));
+                log.warn("Bulk insert failed for {} of {} payments", insertErrors.size(), payments.size());
+            }
+        }
+
+        List<Payment> savedPayments = batch.complete(insertErrors, paymentMapper);
+        paymentLookupCache.putAll(savedPayments);
+        paymentStatsEngine.recordAll(savedPayments);
+        paymentEventProducer.sendPaymentCreatedEvents(savedPayments);
+
+        log.info("Payment batch processed: {} created, {} failed",
+                savedPayments.size(), paymentRequests.size() - savedPayments.size());
+        return batch.results();
+    }
+
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentById(String id) {
         log.info("Getting payment by id: {}", id);
-        Payment payment = paymentRepository.findById(id)
+        // Промах в горячей коллекции - платеж мог уйти в архив, если он достаточно старый
+        Payment payment = paymentLookupCache.getById(id, key -> paymentRepository.findById(key)
+                        .or(() -> Optional.of(key)
+                                .filter(archivePolicy::mayBeArchived)
+                                .flatMap(archiveRepository::findById)))
                 .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
         return paymentMapper.toResponse(payment);
     }
@@ -64,7 +123,7 @@ public class PaymentService {
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByUserId(Long userId) {
         log.info("Getting payments for userId: {}", userId);
-        return paymentRepository.findByUserId(userId).stream()
+        return withArchive(paymentRepository.findByUserId(userId), archiveRepository.findByUserId(userId)).stream()
                 .map(paymentMapper::toResponse)
                 .collect(Collectors.toList());
     }
@@ -72,7 +131,8 @@ public class PaymentService {
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByOrderId(Long orderId) {
         log.info("Getting payments for orderId: {}", orderId);
-        return paymentRepository.findByOrderId(orderId).stream()
+        return paymentLookupCache.getByOrderId(orderId, key ->
+                        withArchive(paymentRepository.findByOrderId(key), archiveRepository.findByOrderId(key))).stream()
                 .map(paymentMapper::toResponse)
                 .collect(Collectors.toList());
     }
@@ -80,7 +140,7 @@ public class PaymentService {
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByStatus(PaymentStatus status) {
         log.info("Getting payments with status: {}", status);
-        return paymentRepository.findByStatus(status).stream()
+        return withArchive(paymentRepository.findByStatus(status), archiveRepository.findByStatus(status)).stream()
                 .map(paymentMapper::toResponse)
                 .collect(Collectors.toList());
     }
@@ -89,7 +149,8 @@ public class PaymentService {
     public List<PaymentResponse> getPaymentsByCriteria(Long userId, Long orderId, PaymentStatus status) {
         log.info("Getting payments by criteria - userId: {}, orderId: {}, status: {}",
                 userId, orderId, status);
-        return paymentRepository.findPaymentsByCriteria(userId, orderId, status).stream()
+        return withArchive(paymentRepository.findPaymentsByCriteria(userId, orderId, status),
+                archiveRepository.findPaymentsByCriteria(userId, orderId, status)).stream()
                 .map(paymentMapper::toResponse)
                 .collect(Collectors.toList());
     }
@@ -115,6 +176,11 @@ public class PaymentService {
                 })
                 .collect(Collectors.toList());
 
+        if (archivePolicy.reachesArchive(startDate)) {
+            filteredPayments = withArchive(filteredPayments,
+                    archiveRepository.findByUserIdAndTimestampBetween(userId, startDate, endDate));
+        }
+
         log.info("Found {} payments in date range for user {}", filteredPayments.size(), userId);
 
         BigDecimal total = filteredPayments.stream()
@@ -140,6 +206,10 @@ public class PaymentService {
                     .collect(Collectors.toList());
         }
 
+        if (archivePolicy.reachesArchive(startDate)) {
+            allPayments = withArchive(allPayments, archiveRepository.findByTimestampBetween(startDate, endDate));
+        }
+
         log.info("Found {} payments in date range", allPayments.size());
 
         allPayments.forEach(payment ->
@@ -153,4 +223,18 @@ public class PaymentService {
         log.info("Total sum for all users: {}", total);
         return total;
     }
-}
\ No newline at end of file
+
+    /**
+     * Объединяет горячие и архивные платежи. Платеж может временно оказаться
+     * в обоих уровнях (сбой архивации между вставкой и удалением) - берем одну копию
+     */
+    private List<Payment> withArchive(List<Payment> hotPayments, List<Payment> archivedPayments) {
+        if (archivedPayments.isEmpty()) {
+            return hotPayments;
+        }
+        Map<String, Payment> merged = new LinkedHashMap<>();
+        hotPayments.forEach(payment -> merged.put(payment.getId(), payment));
+        archivedPayments.forEach(payment -> merged.putIfAbsent(payment.getId(), payment));
+        return List.copyOf(merged.values());
+    }
+}
@@ -0,0 +1,208 @@
+package com.stoliar.service;
+
+import com.stoliar.client.ReactiveExternalApiClient;
+import com.stoliar.dto.PaymentBatchItemResult;
+import com.stoliar.dto.PaymentRequest;
+import com.stoliar.dto.PaymentResponse;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import com.stoliar.mapper.PaymentMapper;
+import com.stoliar.repository.ReactivePaymentArchiveRepository;
+import com.stoliar.repository.ReactivePaymentRepository;
+import com.stoliar.service.archive.PaymentArchivePolicy;
+import com.stoliar.service.cache.PaymentLookupCache;
+import com.stoliar.service.stats.PaymentStatsEngine;
+import com.stoliar.service.kafka.ReactivePaymentEventProducer;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реактивная реализация {@link PaymentService}: та же бизнес-логика,
+ * но без блокирующих вызовов на всем пути запроса
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentService {
+
+    private final ReactivePaymentRepository paymentRepository;
+    private final PaymentMapper paymentMapper;
+    private final ReactiveExternalApiClient externalApiClient;
+    private final ReactivePaymentEventProducer paymentEventProducer;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final ReactivePaymentArchiveRepository archiveRepository;
+    private final PaymentArchivePolicy archivePolicy;
+    private final PaymentLookupCache paymentLookupCache;
+    private final PaymentStatsEngine paymentStatsEngine;
+
+    public Mono<PaymentResponse> createPayment(PaymentRequest paymentRequest) {
+        log.info("Creating payment for orderId: {}, userId: {}",
+                paymentRequest.getOrderId(), paymentRequest.getUserId());
+
+        // Создаем платеж с PENDING статусом
+        Payment payment = paymentMapper.toEntity(paymentRequest);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setTimestamp(LocalDateTime.now());
+
+        return externalApiClient.determinePaymentStatus()
+                .flatMap(externalStatus -> {
+                    payment.setStatus(externalStatus);
+                    return paymentRepository.save(payment);
+                })
+                .doOnNext(savedPayment -> log.info("Payment created with id: {}, status: {}",
+                        savedPayment.getId(), savedPayment.getStatus()))
+                .doOnNext(paymentLookupCache::put)
+                .doOnNext(paymentStatsEngine::record)
+                .doOnNext(this::publishCreatedEvent)
+                .map(paymentMapper::toResponse);
+    }
+
+    // Как и в блокирующей версии, ответ не ждет подтверждения брокера: событие уходит в фоне
+    private void publishCreatedEvent(Payment payment) {
+        paymentEventProducer.sendPaymentCreatedEvent(payment)
+                .subscribe(null, ex -> log.error("Failed to publish PaymentEvent for payment {}", payment.getId(), ex));
+    }
+
+    public Mono<List<PaymentBatchItemResult>> createPayments(List<PaymentRequest> paymentRequests) {
+        log.info("Creating batch of {} payments", paymentRequests.size());
+
+        PaymentBatch batch = PaymentBatch.prepare(paymentRequests, validator, paymentMapper);
+        List<Payment> payments = batch.payments();
+        if (payments.isEmpty()) {
+            return Mono.just(batch.results());
+        }
+
+        return externalApiClient.determinePaymentStatuses(payments.size())
+                .flatMap(statuses -> {
+                    batch.applyStatuses(statuses);
+                    return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                            .insert(payments)
+                            .execute()
+                            .thenReturn(Map.<Integer, String>of())
+                            .onErrorResume(BulkOperationException.class, e -> Mono.just(toErrorMap(e.getErrors())))
+                            .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(toErrorMap(e.getWriteErrors())));
+                })
+                .flatMap(insertErrors -> {
+                    List<Payment> savedPayments = batch.complete(insertErrors, paymentMapper);
+                    paymentLookupCache.putAll(savedPayments);
+                    paymentStatsEngine.recordAll(savedPayments);
+                    log.info("Payment batch processed: {} created, {} failed",
+                            savedPayments.size(), paymentRequests.size() - savedPayments.size());
+                    return paymentEventProducer.sendPaymentCreatedEvents(savedPayments);
+                })
+                .then(Mono.fromSupplier(batch::results));
+    }
+
+    private Map<Integer, String> toErrorMap(List<BulkWriteError> errors) {
+        Map<Integer, String> insertErrors = new HashMap<>();
+        errors.forEach(error -> insertErrors.put(error.getIndex(), error.getMessage()));
+        log.warn("Bulk insert failed for {} payments", insertErrors.size());
+        return insertErrors;
+    }
+
+    public Mono<PaymentResponse> getPaymentById(String id) {
+        log.info("Getting payment by id: {}", id);
+        return Mono.justOrEmpty(paymentLookupCache.getIfPresent(id))
+                .switchIfEmpty(Mono.defer(() -> paymentRepository.findById(id)
+                        .switchIfEmpty(Mono.defer(() -> archivePolicy.mayBeArchived(id)
+                                ? archiveRepository.findById(id)
+                                : Mono.empty()))
+                        .doOnNext(paymentLookupCache::putById)))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Payment not found with id: " + id)))
+                .map(paymentMapper::toResponse);
+    }
+
+    public Mono<List<PaymentResponse>> getPaymentsByUserId(Long userId) {
+        log.info("Getting payments for userId: {}", userId);
+        return toResponses(withArchive(paymentRepository.findByUserId(userId), archiveRepository.findByUserId(userId)));
+    }
+
+    public Mono<List<PaymentResponse>> getPaymentsByOrderId(Long orderId) {
+        log.info("Getting payments for orderId: {}", orderId);
+        return Mono.justOrEmpty(paymentLookupCache.getOrderIfPresent(orderId))
+                .switchIfEmpty(Mono.defer(() ->
+                        withArchive(paymentRepository.findByOrderId(orderId), archiveRepository.findByOrderId(orderId))
+                                .collectList()
+                                .doOnNext(payments -> paymentLookupCache.putOrder(orderId, payments))))
+                .map(payments -> payments.stream().map(paymentMapper::toResponse).toList());
+    }
+
+    public Mono<List<PaymentResponse>> getPaymentsByStatus(PaymentStatus status) {
+        log.info("Getting payments with status: {}", status);
+        return toResponses(withArchive(paymentRepository.findByStatus(status), archiveRepository.findByStatus(status)));
+    }
+
+    public Mono<List<PaymentResponse>> getPaymentsByCriteria(Long userId, Long orderId, PaymentStatus status) {
+        log.info("Getting payments by criteria - userId: {}, orderId: {}, status: {}",
+                userId, orderId, status);
+        return toResponses(withArchive(paymentRepository.findPaymentsByCriteria(userId, orderId, status),
+                archiveRepository.findPaymentsByCriteria(userId, orderId, status)));
+    }
+
+    public Mono<BigDecimal> getTotalSumByUserIdAndDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
+        log.info("Getting total sum for userId: {} from {} to {}", userId, startDate, endDate);
+
+        // Суммируем по мере чтения курсора, без материализации списка платежей
+        Flux<Payment> payments = paymentRepository.findByUserId(userId)
+                .filter(payment -> isInRange(payment, startDate, endDate));
+        if (archivePolicy.reachesArchive(startDate)) {
+            payments = withArchive(payments, archiveRepository.findByUserIdAndTimestampBetween(userId, startDate, endDate));
+        }
+
+        return sum(payments)
+                .doOnNext(total -> log.info("Total sum for user {}: {}", userId, total));
+    }
+
+    public Mono<BigDecimal> getTotalSumByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        log.info("Getting total sum for all users from {} to {}", startDate, endDate);
+
+        Flux<Payment> payments = paymentRepository.findByTimestampBetween(startDate, endDate)
+                .switchIfEmpty(Flux.defer(() -> paymentRepository.findAll()
+                        .filter(payment -> isInRange(payment, startDate, endDate))));
+
+        if (archivePolicy.reachesArchive(startDate)) {
+            payments = withArchive(payments, archiveRepository.findByTimestampBetween(startDate, endDate));
+        }
+
+        return sum(payments)
+                .doOnNext(total -> log.info("Total sum for all users: {}", total));
+    }
+
+    // Платеж может временно оказаться в обоих уровнях - берем одну копию
+    private Flux<Payment> withArchive(Flux<Payment> hotPayments, Flux<Payment> archivedPayments) {
+        return Flux.concat(hotPayments, archivedPayments)
+                .distinct(Payment::getId);
+    }
+
+    private Mono<List<PaymentResponse>> toResponses(Flux<Payment> payments) {
+        return payments.map(paymentMapper::toResponse).collectList();
+    }
+
+    private Mono<BigDecimal> sum(Flux<Payment> payments) {
+        return payments.map(Payment::getPaymentAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private boolean isInRange(Payment payment, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime timestamp = payment.getTimestamp();
+        return !timestamp.isBefore(startDate) && !timestamp.isAfter(endDate);
+    }
+}
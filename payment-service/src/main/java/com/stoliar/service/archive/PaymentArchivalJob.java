@@ -0,0 +1,88 @@
+package com.stoliar.service.archive;
+
+import com.stoliar.entity.Payment;
+import com.stoliar.repository.JobLeaseRepository;
+import com.stoliar.repository.PaymentArchiveRepository;
+import com.stoliar.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Переносит платежи старше retention из payments в payments_archive пачками:
+ * insertMany в архив, затем удаление пачки из горячей коллекции одним запросом.
+ * Выполняется только на реплике, захватившей аренду в job_leases: проверка insertMissing
+ * не атомарна, и две реплики одновременно вставили бы одну пачку в архив дважды
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentArchivalJob {
+
+    static final String LEASE_NAME = "payment-archival";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentArchiveRepository archiveRepository;
+    private final PaymentArchivePolicy archivePolicy;
+    private final JobLeaseRepository jobLeaseRepository;
+
+    private final String leaseOwner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    @Scheduled(cron = "${payment.archive.cron:0 0 3 * * *}")
+    public void archiveOldPayments() {
+        if (!archivePolicy.isEnabled()) {
+            return;
+        }
+
+        Duration leaseTtl = archivePolicy.getLeaseTtl();
+        if (!jobLeaseRepository.tryAcquire(LEASE_NAME, leaseOwner, leaseTtl)) {
+            log.info("Payment archival is running on another replica, skipping");
+            return;
+        }
+
+        try {
+            LocalDateTime cutoff = archivePolicy.cutoff();
+            log.info("Archiving payments older than {}", cutoff);
+
+            long moved = 0;
+            List<Payment> batch;
+            do {
+                batch = paymentRepository.findByTimestampBeforeOrderByTimestampAsc(
+                        cutoff, PageRequest.of(0, archivePolicy.getBatchSize()));
+                if (!batch.isEmpty()) {
+                    moved += archiveBatch(batch);
+                    // Аренда истекла (долгая пауза) - другая реплика могла начать перенос, останавливаемся
+                    if (!jobLeaseRepository.extend(LEASE_NAME, leaseOwner, leaseTtl)) {
+                        log.warn("Payment archival lease lost after {} payments, stopping", moved);
+                        return;
+                    }
+                }
+            } while (batch.size() == archivePolicy.getBatchSize());
+
+            log.info("Archived {} payments older than {}", moved, cutoff);
+        } finally {
+            jobLeaseRepository.release(LEASE_NAME, leaseOwner);
+        }
+    }
+
+    private int archiveBatch(List<Payment> batch) {
+        // Пачка отсортирована по timestamp
+        LocalDateTime from = batch.get(0).getTimestamp();
+        LocalDateTime to = batch.get(batch.size() - 1).getTimestamp();
+
+        int inserted = archiveRepository.insertMissing(batch, from, to);
+        paymentRepository.deleteAllById(batch.stream().map(Payment::getId).toList());
+
+        log.debug("Archived batch of {} payments ({} new in archive) from {} to {}",
+                batch.size(), inserted, from, to);
+        return batch.size();
+    }
+}
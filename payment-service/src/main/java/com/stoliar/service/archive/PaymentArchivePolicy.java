@@ -0,0 +1,53 @@
+package com.stoliar.service.archive;
+
+import com.stoliar.repository.PaymentArchiveQueries;
+import lombok.Getter;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Граница между горячей коллекцией payments и архивом.
+ * В архив попадают только платежи старше retention, поэтому все,
+ * что новее now - retention, гарантированно лежит в горячей коллекции
+ */
+@Getter
+@Component
+public class PaymentArchivePolicy {
+
+    @Value("${payment.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.archive.retention:365d}")
+    private Duration retention;
+
+    @Value("${payment.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Аренда продлевается после каждой пачки, поэтому должна быть заметно дольше переноса одной пачки
+    @Value("${payment.archive.lease-ttl:10m}")
+    private Duration leaseTtl;
+
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    /**
+     * Нужно ли читать архив для диапазона, начинающегося с startDate
+     */
+    public boolean reachesArchive(LocalDateTime startDate) {
+        return startDate.isBefore(cutoff());
+    }
+
+    /**
+     * Мог ли платеж с этим id уйти в архив: по времени создания ObjectId.
+     * Свежие и невалидные id в архиве не ищем - промахи не кэшируются и каждый читал бы архив
+     */
+    public boolean mayBeArchived(String id) {
+        return ObjectId.isValid(id)
+                && reachesArchive(PaymentArchiveQueries.idTime(id).minus(PaymentArchiveQueries.ID_TIME_SLACK));
+    }
+}
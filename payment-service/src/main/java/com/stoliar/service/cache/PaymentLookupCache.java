@@ -0,0 +1,118 @@
+package com.stoliar.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.stoliar.entity.Payment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Локальный write-through кэш платежей по id и по orderId.
+ * Платежи не меняются после createPayment, поэтому кэш по id заполняется при создании
+ * и при промахе чтения, а инвалидация не нужна. Список заказа дополняется только на реплике,
+ * создавшей платеж: другие реплики увидят новый платеж, когда истечет order-ttl (секунды).
+ * Пустые списки не кэшируются - первый платеж заказа виден сразу на всех репликах
+ */
+@Component
+public class PaymentLookupCache {
+
+    private final Cache<String, Payment> byId;
+    private final Cache<Long, List<Payment>> byOrderId;
+
+    public PaymentLookupCache(MeterRegistry meterRegistry,
+                              @Value("${payment.cache.max-payments:100000}") long maxPayments,
+                              @Value("${payment.cache.order-ttl:30s}") Duration orderTtl) {
+        this(meterRegistry, maxPayments, orderTtl, Ticker.systemTicker());
+    }
+
+    PaymentLookupCache(MeterRegistry meterRegistry, long maxPayments, Duration orderTtl, Ticker ticker) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxPayments)
+                .recordStats()
+                .build();
+        this.byOrderId = Caffeine.newBuilder()
+                .maximumWeight(maxPayments)
+                .<Long, List<Payment>>weigher((orderId, payments) -> payments.size() + 1)
+                .expireAfterWrite(orderTtl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        bindMetrics(meterRegistry, byId, "payments-by-id");
+        bindMetrics(meterRegistry, byOrderId, "payments-by-order");
+    }
+
+    public Optional<Payment> getById(String id, Function<String, Optional<Payment>> loader) {
+        // Отсутствующий платеж не кэшируется
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public List<Payment> getByOrderId(Long orderId, Function<Long, List<Payment>> loader) {
+        // null из загрузчика Caffeine не сохраняет
+        List<Payment> payments = byOrderId.get(orderId, key -> {
+            List<Payment> loaded = loader.apply(key);
+            return loaded.isEmpty() ? null : List.copyOf(loaded);
+        });
+        return payments != null ? payments : List.of();
+    }
+
+    public Optional<Payment> getIfPresent(String id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    public Optional<List<Payment>> getOrderIfPresent(Long orderId) {
+        return Optional.ofNullable(byOrderId.getIfPresent(orderId));
+    }
+
+    public void putById(Payment payment) {
+        byId.put(payment.getId(), payment);
+    }
+
+    public void putOrder(Long orderId, List<Payment> payments) {
+        if (!payments.isEmpty()) {
+            byOrderId.put(orderId, List.copyOf(payments));
+        }
+    }
+
+    /**
+     * Write-through после сохранения платежа. Список заказа дополняется, только если
+     * он уже в кэше; иначе его целиком загрузит следующее чтение
+     */
+    public void put(Payment payment) {
+        byId.put(payment.getId(), payment);
+        byOrderId.asMap().computeIfPresent(payment.getOrderId(), (orderId, payments) -> append(payments, payment));
+    }
+
+    public void putAll(List<Payment> payments) {
+        payments.forEach(this::put);
+    }
+
+    private List<Payment> append(List<Payment> payments, Payment payment) {
+        // Загрузка могла уже увидеть этот платеж в базе
+        if (payments.stream().anyMatch(existing -> existing.getId().equals(payment.getId()))) {
+            return payments;
+        }
+        List<Payment> updated = new ArrayList<>(payments.size() + 1);
+        updated.addAll(payments);
+        updated.add(payment);
+        return List.copyOf(updated);
+    }
+
+    private void bindMetrics(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("payment.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Hit ratio of the local payment lookup cache")
+                .register(meterRegistry);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -22,16 +23,7 @@ public class PaymentEventProducer {
 
     public void sendPaymentCreatedEvent(Payment payment) {
 
-        PaymentEvent event = PaymentEvent.builder()
-                .eventId(UUID.randomUUID().toString())
-                .eventType("CREATE_PAYMENT")
-                .paymentId(payment.getId())
-                .orderId(payment.getOrderId())
-                .userId(payment.getUserId())
-                .status(payment.getStatus().name())
-                .amount(payment.getPaymentAmount())
-                .timestamp(payment.getTimestamp())
-                .build();
+        PaymentEvent event = toCreatedEvent(payment);
 
         String key = String.valueOf(payment.getOrderId());
 
@@ -47,5 +39,42 @@ public class PaymentEventProducer {
                     }
                 });
     }
-}
 
+    /**
+     * Отправляет события пачки: записи копятся в аккумуляторе продюсера
+     * и уходят одним flush, а не отдельным запросом на каждую
+     */
+    public void sendPaymentCreatedEvents(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        for (Payment payment : payments) {
+            PaymentEvent event = toCreatedEvent(payment);
+            String key = String.valueOf(payment.getOrderId());
+
+            kafkaTemplate.send(paymentEventsTopic, key, event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Failed to send PaymentEvent | key={} event={}", key, event, ex);
+                        }
+                    });
+        }
+        kafkaTemplate.flush();
+
+        log.info("PaymentEvent batch sent | topic={} size={}", paymentEventsTopic, payments.size());
+    }
+
+    static PaymentEvent toCreatedEvent(Payment payment) {
+        return PaymentEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("CREATE_PAYMENT")
+                .paymentId(payment.getId())
+                .orderId(payment.getOrderId())
+                .userId(payment.getUserId())
+                .status(payment.getStatus().name())
+                .amount(payment.getPaymentAmount())
+                .timestamp(payment.getTimestamp())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.stoliar.service.kafka;
+
+import com.stoliar.dto.event.PaymentEvent;
+import com.stoliar.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Отправка PaymentEvent без блокировки event loop: CompletableFuture от KafkaTemplate
+ * оборачивается в Mono. Сам KafkaProducer.send() может блокироваться до max.block.ms
+ * (метаданные, заполненный буфер), поэтому вызывается на boundedElastic.
+ * Одиночное событие сервис отправляет в фоне, пачка завершается после подтверждения брокера,
+ * как flush в блокирующей версии
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentEventProducer {
+
+    private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+
+    @Value("${spring.kafka.topics.payment-events}")
+    private String paymentEventsTopic;
+
+    public Mono<Void> sendPaymentCreatedEvent(Payment payment) {
+        PaymentEvent event = PaymentEventProducer.toCreatedEvent(payment);
+        String key = String.valueOf(payment.getOrderId());
+
+        return Mono.fromFuture(() -> kafkaTemplate.send(paymentEventsTopic, key, event))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(result -> log.info(
+                        "PaymentEvent sent | topic={} partition={} offset={} key={} eventId={}",
+                        result.getRecordMetadata().topic(), result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset(), key, event.getEventId()))
+                // Как и в блокирующей версии, ошибка отправки не ломает создание платежа
+                .doOnError(ex -> log.error("Failed to send PaymentEvent | key={} event={}", key, event, ex))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * События пачки отправляются подряд без ожидания между записями, поэтому
+     * продюсер собирает их в общие batch по партициям. flush() здесь не вызываем:
+     * он блокирует поток до подтверждения брокера.
+     * Отправка начинается только при подписке, все send() идут по порядку на одном потоке boundedElastic
+     */
+    public Mono<Void> sendPaymentCreatedEvents(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<Mono<Void>> sends = payments.stream()
+                .map(payment -> {
+                    PaymentEvent event = PaymentEventProducer.toCreatedEvent(payment);
+                    String key = String.valueOf(payment.getOrderId());
+                    return Mono.fromFuture(() -> kafkaTemplate.send(paymentEventsTopic, key, event))
+                            .doOnError(ex -> log.error("Failed to send PaymentEvent | key={} event={}", key, event, ex))
+                            .onErrorResume(ex -> Mono.empty())
+                            .then();
+                })
+                .toList();
+
+        return Flux.merge(sends)
+                .then()
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(ignored -> log.info("PaymentEvent batch sent | topic={} size={}",
+                        paymentEventsTopic, payments.size()));
+    }
+}
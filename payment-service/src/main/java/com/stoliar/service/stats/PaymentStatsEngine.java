@@ -0,0 +1,192 @@
+package com.stoliar.service.stats;
+
+import com.stoliar.dto.PaymentStatsResponse;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Статистика созданных платежей в скользящих окнах 1m / 5m / 1h без блокировок и запросов к БД.
+ * Время делится на бакеты фиксированной ширины, бакеты лежат в кольце на 1 час.
+ * Бакет устаревшей эпохи заменяется новым через CAS, счетчики внутри бакета - LongAdder
+ */
+@Component
+public class PaymentStatsEngine {
+
+    public static final Map<String, Duration> WINDOWS = windows();
+
+    private static final Duration MAX_WINDOW = Duration.ofHours(1);
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    // Суммы копятся в копейках
+    private static final int AMOUNT_SCALE = 2;
+
+    private final long bucketMillis;
+    private final int ringSize;
+    private final AtomicReferenceArray<Bucket> ring;
+    private final LongSupplier clock;
+
+    @Autowired
+    public PaymentStatsEngine(MeterRegistry meterRegistry,
+                              @Value("${payment.stats.bucket-width:5s}") Duration bucketWidth) {
+        this(meterRegistry, bucketWidth, System::currentTimeMillis);
+    }
+
+    PaymentStatsEngine(MeterRegistry meterRegistry, Duration bucketWidth, LongSupplier clock) {
+        this.bucketMillis = bucketWidth.toMillis();
+        this.ringSize = (int) (MAX_WINDOW.toMillis() / bucketMillis);
+        this.ring = new AtomicReferenceArray<>(ringSize);
+        this.clock = clock;
+        for (int slot = 0; slot < ringSize; slot++) {
+            ring.set(slot, new Bucket(Long.MIN_VALUE));
+        }
+        bindMetrics(meterRegistry);
+    }
+
+    public void record(Payment payment) {
+        Bucket bucket = bucketFor(clock.getAsLong() / bucketMillis);
+        if (bucket == null) {
+            return;
+        }
+        bucket.count.increment();
+        bucket.amount.add(toMinorUnits(payment.getPaymentAmount()));
+        bucket.statusCounts[payment.getStatus().ordinal()].increment();
+    }
+
+    public void recordAll(List<Payment> payments) {
+        payments.forEach(this::record);
+    }
+
+    public Map<String, PaymentStatsResponse> snapshot() {
+        Map<String, PaymentStatsResponse> result = new LinkedHashMap<>();
+        WINDOWS.forEach((name, window) -> result.put(name, snapshot(name, window)));
+        return result;
+    }
+
+    public PaymentStatsResponse snapshot(String name, Duration window) {
+        long count = 0;
+        long amount = 0;
+        long[] statusCounts = new long[STATUSES.length];
+
+        long currentEpoch = clock.getAsLong() / bucketMillis;
+        long firstEpoch = currentEpoch - bucketsIn(window) + 1;
+        for (int slot = 0; slot < ringSize; slot++) {
+            Bucket bucket = ring.get(slot);
+            if (bucket.epoch < firstEpoch || bucket.epoch > currentEpoch) {
+                continue;
+            }
+            count += bucket.count.sum();
+            amount += bucket.amount.sum();
+            for (int i = 0; i < STATUSES.length; i++) {
+                statusCounts[i] += bucket.statusCounts[i].sum();
+            }
+        }
+
+        long successCount = 0;
+        long failureCount = 0;
+        Map<PaymentStatus, Long> byStatus = new EnumMap<>(PaymentStatus.class);
+        for (PaymentStatus status : STATUSES) {
+            long statusCount = statusCounts[status.ordinal()];
+            byStatus.put(status, statusCount);
+            if (status.isSuccess()) {
+                successCount += statusCount;
+            } else if (status.isFailure()) {
+                failureCount += statusCount;
+            }
+        }
+
+        return PaymentStatsResponse.builder()
+                .window(name)
+                .count(count)
+                .totalAmount(BigDecimal.valueOf(amount, AMOUNT_SCALE))
+                .successCount(successCount)
+                .failureCount(failureCount)
+                .successRate(count == 0 ? 0.0 : (double) successCount / count)
+                .failureRate(count == 0 ? 0.0 : (double) failureCount / count)
+                .statusCounts(byStatus)
+                .build();
+    }
+
+    /**
+     * Бакет текущей эпохи. Если в слоте лежит бакет прошлого круга - заменяем его CAS'ом;
+     * проигравший гонку поток просто перечитывает слот
+     */
+    private Bucket bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) ringSize);
+        Bucket bucket = ring.get(slot);
+        while (bucket.epoch != epoch) {
+            if (bucket.epoch > epoch) {
+                // Поток задержался дольше круга кольца - запись уже вне всех окон
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = ring.get(slot);
+        }
+        return bucket;
+    }
+
+    private long bucketsIn(Duration window) {
+        return Math.max(1, window.toMillis() / bucketMillis);
+    }
+
+    private long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private void bindMetrics(MeterRegistry meterRegistry) {
+        WINDOWS.forEach((name, window) -> {
+            gauge(meterRegistry, "payment.stats.count", name, window, PaymentStatsResponse::getCount);
+            gauge(meterRegistry, "payment.stats.amount", name, window, stats -> stats.getTotalAmount().doubleValue());
+            gauge(meterRegistry, "payment.stats.success.rate", name, window, PaymentStatsResponse::getSuccessRate);
+            gauge(meterRegistry, "payment.stats.failure.rate", name, window, PaymentStatsResponse::getFailureRate);
+        });
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String metric, String name, Duration window,
+                       ToDoubleFunction<PaymentStatsResponse> value) {
+        Gauge.builder(metric, this, engine -> value.applyAsDouble(engine.snapshot(name, window)))
+                .tag("window", name)
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Duration> windows() {
+        Map<String, Duration> windows = new LinkedHashMap<>();
+        windows.put("1m", Duration.ofMinutes(1));
+        windows.put("5m", Duration.ofMinutes(5));
+        windows.put("1h", Duration.ofHours(1));
+        return Collections.unmodifiableMap(windows);
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+        private final LongAdder[] statusCounts = new LongAdder[STATUSES.length];
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.stoliar.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.stoliar.PaymentServiceApplication;
+import com.stoliar.dto.PaymentRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение блокирующего (Spring MVC) и реактивного (WebFlux) вариантов сервиса
+ * на POST /api/v1/payments. Внешний API отвечает с задержкой, поэтому запрос
+ * в основном ждет I/O - именно этот сценарий и различает два стека.
+ * <p>
+ * Для каждого уровня параллелизма держим фиксированное число запросов в полете
+ * и считаем RPS и долю ошибок. Максимальный устойчивый RPS - лучший результат
+ * среди уровней с долей ошибок не выше {@link #MAX_ERROR_RATE}.
+ * Память на запрос - прирост живой кучи (после GC) под нагрузкой относительно
+ * простоя, деленный на число запросов в полете.
+ * Событие в Kafka оба варианта отправляют в фоне, задержка брокера во время запроса не входит.
+ * <p>
+ * Нагрузку генерирует та же JVM, поэтому абсолютные цифры ориентировочные,
+ * но накладные расходы клиента одинаковы для обоих вариантов.
+ * Запуск: ./gradlew :payment-service:test --tests '*PaymentStackBenchmarkTest' -Drun.benchmarks=true
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "run.benchmarks", matches = "true")
+class PaymentStackBenchmarkTest {
+
+    private static final int EXTERNAL_API_DELAY_MS = 50;
+    private static final int[] CONCURRENCY_LEVELS = {50, 200, 800, 2000};
+    private static final Duration WARMUP_DURATION = Duration.ofSeconds(10);
+    private static final Duration STAGE_DURATION = Duration.ofSeconds(20);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(
+            DockerImageName.parse("mongo:7.0"));
+
+    @Container
+    private static final KafkaContainer kafkaContainer = new KafkaContainer(
+            DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    private static WireMockServer wireMockServer;
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    @BeforeAll
+    static void init() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort().containerThreads(500));
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlMatching("/integers.*"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("42")
+                        .withFixedDelay(EXTERNAL_API_DELAY_MS)));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (wireMockServer != null) {
+            wireMockServer.stop();
+        }
+    }
+
+    @Test
+    void compareServletAndReactiveStacks() {
+        StackResult servlet = runStack("servlet");
+        StackResult reactive = runStack("reactive");
+
+        System.out.println(servlet);
+        System.out.println(reactive);
+
+        assertThat(servlet.maxSustainableRps()).isPositive();
+        assertThat(reactive.maxSustainableRps()).isPositive();
+    }
+
+    private StackResult runStack(String stack) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl("benchmark_" + stack),
+                        "spring.kafka.bootstrap-servers=" + kafkaContainer.getBootstrapServers(),
+                        "external.api.url=" + wireMockServer.baseUrl() + "/integers",
+                        "spring.liquibase.enabled=false",
+                        "server.tomcat.max-connections=10000");
+        if ("reactive".equals(stack)) {
+            builder.profiles("reactive");
+        }
+
+        List<StageResult> stages = new ArrayList<>();
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            WebClient client = createClient(port);
+
+            runLoad(client, CONCURRENCY_LEVELS[0], WARMUP_DURATION);
+
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                stages.add(runStage(client, concurrency));
+            }
+        }
+        return new StackResult(stack, stages);
+    }
+
+    private StageResult runStage(WebClient client, int concurrency) {
+        memoryBean.gc();
+        long idleHeap = memoryBean.getHeapMemoryUsage().getUsed();
+        int idleThreads = threadBean.getThreadCount();
+
+        // Середина стадии: снимаем живую кучу и число потоков под нагрузкой
+        AtomicLong loadedHeap = new AtomicLong();
+        AtomicLong loadedThreads = new AtomicLong();
+        Mono.delay(STAGE_DURATION.dividedBy(2))
+                .subscribe(ignored -> {
+                    loadedThreads.set(threadBean.getThreadCount());
+                    memoryBean.gc();
+                    loadedHeap.set(memoryBean.getHeapMemoryUsage().getUsed());
+                });
+
+        LoadResult load = runLoad(client, concurrency, STAGE_DURATION);
+
+        long heapPerRequest = Math.max(0, loadedHeap.get() - idleHeap) / concurrency;
+        return new StageResult(concurrency, load.rps(), load.errorRate(),
+                (int) loadedThreads.get() - idleThreads, heapPerRequest);
+    }
+
+    private LoadResult runLoad(WebClient client, int concurrency, Duration duration) {
+        AtomicLong successes = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        long start = System.nanoTime();
+
+        Flux.range(0, Integer.MAX_VALUE)
+                .takeWhile(i -> System.nanoTime() < deadline)
+                .flatMap(i -> createPayment(client), concurrency)
+                .doOnNext(success -> (success ? successes : failures).incrementAndGet())
+                .blockLast();
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long total = successes.get() + failures.get();
+        return new LoadResult(successes.get() / seconds, total == 0 ? 1.0 : (double) failures.get() / total);
+    }
+
+    private Mono<Boolean> createPayment(WebClient client) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PaymentRequest request = PaymentRequest.builder()
+                .orderId(random.nextLong(1, 1_000_000))
+                .userId(random.nextLong(1, 10_000))
+                .paymentAmount(BigDecimal.valueOf(random.nextInt(1, 10_000), 2))
+                .build();
+
+        return client.post()
+                .uri("/api/v1/payments")
+                .bodyValue(request)
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful())
+                .timeout(REQUEST_TIMEOUT)
+                .onErrorReturn(false);
+    }
+
+    private WebClient createClient(int port) {
+        ConnectionProvider provider = ConnectionProvider.builder("payment-benchmark")
+                .maxConnections(CONCURRENCY_LEVELS[CONCURRENCY_LEVELS.length - 1])
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private record LoadResult(double rps, double errorRate) {
+    }
+
+    private record StageResult(int concurrency, double rps, double errorRate, int extraThreads, long heapBytesPerRequest) {
+    }
+
+    private record StackResult(String stack, List<StageResult> stages) {
+
+        double maxSustainableRps() {
+            return stages.stream()
+                    .filter(stage -> stage.errorRate() <= MAX_ERROR_RATE)
+                    .mapToDouble(StageResult::rps)
+                    .max()
+                    .orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%n=== %s: max sustainable RPS %.0f ===%n",
+                    stack, maxSustainableRps()));
+            sb.append(String.format("%12s %10s %10s %14s %16s%n",
+                    "in-flight", "rps", "errors", "extra threads", "heap/request"));
+            stages.forEach(stage -> sb.append(String.format("%12d %10.0f %9.2f%% %14d %14d B%n",
+                    stage.concurrency(), stage.rps(), stage.errorRate() * 100,
+                    stage.extraThreads(), stage.heapBytesPerRequest())));
+            return sb.toString();
+        }
+    }
+}
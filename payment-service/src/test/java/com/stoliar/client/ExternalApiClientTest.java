@@ -6,6 +6,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -166,4 +167,46 @@ class ExternalApiClientTest {
         // Then
         assertEquals(PaymentStatus.FAILED, status);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldResolveBatchStatusesWithSingleRequest() {
+        // Given
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        Random random = mock(Random.class);
+
+        when(restTemplate.getForEntity(contains("num=3"), eq(String.class)))
+                .thenReturn(org.springframework.http.ResponseEntity.ok("42\n13\n8\n"));
+
+        ExternalApiClient client = new ExternalApiClient(restTemplate, random);
+        ReflectionTestUtils.setField(client, "externalApiUrl", "https://test.com");
+        ReflectionTestUtils.setField(client, "fallbackEnabled", true);
+
+        // When
+        List<PaymentStatus> statuses = client.determinePaymentStatuses(3);
+
+        // Then
+        assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.COMPLETED), statuses);
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(String.class));
+    }
+
+    @Test
+    void shouldUseFallbackForWholeBatchWhenCountMismatch() {
+        // Given
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        Random random = mock(Random.class);
+
+        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+                .thenReturn(org.springframework.http.ResponseEntity.ok("42\n"));
+        when(random.nextInt(100)).thenReturn(0); // 0 + 1 = 1 (нечетное)
+
+        ExternalApiClient client = new ExternalApiClient(restTemplate, random);
+        ReflectionTestUtils.setField(client, "externalApiUrl", "https://test.com");
+        ReflectionTestUtils.setField(client, "fallbackEnabled", true);
+
+        // When
+        List<PaymentStatus> statuses = client.determinePaymentStatuses(2);
+
+        // Then
+        assertEquals(List.of(PaymentStatus.FAILED, PaymentStatus.FAILED), statuses);
+    }
+}
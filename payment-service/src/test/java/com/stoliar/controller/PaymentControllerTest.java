@@ -1,6 +1,7 @@
 package com.stoliar.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.dto.PaymentBatchItemResult;
 import com.stoliar.dto.PaymentRequest;
 import com.stoliar.dto.PaymentResponse;
 import com.stoliar.entity.enums.PaymentStatus;
@@ -16,8 +17,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -109,4 +112,27 @@ class PaymentControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.id").value(paymentId));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createPayments_PartialFailure_ReturnsMultiStatus() throws Exception {
+        // Given
+        PaymentRequest request = PaymentRequest.builder()
+                .orderId(1L)
+                .userId(1L)
+                .paymentAmount(new BigDecimal("100.00"))
+                .build();
+
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                PaymentBatchItemResult.succeeded(0, PaymentResponse.builder().id(new ObjectId().toString()).build()),
+                PaymentBatchItemResult.failed(1, "paymentAmount: Payment amount must be greater than 0")));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.data[0].success").value(true))
+                .andExpect(jsonPath("$.data[1].index").value(1))
+                .andExpect(jsonPath("$.data[1].success").value(false));
+    }
+}
@@ -0,0 +1,52 @@
+package com.stoliar.integration;
+
+import com.stoliar.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@EnabledIfSystemProperty(named = "use.testcontainers", matches = "true")
+class JobLeaseRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    private static final String JOB = "payment-archival";
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("job_leases");
+    }
+
+    @Test
+    void tryAcquire_HeldByAnotherReplica_Rejected() {
+        assertThat(jobLeaseRepository.tryAcquire(JOB, "replica-1", Duration.ofMinutes(10))).isTrue();
+
+        assertThat(jobLeaseRepository.tryAcquire(JOB, "replica-2", Duration.ofMinutes(10))).isFalse();
+        assertThat(jobLeaseRepository.extend(JOB, "replica-2", Duration.ofMinutes(10))).isFalse();
+        assertThat(jobLeaseRepository.extend(JOB, "replica-1", Duration.ofMinutes(10))).isTrue();
+    }
+
+    @Test
+    void tryAcquire_AfterReleaseOrExpiry_Granted() throws InterruptedException {
+        jobLeaseRepository.tryAcquire(JOB, "replica-1", Duration.ofMinutes(10));
+        jobLeaseRepository.release(JOB, "replica-1");
+        assertThat(jobLeaseRepository.tryAcquire(JOB, "replica-2", Duration.ofMillis(50))).isTrue();
+
+        // Аренда упавшей реплики истекает сама
+        Thread.sleep(100);
+        assertThat(jobLeaseRepository.tryAcquire(JOB, "replica-1", Duration.ofMinutes(10))).isTrue();
+        assertThat(jobLeaseRepository.extend(JOB, "replica-2", Duration.ofMinutes(10))).isFalse();
+    }
+}
@@ -1,23 +1,37 @@
 package com.stoliar.service;
 
 import com.stoliar.client.ExternalApiClient;
+import com.stoliar.dto.PaymentBatchItemResult;
 import com.stoliar.dto.PaymentRequest;
 import com.stoliar.dto.PaymentResponse;
 import com.stoliar.entity.Payment;
 import com.stoliar.entity.enums.PaymentStatus;
 import com.stoliar.mapper.PaymentMapper;
+import com.stoliar.repository.PaymentArchiveRepository;
 import com.stoliar.repository.PaymentRepository;
+import com.stoliar.service.archive.PaymentArchivePolicy;
+import com.stoliar.service.cache.PaymentLookupCache;
+import com.stoliar.service.stats.PaymentStatsEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.stoliar.service.kafka.PaymentEventProducer;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,6 +40,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
@@ -44,6 +60,28 @@ class PaymentServiceUnitTest {
     @Mock
     private PaymentEventProducer paymentEventProducer;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private PaymentArchiveRepository archiveRepository;
+
+    @Mock
+    private PaymentArchivePolicy archivePolicy;
+
+    @Mock
+    private PaymentStatsEngine paymentStatsEngine;
+
+    @Spy
+    private PaymentLookupCache paymentLookupCache =
+            new PaymentLookupCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -129,6 +167,50 @@ class PaymentServiceUnitTest {
         verify(paymentEventProducer, times(1)).sendPaymentCreatedEvent(payment);
     }
 
+    @Test
+    void createPayments_SkipsInvalidItemsAndSendsOneEventBatch() {
+        // Given
+        when(paymentMapper.toEntity(paymentRequest)).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatuses(1)).thenReturn(List.of(PaymentStatus.COMPLETED));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        List<PaymentBatchItemResult> results = paymentService.createPayments(Arrays.asList(null, paymentRequest));
+
+        // Then
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        verify(externalApiClient, never()).determinePaymentStatus();
+        verify(paymentEventProducer, times(1)).sendPaymentCreatedEvents(List.of(payment));
+    }
+
+    @Test
+    void createPayments_BulkInsertError_ReportedPerItem() {
+        // Given
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+
+        when(paymentMapper.toEntity(paymentRequest)).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatuses(1)).thenReturn(List.of(PaymentStatus.FAILED));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkException);
+
+        // When
+        List<PaymentBatchItemResult> results = paymentService.createPayments(List.of(paymentRequest));
+
+        // Then
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("duplicate key", results.get(0).getError());
+        verify(paymentEventProducer, times(1)).sendPaymentCreatedEvents(Collections.emptyList());
+    }
+
     @Test
     void getPaymentById_Success() {
         // Given
@@ -153,6 +235,19 @@ class PaymentServiceUnitTest {
         // When & Then
         assertThrows(RuntimeException.class, () -> paymentService.getPaymentById(nonExistingId));
         verify(paymentRepository, times(1)).findById(nonExistingId);
+        // Свежий id не может быть в архиве - архив не сканируется
+        verify(archiveRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getPaymentById_InvalidId_SkipsArchive() {
+        // Given
+        when(paymentRepository.findById("bad-id")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> paymentService.getPaymentById("bad-id"));
+        verify(archivePolicy).mayBeArchived("bad-id");
+        verify(archiveRepository, never()).findById(anyString());
     }
 
     @Test
@@ -367,4 +462,88 @@ class PaymentServiceUnitTest {
         verify(paymentRepository, times(1)).findByTimestampBetween(startDate, endDate);
         verify(paymentRepository, times(1)).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPaymentById_NotInHotCollection_ReadsArchive() {
+        // Given
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.empty());
+        when(archivePolicy.mayBeArchived(paymentId)).thenReturn(true);
+        when(archiveRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        PaymentResponse result = paymentService.getPaymentById(paymentId);
+
+        // Then
+        assertEquals(paymentId, result.getId());
+    }
+
+    @Test
+    void getTotalSumByDateRange_RangeInHotTier_SkipsArchive() {
+        // Given
+        LocalDateTime startDate = LocalDateTime.of(2026, 1, 28, 10, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2026, 1, 28, 18, 0, 0);
+        when(paymentRepository.findByTimestampBetween(startDate, endDate)).thenReturn(List.of(payment));
+        when(archivePolicy.reachesArchive(startDate)).thenReturn(false);
+
+        // When
+        BigDecimal actual = paymentService.getTotalSumByDateRange(startDate, endDate);
+
+        // Then
+        assertEquals(new BigDecimal("150.75"), actual);
+        verify(archiveRepository, never()).findByTimestampBetween(any(), any());
+    }
+
+    @Test
+    void getTotalSumByDateRange_RangeReachesArchive_MergesTiersWithoutDuplicates() {
+        // Given
+        LocalDateTime startDate = LocalDateTime.of(2026, 1, 28, 10, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2026, 1, 28, 18, 0, 0);
+        when(paymentRepository.findByTimestampBetween(startDate, endDate)).thenReturn(List.of(payment));
+        when(archivePolicy.reachesArchive(startDate)).thenReturn(true);
+        // payment попал в оба уровня (сбой архивации), payment2 только в архиве
+        when(archiveRepository.findByTimestampBetween(startDate, endDate)).thenReturn(List.of(payment, payment2));
+
+        // When
+        BigDecimal actual = paymentService.getTotalSumByDateRange(startDate, endDate);
+
+        // Then
+        assertEquals(new BigDecimal("351.00"), actual);
+    }
+
+    @Test
+    void getPaymentById_SecondCall_ServedFromCache() {
+        // Given
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        paymentService.getPaymentById(paymentId);
+        PaymentResponse result = paymentService.getPaymentById(paymentId);
+
+        // Then
+        assertEquals(paymentId, result.getId());
+        verify(paymentRepository, times(1)).findById(paymentId);
+    }
+
+    @Test
+    void createPayment_WritesThroughToCachedOrderPayments() {
+        // Given
+        when(paymentRepository.findByOrderId(100L)).thenReturn(List.of(payment2));
+        paymentService.getPaymentsByOrderId(100L);
+
+        when(paymentMapper.toEntity(paymentRequest)).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatus()).thenReturn(PaymentStatus.COMPLETED);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+
+        // When
+        paymentService.createPayment(paymentRequest);
+        paymentService.getPaymentsByOrderId(100L);
+        paymentService.getPaymentById(paymentId);
+
+        // Then
+        verify(paymentRepository, times(1)).findByOrderId(100L);
+        verify(paymentRepository, never()).findById(anyString());
+        assertEquals(List.of(payment2, payment), paymentLookupCache.getOrderIfPresent(100L).orElseThrow());
+    }
+}
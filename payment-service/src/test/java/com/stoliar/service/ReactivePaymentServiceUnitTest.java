@@ -0,0 +1,214 @@
+package com.stoliar.service;
+
+import com.stoliar.client.ReactiveExternalApiClient;
+import com.stoliar.dto.PaymentRequest;
+import com.stoliar.dto.PaymentResponse;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import com.stoliar.mapper.PaymentMapper;
+import com.stoliar.repository.ReactivePaymentArchiveRepository;
+import com.stoliar.repository.ReactivePaymentRepository;
+import com.stoliar.service.archive.PaymentArchivePolicy;
+import com.stoliar.service.cache.PaymentLookupCache;
+import com.stoliar.service.stats.PaymentStatsEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.stoliar.service.kafka.ReactivePaymentEventProducer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@ExtendWith(MockitoExtension.class)
+class ReactivePaymentServiceUnitTest {
+
+    @Mock
+    private ReactivePaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @Mock
+    private ReactiveExternalApiClient externalApiClient;
+
+    @Mock
+    private ReactivePaymentEventProducer paymentEventProducer;
+
+    @Mock
+    private ReactivePaymentArchiveRepository archiveRepository;
+
+    @Mock
+    private PaymentArchivePolicy archivePolicy;
+
+    @Mock
+    private PaymentStatsEngine paymentStatsEngine;
+
+    @Spy
+    private PaymentLookupCache paymentLookupCache =
+            new PaymentLookupCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+
+    @InjectMocks
+    private ReactivePaymentService paymentService;
+
+    private Payment payment;
+    private Payment payment2;
+    private PaymentRequest paymentRequest;
+    private PaymentResponse paymentResponse;
+    private String paymentId;
+
+    @BeforeEach
+    void setUp() {
+        paymentId = new ObjectId().toString();
+
+        payment = Payment.builder()
+                .id(paymentId)
+                .orderId(100L)
+                .userId(50L)
+                .status(PaymentStatus.COMPLETED)
+                .timestamp(LocalDateTime.of(2026, 1, 28, 14, 30, 0))
+                .paymentAmount(new BigDecimal("150.75"))
+                .build();
+
+        payment2 = Payment.builder()
+                .id(new ObjectId().toString())
+                .orderId(100L)
+                .userId(50L)
+                .status(PaymentStatus.COMPLETED)
+                .timestamp(LocalDateTime.of(2026, 1, 29, 16, 30, 0))
+                .paymentAmount(new BigDecimal("200.25"))
+                .build();
+
+        paymentRequest = PaymentRequest.builder()
+                .orderId(100L)
+                .userId(50L)
+                .paymentAmount(new BigDecimal("150.75"))
+                .build();
+
+        paymentResponse = PaymentResponse.builder()
+                .id(paymentId)
+                .orderId(100L)
+                .userId(50L)
+                .status(PaymentStatus.COMPLETED)
+                .timestamp(LocalDateTime.now())
+                .paymentAmount(new BigDecimal("150.75"))
+                .build();
+    }
+
+    @Test
+    void createPayment_ShouldSaveAndSendEvent() {
+        // Given
+        when(paymentMapper.toEntity(any(PaymentRequest.class))).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatus()).thenReturn(Mono.just(PaymentStatus.COMPLETED));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Mono.just(payment));
+        when(paymentEventProducer.sendPaymentCreatedEvent(payment)).thenReturn(Mono.empty());
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When & Then
+        StepVerifier.create(paymentService.createPayment(paymentRequest))
+                .expectNext(paymentResponse)
+                .verifyComplete();
+
+        verify(paymentEventProducer).sendPaymentCreatedEvent(payment);
+    }
+
+    @Test
+    void createPayment_ShouldNotWaitForBrokerAck() {
+        // Given - подтверждение брокера не приходит
+        when(paymentMapper.toEntity(any(PaymentRequest.class))).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatus()).thenReturn(Mono.just(PaymentStatus.COMPLETED));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Mono.just(payment));
+        when(paymentEventProducer.sendPaymentCreatedEvent(payment)).thenReturn(Mono.never());
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When & Then
+        StepVerifier.create(paymentService.createPayment(paymentRequest))
+                .expectNext(paymentResponse)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        verify(paymentEventProducer).sendPaymentCreatedEvent(payment);
+    }
+
+    @Test
+    void createPayment_SendFails_ShouldStillReturnPayment() {
+        // Given
+        when(paymentMapper.toEntity(any(PaymentRequest.class))).thenReturn(payment);
+        when(externalApiClient.determinePaymentStatus()).thenReturn(Mono.just(PaymentStatus.COMPLETED));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Mono.just(payment));
+        when(paymentEventProducer.sendPaymentCreatedEvent(payment))
+                .thenReturn(Mono.error(new IllegalStateException("broker down")));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When & Then
+        StepVerifier.create(paymentService.createPayment(paymentRequest))
+                .expectNext(paymentResponse)
+                .verifyComplete();
+    }
+
+    @Test
+    void getPaymentById_WhenMissing_ShouldError() {
+        // Given
+        when(paymentRepository.findById(paymentId)).thenReturn(Mono.empty());
+        when(archivePolicy.mayBeArchived(paymentId)).thenReturn(true);
+        when(archiveRepository.findById(paymentId)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(paymentService.getPaymentById(paymentId))
+                .expectErrorMessage("Payment not found with id: " + paymentId)
+                .verify();
+    }
+
+    @Test
+    void getPaymentById_RecentIdMissing_ShouldNotTouchArchive() {
+        // Given
+        when(paymentRepository.findById(paymentId)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(paymentService.getPaymentById(paymentId))
+                .expectErrorMessage("Payment not found with id: " + paymentId)
+                .verify();
+        verify(archiveRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getTotalSumByUserIdAndDateRange_ShouldSumOnlyPaymentsInRange() {
+        // Given
+        when(paymentRepository.findByUserId(50L)).thenReturn(Flux.just(payment, payment2));
+
+        // When & Then
+        StepVerifier.create(paymentService.getTotalSumByUserIdAndDateRange(50L,
+                        LocalDateTime.of(2026, 1, 28, 0, 0), LocalDateTime.of(2026, 1, 28, 23, 59)))
+                .expectNext(new BigDecimal("150.75"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getTotalSumByDateRange_WhenRangeQueryEmpty_ShouldFallbackToFullScan() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2026, 1, 28, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 1, 30, 0, 0);
+        when(paymentRepository.findByTimestampBetween(start, end)).thenReturn(Flux.empty());
+        when(paymentRepository.findAll()).thenReturn(Flux.just(payment, payment2));
+
+        // When & Then
+        StepVerifier.create(paymentService.getTotalSumByDateRange(start, end))
+                .expectNext(new BigDecimal("351.00"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,140 @@
+package com.stoliar.service.archive;
+
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import com.stoliar.repository.JobLeaseRepository;
+import com.stoliar.repository.PaymentArchiveRepository;
+import com.stoliar.repository.PaymentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@ExtendWith(MockitoExtension.class)
+class PaymentArchivalJobTest {
+
+    private static final Duration LEASE_TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentArchiveRepository archiveRepository;
+
+    @Mock
+    private PaymentArchivePolicy archivePolicy;
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+
+    @InjectMocks
+    private PaymentArchivalJob archivalJob;
+
+    @Test
+    void archiveOldPayments_MovesBatchesUntilExhausted() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+        Payment oldest = payment(LocalDateTime.of(2024, 3, 1, 10, 0));
+        Payment older = payment(LocalDateTime.of(2024, 5, 1, 10, 0));
+        Payment old = payment(LocalDateTime.of(2024, 7, 1, 10, 0));
+
+        when(archivePolicy.isEnabled()).thenReturn(true);
+        when(archivePolicy.cutoff()).thenReturn(cutoff);
+        when(archivePolicy.getBatchSize()).thenReturn(2);
+        when(archivePolicy.getLeaseTtl()).thenReturn(LEASE_TTL);
+        when(jobLeaseRepository.tryAcquire(eq(PaymentArchivalJob.LEASE_NAME), anyString(), eq(LEASE_TTL))).thenReturn(true);
+        when(jobLeaseRepository.extend(eq(PaymentArchivalJob.LEASE_NAME), anyString(), eq(LEASE_TTL))).thenReturn(true);
+        when(paymentRepository.findByTimestampBeforeOrderByTimestampAsc(eq(cutoff), any(Pageable.class)))
+                .thenReturn(List.of(oldest, older))
+                .thenReturn(List.of(old));
+        when(archiveRepository.insertMissing(anyList(), any(), any())).thenAnswer(inv -> inv.<List<?>>getArgument(0).size());
+
+        // When
+        archivalJob.archiveOldPayments();
+
+        // Then
+        verify(archiveRepository).insertMissing(List.of(oldest, older), oldest.getTimestamp(), older.getTimestamp());
+        verify(archiveRepository).insertMissing(List.of(old), old.getTimestamp(), old.getTimestamp());
+        verify(paymentRepository).deleteAllById(List.of(oldest.getId(), older.getId()));
+        verify(paymentRepository).deleteAllById(List.of(old.getId()));
+        verify(jobLeaseRepository).release(eq(PaymentArchivalJob.LEASE_NAME), anyString());
+    }
+
+    @Test
+    void archiveOldPayments_LeaseHeldByAnotherReplica_Skips() {
+        // Given
+        when(archivePolicy.isEnabled()).thenReturn(true);
+        when(archivePolicy.getLeaseTtl()).thenReturn(LEASE_TTL);
+        when(jobLeaseRepository.tryAcquire(eq(PaymentArchivalJob.LEASE_NAME), anyString(), eq(LEASE_TTL))).thenReturn(false);
+
+        // When
+        archivalJob.archiveOldPayments();
+
+        // Then
+        verifyNoInteractions(paymentRepository, archiveRepository);
+        verify(jobLeaseRepository, never()).release(any(), any());
+    }
+
+    @Test
+    void archiveOldPayments_LeaseLost_StopsAfterCurrentBatch() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+        Payment oldest = payment(LocalDateTime.of(2024, 3, 1, 10, 0));
+        Payment older = payment(LocalDateTime.of(2024, 5, 1, 10, 0));
+
+        when(archivePolicy.isEnabled()).thenReturn(true);
+        when(archivePolicy.cutoff()).thenReturn(cutoff);
+        when(archivePolicy.getBatchSize()).thenReturn(2);
+        when(archivePolicy.getLeaseTtl()).thenReturn(LEASE_TTL);
+        when(jobLeaseRepository.tryAcquire(eq(PaymentArchivalJob.LEASE_NAME), anyString(), eq(LEASE_TTL))).thenReturn(true);
+        when(jobLeaseRepository.extend(eq(PaymentArchivalJob.LEASE_NAME), anyString(), eq(LEASE_TTL))).thenReturn(false);
+        when(paymentRepository.findByTimestampBeforeOrderByTimestampAsc(eq(cutoff), any(Pageable.class)))
+                .thenReturn(List.of(oldest, older));
+
+        // When
+        archivalJob.archiveOldPayments();
+
+        // Then
+        verify(paymentRepository, times(1)).findByTimestampBeforeOrderByTimestampAsc(eq(cutoff), any(Pageable.class));
+        verify(jobLeaseRepository).release(eq(PaymentArchivalJob.LEASE_NAME), anyString());
+    }
+
+    @Test
+    void archiveOldPayments_Disabled_DoesNothing() {
+        // Given
+        when(archivePolicy.isEnabled()).thenReturn(false);
+
+        // When
+        archivalJob.archiveOldPayments();
+
+        // Then
+        verifyNoInteractions(paymentRepository, archiveRepository, jobLeaseRepository);
+    }
+
+    private Payment payment(LocalDateTime timestamp) {
+        return Payment.builder()
+                .id(new ObjectId().toString())
+                .orderId(1L)
+                .userId(1L)
+                .status(PaymentStatus.COMPLETED)
+                .timestamp(timestamp)
+                .paymentAmount(new BigDecimal("10.00"))
+                .build();
+    }
+}
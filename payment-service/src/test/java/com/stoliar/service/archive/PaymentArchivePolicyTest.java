@@ -0,0 +1,47 @@
+package com.stoliar.service.archive;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentArchivePolicyTest {
+
+    private final PaymentArchivePolicy policy = new PaymentArchivePolicy();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(policy, "retention", Duration.ofDays(365));
+    }
+
+    @Test
+    void mayBeArchived_IdOlderThanRetention_ReturnsTrue() {
+        String id = new ObjectId(Date.from(Instant.now().minus(Duration.ofDays(400)))).toString();
+
+        assertTrue(policy.mayBeArchived(id));
+    }
+
+    @Test
+    void mayBeArchived_RecentId_ReturnsFalse() {
+        assertFalse(policy.mayBeArchived(new ObjectId().toString()));
+    }
+
+    @Test
+    void mayBeArchived_IdJustPastCutoff_KeepsSlackForTimestampSkew() {
+        // timestamp платежа ставится раньше, чем создается ObjectId
+        String id = new ObjectId(Date.from(Instant.now().minus(Duration.ofDays(365)).plusSeconds(60))).toString();
+
+        assertTrue(policy.mayBeArchived(id));
+    }
+
+    @Test
+    void mayBeArchived_InvalidId_ReturnsFalse() {
+        assertFalse(policy.mayBeArchived("not-an-object-id"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.stoliar.service.cache;
+
+import com.stoliar.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentLookupCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentLookupCache cache = new PaymentLookupCache(meterRegistry, 100, Duration.ofMinutes(10));
+
+    @Test
+    void put_DoesNotDuplicatePaymentAlreadyLoadedForOrder() {
+        Payment payment = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+        cache.getByOrderId(7L, orderId -> List.of(payment));
+
+        cache.put(payment);
+
+        assertEquals(List.of(payment), cache.getOrderIfPresent(7L).orElseThrow());
+    }
+
+    @Test
+    void put_SkipsOrderListThatIsNotCached() {
+        Payment payment = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+
+        cache.put(payment);
+
+        assertTrue(cache.getOrderIfPresent(7L).isEmpty());
+        assertEquals(Optional.of(payment), cache.getIfPresent(payment.getId()));
+    }
+
+    @Test
+    void getByOrderId_CreateThenRead_SeesPaymentCreatedOnAnotherReplica() {
+        // Общая база и кэш реплики, которая платеж не создавала
+        List<Payment> database = new CopyOnWriteArrayList<>();
+
+        assertTrue(cache.getByOrderId(7L, orderId -> List.copyOf(database)).isEmpty());
+
+        Payment payment = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+        database.add(payment);
+
+        assertEquals(List.of(payment), cache.getByOrderId(7L, orderId -> List.copyOf(database)));
+    }
+
+    @Test
+    void putOrder_EmptyList_NotCached() {
+        cache.putOrder(7L, List.of());
+
+        assertTrue(cache.getOrderIfPresent(7L).isEmpty());
+    }
+
+    @Test
+    void getByOrderId_ListCachedOnOtherReplica_RefreshedAfterOrderTtl() {
+        AtomicLong nanos = new AtomicLong();
+        PaymentLookupCache replica = new PaymentLookupCache(new SimpleMeterRegistry(), 100, Duration.ofSeconds(30), nanos::get);
+        Payment first = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+        Payment second = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+        List<Payment> database = new CopyOnWriteArrayList<>(List.of(first));
+        replica.getByOrderId(7L, orderId -> List.copyOf(database));
+
+        database.add(second);
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertEquals(List.of(first, second), replica.getByOrderId(7L, orderId -> List.copyOf(database)));
+    }
+
+    @Test
+    void hitRatioGauge_ReflectsLookups() {
+        Payment payment = Payment.builder().id(new ObjectId().toString()).orderId(7L).build();
+
+        cache.getById(payment.getId(), id -> Optional.of(payment)); // miss
+        cache.getById(payment.getId(), id -> Optional.of(payment)); // hit
+
+        double hitRatio = meterRegistry.get("payment.cache.hit.ratio").tag("cache", "payments-by-id").gauge().value();
+        assertEquals(0.5, hitRatio, 0.0001);
+    }
+}
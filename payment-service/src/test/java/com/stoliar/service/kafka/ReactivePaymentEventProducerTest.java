@@ -0,0 +1,106 @@
+package com.stoliar.service.kafka;
+
+import com.stoliar.dto.event.PaymentEvent;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePaymentEventProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+
+    @InjectMocks
+    private ReactivePaymentEventProducer producer;
+
+    private final List<String> sendThreads = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(producer, "paymentEventsTopic", "payment-events");
+    }
+
+    @Test
+    void sendPaymentCreatedEvent_SendsOffEventLoopThread() {
+        // send() ждет метаданных брокера и падает по max.block.ms
+        when(kafkaTemplate.send(eq("payment-events"), anyString(), any(PaymentEvent.class))).thenAnswer(invocation -> {
+            sendThreads.add(Thread.currentThread().getName());
+            throw new TimeoutException("Topic payment-events not present in metadata after 2000 ms");
+        });
+
+        StepVerifier.create(producer.sendPaymentCreatedEvent(payment(1L)))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, sendThreads.size());
+        assertTrue(sendThreads.get(0).startsWith("boundedElastic"), sendThreads.get(0));
+    }
+
+    @Test
+    void sendPaymentCreatedEvents_SendsOnlyOnSubscribe() {
+        Mono<Void> sends = producer.sendPaymentCreatedEvents(List.of(payment(1L), payment(2L)));
+
+        verifyNoInteractions(kafkaTemplate);
+
+        when(kafkaTemplate.send(eq("payment-events"), anyString(), any(PaymentEvent.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(mock(SendResult.class)));
+        StepVerifier.create(sends)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(kafkaTemplate, times(2)).send(eq("payment-events"), anyString(), any(PaymentEvent.class));
+    }
+
+    @Test
+    void sendPaymentCreatedEvents_SynchronousSendFailure_DoesNotFailBatch() {
+        when(kafkaTemplate.send(eq("payment-events"), anyString(), any(PaymentEvent.class)))
+                .thenThrow(new TimeoutException("buffer full"))
+                .thenAnswer(invocation -> {
+                    sendThreads.add(Thread.currentThread().getName());
+                    return CompletableFuture.completedFuture(mock(SendResult.class));
+                });
+
+        StepVerifier.create(producer.sendPaymentCreatedEvents(List.of(payment(1L), payment(2L))))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(kafkaTemplate, times(2)).send(eq("payment-events"), anyString(), any(PaymentEvent.class));
+        assertTrue(sendThreads.get(0).startsWith("boundedElastic"), sendThreads.get(0));
+    }
+
+    private static Payment payment(Long orderId) {
+        return Payment.builder()
+                .id(new ObjectId().toString())
+                .orderId(orderId)
+                .userId(50L)
+                .status(PaymentStatus.COMPLETED)
+                .timestamp(LocalDateTime.now())
+                .paymentAmount(new BigDecimal("10.00"))
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.stoliar.service.stats;
+
+import com.stoliar.dto.PaymentStatsResponse;
+import com.stoliar.entity.Payment;
+import com.stoliar.entity.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentStatsEngineTest {
+
+    private final AtomicLong now = new AtomicLong(Duration.ofDays(1).toMillis());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentStatsEngine engine = new PaymentStatsEngine(meterRegistry, Duration.ofSeconds(5), now::get);
+
+    @Test
+    void snapshot_CountsOnlyPaymentsInsideEachWindow() {
+        engine.record(payment(PaymentStatus.COMPLETED, "10.00"));
+        now.addAndGet(Duration.ofMinutes(3).toMillis());
+        engine.record(payment(PaymentStatus.FAILED, "5.50"));
+        engine.record(payment(PaymentStatus.COMPLETED, "4.50"));
+
+        Map<String, PaymentStatsResponse> stats = engine.snapshot();
+
+        PaymentStatsResponse lastMinute = stats.get("1m");
+        assertEquals(2, lastMinute.getCount());
+        assertEquals(new BigDecimal("10.00"), lastMinute.getTotalAmount());
+        assertEquals(0.5, lastMinute.getFailureRate(), 0.0001);
+
+        PaymentStatsResponse lastFiveMinutes = stats.get("5m");
+        assertEquals(3, lastFiveMinutes.getCount());
+        assertEquals(2L, lastFiveMinutes.getStatusCounts().get(PaymentStatus.COMPLETED));
+    }
+
+    @Test
+    void record_ReusesSlotAfterRingWrapsAround() {
+        engine.record(payment(PaymentStatus.COMPLETED, "10.00"));
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        engine.record(payment(PaymentStatus.DECLINED, "1.00"));
+
+        PaymentStatsResponse lastHour = engine.snapshot().get("1h");
+
+        assertEquals(1, lastHour.getCount());
+        assertEquals(1.0, lastHour.getFailureRate(), 0.0001);
+    }
+
+    @Test
+    void record_ConcurrentWritersLoseNoUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            executor.execute(() -> engine.record(payment(PaymentStatus.COMPLETED, "1.00")));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals(8_000, engine.snapshot().get("1m").getCount());
+        assertEquals(8_000.0, meterRegistry.get("payment.stats.count").tag("window", "1m").gauge().value());
+    }
+
+    private Payment payment(PaymentStatus status, String amount) {
+        return Payment.builder()
+                .status(status)
+                .paymentAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.stoliar.security.benchmark;
+
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtClaimsCache;
+import com.stoliar.security.JwtVerifier;
+import com.stoliar.security.ServiceTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы аутентификации на один запрос: как было в сервисах
+ * (ключ и парсер на каждый вызов, четыре разбора токена в фильтре, подпись служебного токена
+ * на каждый исходящий вызов) и через security-core.
+ * <p>
+ * Запуск: ./gradlew :security-core:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-signing-0123456789";
+
+    private String accessToken;
+    private JwtVerifier verifier;
+    private JwtClaimsCache claimsCache;
+    private ServiceTokenCache serviceTokenCache;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = JwtVerifier.hmacKey(SECRET);
+        accessToken = Jwts.builder()
+                .setSubject("user@example.com")
+                .claim("role", "USER")
+                .claim("userId", 42L)
+                .claim("type", JwtClaims.TYPE_ACCESS)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        verifier = new JwtVerifier(key);
+        claimsCache = new JwtClaimsCache(verifier::verify, new SimpleMeterRegistry(), "benchmark",
+                1000, Duration.ofSeconds(30));
+        serviceTokenCache = new ServiceTokenCache(key, "order-service", "ADMIN",
+                Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    // Прежний JwtAuthenticationFilter: validate + username + role + userId, каждый раз новый ключ и парсер
+    @Benchmark
+    public void filterLegacy(Blackhole blackhole) {
+        legacyClaims(accessToken);
+        blackhole.consume(legacyClaims(accessToken).getSubject());
+        blackhole.consume(legacyClaims(accessToken).get("role", String.class));
+        blackhole.consume(legacyClaims(accessToken).get("userId", Long.class));
+    }
+
+    @Benchmark
+    public JwtClaims filterSharedVerifier() {
+        return verifier.verify(accessToken);
+    }
+
+    // Повторный запрос с тем же токеном: SHA-256 и поиск в кэше вместо HMAC и разбора JSON
+    @Benchmark
+    public JwtClaims filterCachedClaims() {
+        return claimsCache.verify(accessToken).orElse(null);
+    }
+
+    // Прежний ServiceTokenProvider: новый ключ и подпись на каждый исходящий вызов
+    @Benchmark
+    public String serviceTokenLegacy() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .setSubject("order-service")
+                .claim("service", "order-service")
+                .claim("role", "ADMIN")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String serviceTokenCached() {
+        return serviceTokenCache.getToken();
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
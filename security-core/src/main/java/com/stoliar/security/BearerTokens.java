@@ -0,0 +1,21 @@
+package com.stoliar.security;
+
+public final class BearerTokens {
+
+    public static final String PREFIX = "Bearer ";
+
+    private BearerTokens() {
+    }
+
+    /**
+     * @return токен из заголовка Authorization или null, если это не Bearer
+     */
+    public static String resolve(String authorizationHeader) {
+        if (authorizationHeader == null
+                || !authorizationHeader.startsWith(PREFIX)
+                || authorizationHeader.length() == PREFIX.length()) {
+            return null;
+        }
+        return authorizationHeader.substring(PREFIX.length());
+    }
+}
@@ -0,0 +1,52 @@
+package com.stoliar.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+
+/**
+ * Принимает личность из {@link IdentityHeader}, только если запрос пришел из сети gateway.
+ * Если режим выключен, заголовка нет, адрес чужой или подпись не сошлась, возвращает null
+ * и сервис проверяет JWT сам
+ */
+@Slf4j
+public class GatewayIdentityResolver {
+
+    private final IdentityHeader identityHeader;
+    private final TrustedNetworks trustedNetworks;
+
+    public GatewayIdentityResolver(IdentityHeader identityHeader, TrustedNetworks trustedNetworks) {
+        this.identityHeader = identityHeader;
+        this.trustedNetworks = trustedNetworks;
+    }
+
+    public static GatewayIdentityResolver disabled() {
+        return new GatewayIdentityResolver(null, null);
+    }
+
+    public static GatewayIdentityResolver create(boolean enabled, String secret, Collection<String> trustedNetworks) {
+        if (!enabled) {
+            return disabled();
+        }
+        return new GatewayIdentityResolver(new IdentityHeader(secret), TrustedNetworks.of(trustedNetworks));
+    }
+
+    public boolean isEnabled() {
+        return identityHeader != null;
+    }
+
+    public JwtClaims resolve(String headerValue, String remoteAddress) {
+        if (identityHeader == null || headerValue == null) {
+            return null;
+        }
+        if (!trustedNetworks.contains(remoteAddress)) {
+            log.debug("Ignoring identity header from untrusted address {}", remoteAddress);
+            return null;
+        }
+        JwtClaims claims = identityHeader.decode(headerValue);
+        if (claims == null) {
+            log.debug("Identity header from {} is invalid or expired", remoteAddress);
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,116 @@
+package com.stoliar.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Внутренний заголовок с личностью, уже проверенной на gateway: userId, роль, subject и exp токена,
+ * подписанные HMAC-SHA256 отдельным ключом. Сервису за gateway достаточно одного HMAC
+ * по короткой строке вместо разбора и проверки JWT.
+ * <p>
+ * Формат: {@code v1.<base64url(userId|role|exp|subject)>.<base64url(hmac)>}
+ */
+public class IdentityHeader {
+
+    public static final String NAME = "X-Verified-Identity";
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    // Mac не потокобезопасен, инициализация дороже самой подписи короткой строки
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityHeader(String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    public IdentityHeader(String secret, Clock clock) {
+        byte[] secretBytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Identity header secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String encode(JwtClaims claims) {
+        String payload = (claims.userId() != null ? claims.userId() : "")
+                + "|" + (claims.role() != null ? claims.role() : "")
+                + "|" + claims.expiresAtMillis()
+                + "|" + (claims.subject() != null ? claims.subject() : "");
+        String signed = VERSION + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signed + "." + ENCODER.encodeToString(mac(signed));
+    }
+
+    /**
+     * @return claims из заголовка или null, если формат, подпись или срок не подходят
+     */
+    public JwtClaims decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        int macStart = value.lastIndexOf('.');
+        if (macStart < 0 || !value.startsWith(VERSION + ".")) {
+            return null;
+        }
+        try {
+            String signed = value.substring(0, macStart);
+            byte[] expectedMac = mac(signed);
+            byte[] actualMac = DECODER.decode(value.substring(macStart + 1));
+            if (!MessageDigest.isEqual(expectedMac, actualMac)) {
+                return null;
+            }
+
+            String payload = new String(DECODER.decode(signed.substring(VERSION.length() + 1)), StandardCharsets.UTF_8);
+            String[] fields = payload.split("\\|", 4);
+            if (fields.length != 4) {
+                return null;
+            }
+            long expiresAtMillis = Long.parseLong(fields[2]);
+            if (expiresAtMillis <= clock.millis()) {
+                return null;
+            }
+            return new JwtClaims(
+                    emptyToNull(fields[3]),
+                    emptyToNull(fields[1]),
+                    fields[0].isEmpty() ? null : Long.valueOf(fields[0]),
+                    null,
+                    null,
+                    expiresAtMillis
+            );
+        } catch (IllegalArgumentException e) {
+            // Битый base64 или число
+            return null;
+        }
+    }
+
+    private byte[] mac(String data) {
+        return macs.get().doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
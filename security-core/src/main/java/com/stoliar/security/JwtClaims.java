@@ -0,0 +1,36 @@
+package com.stoliar.security;
+
+/**
+ * Claims JWT после проверки подписи и срока. Создается один раз на запрос и кладется
+ * в атрибут {@link #REQUEST_ATTRIBUTE}, чтобы дальше по цепочке токен не разбирался заново
+ *
+ * @param subject email пользователя или имя сервиса для служебного токена
+ * @param role    роль без префикса ROLE_
+ * @param userId  id учетной записи, у служебного токена null
+ * @param type    access или refresh
+ * @param service имя сервиса-отправителя, только у служебного токена
+ */
+public record JwtClaims(String subject,
+                        String role,
+                        Long userId,
+                        String type,
+                        String service,
+                        long expiresAtMillis) {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isServiceToken() {
+        return service != null;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
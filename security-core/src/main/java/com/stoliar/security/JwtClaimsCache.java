@@ -0,0 +1,82 @@
+package com.stoliar.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов проверки JWT по SHA-256 токена. Клиенты шлют один и тот же токен весь его срок,
+ * поэтому HMAC и разбор JSON выполняются один раз на токен, а не на каждый запрос.
+ * Действительный токен хранится ровно до своего exp, недействительный - negative-ttl,
+ * чтобы поток мусорных токенов не проверялся заново. Сами токены в памяти не держатся.
+ * <p>
+ * Метрики: cache.size, cache.gets{result=hit|miss}, cache.evictions и cache.hit.ratio с тегом cache=name
+ */
+public class JwtClaimsCache {
+
+    private final Function<String, JwtClaims> verifier;
+    private final Cache<String, Optional<JwtClaims>> cache;
+
+    public JwtClaimsCache(Function<String, JwtClaims> verifier,
+                          MeterRegistry meterRegistry,
+                          String name,
+                          long maxSize,
+                          Duration negativeTtl) {
+        this.verifier = verifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<JwtClaims>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<JwtClaims> value, long currentTime) {
+                        if (value.isEmpty()) {
+                            return negativeTtl.toNanos();
+                        }
+                        long remainingMillis = value.get().expiresAtMillis() - System.currentTimeMillis();
+                        return Duration.ofMillis(Math.max(remainingMillis, 0)).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<JwtClaims> value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<JwtClaims> value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of token verifications served from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return claims действительного токена или empty, если подпись неверна или срок истек
+     */
+    public Optional<JwtClaims> verify(String token) {
+        Optional<JwtClaims> verified = cache.get(TokenDigest.sha256(token),
+                key -> Optional.ofNullable(verifier.apply(token)));
+        // Запись живет до exp, но очистка Caffeine не мгновенная
+        if (verified.isPresent() && verified.get().isExpired(System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return verified;
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
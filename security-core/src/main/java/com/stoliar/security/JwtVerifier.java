@@ -0,0 +1,75 @@
+package com.stoliar.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Общая проверка JWT для всех сервисов. HMAC-ключ и парсер потокобезопасны
+ * и создаются один раз, токен разбирается один раз в {@link JwtClaims}
+ */
+@Slf4j
+public class JwtVerifier {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtVerifier(String secret) {
+        this(hmacKey(secret));
+    }
+
+    public JwtVerifier(SecretKey signingKey) {
+        this.signingKey = signingKey;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    public static SecretKey hmacKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("JWT secret is not configured");
+        }
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Проверяет подпись и срок и возвращает все claims, нужные фильтрам
+     *
+     * @return null, если токен недействителен
+     */
+    public JwtClaims verify(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                // Все наши токены выпускаются с exp, бессрочный токен не принимаем
+                log.debug("JWT token has no expiration");
+                return null;
+            }
+            return new JwtClaims(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.get("userId", Long.class),
+                    claims.get("type", String.class),
+                    claims.get("service", String.class),
+                    expiration.getTime()
+            );
+        } catch (JwtException e) {
+            log.debug("Invalid JWT token: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.debug("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
+    }
+}
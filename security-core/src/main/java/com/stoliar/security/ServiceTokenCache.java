@@ -0,0 +1,76 @@
+package com.stoliar.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Служебный токен для исходящих вызовов между сервисами. Подписывается один раз
+ * и переиспользуется, пока до его exp не останется refresh-before, тогда выпускается новый.
+ * Так получатель никогда не видит токен, истекающий прямо в полете
+ */
+public class ServiceTokenCache {
+
+    private final SecretKey signingKey;
+    private final String serviceName;
+    private final String role;
+    private final Duration ttl;
+    private final Duration refreshBefore;
+    private final Clock clock;
+
+    private volatile IssuedToken current;
+
+    public ServiceTokenCache(SecretKey signingKey, String serviceName, String role,
+                             Duration ttl, Duration refreshBefore) {
+        this(signingKey, serviceName, role, ttl, refreshBefore, Clock.systemUTC());
+    }
+
+    public ServiceTokenCache(SecretKey signingKey, String serviceName, String role,
+                             Duration ttl, Duration refreshBefore, Clock clock) {
+        if (refreshBefore.isNegative() || refreshBefore.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("refresh-before must be shorter than token ttl");
+        }
+        this.signingKey = signingKey;
+        this.serviceName = serviceName;
+        this.role = role;
+        this.ttl = ttl;
+        this.refreshBefore = refreshBefore;
+        this.clock = clock;
+    }
+
+    public String getToken() {
+        IssuedToken token = current;
+        if (token == null || !clock.instant().isBefore(token.refreshAt())) {
+            synchronized (this) {
+                token = current;
+                if (token == null || !clock.instant().isBefore(token.refreshAt())) {
+                    token = issue();
+                    current = token;
+                }
+            }
+        }
+        return token.value();
+    }
+
+    private IssuedToken issue() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttl);
+        String value = Jwts.builder()
+                .setSubject(serviceName)
+                .claim("service", serviceName)
+                .claim("role", role)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        return new IssuedToken(value, expiresAt.minus(refreshBefore));
+    }
+
+    private record IssuedToken(String value, Instant refreshAt) {
+    }
+}
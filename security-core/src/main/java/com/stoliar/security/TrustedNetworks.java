@@ -0,0 +1,84 @@
+package com.stoliar.security;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Список подсетей в нотации CIDR (10.0.0.0/8, ::1/128) или отдельных адресов.
+ * Ожидаются IP-литералы: адрес из request.getRemoteAddr() в DNS не разрешается
+ */
+public final class TrustedNetworks {
+
+    private final List<Network> networks;
+
+    private TrustedNetworks(List<Network> networks) {
+        this.networks = networks;
+    }
+
+    public static TrustedNetworks of(Collection<String> cidrs) {
+        List<Network> networks = new ArrayList<>();
+        for (String cidr : cidrs) {
+            if (cidr != null && !cidr.isBlank()) {
+                networks.add(Network.parse(cidr.trim()));
+            }
+        }
+        return new TrustedNetworks(List.copyOf(networks));
+    }
+
+    public boolean contains(String address) {
+        if (address == null || address.isBlank() || networks.isEmpty()) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        for (Network network : networks) {
+            if (network.matches(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Network(byte[] prefix, int bits) {
+
+        static Network parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            String host = slash < 0 ? cidr : cidr.substring(0, slash);
+            try {
+                byte[] prefix = InetAddress.getByName(host).getAddress();
+                int bits = slash < 0 ? prefix.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+                if (bits < 0 || bits > prefix.length * 8) {
+                    throw new IllegalArgumentException("Invalid prefix length in " + cidr);
+                }
+                return new Network(prefix, bits);
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Invalid network " + cidr, e);
+            }
+        }
+
+        boolean matches(byte[] address) {
+            if (address.length != prefix.length) {
+                return false;
+            }
+            int fullBytes = bits / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != prefix[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = bits % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (prefix[fullBytes] & mask);
+        }
+    }
+}
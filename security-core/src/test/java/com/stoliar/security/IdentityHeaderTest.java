@@ -0,0 +1,88 @@
+package com.stoliar.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHeaderTest {
+
+    private static final String SECRET = "test-identity-header-secret-for-tests-only";
+
+    private final IdentityHeader identityHeader = new IdentityHeader(SECRET);
+
+    @Test
+    void decode_EncodedClaims_RoundTrips() {
+        JwtClaims claims = new JwtClaims("user|odd@example.com", "ADMIN", 42L, "access", null,
+                System.currentTimeMillis() + 60_000);
+
+        JwtClaims decoded = identityHeader.decode(identityHeader.encode(claims));
+
+        assertNotNull(decoded);
+        assertEquals("user|odd@example.com", decoded.subject());
+        assertEquals("ADMIN", decoded.role());
+        assertEquals(42L, decoded.userId());
+        assertEquals(claims.expiresAtMillis(), decoded.expiresAtMillis());
+    }
+
+    @Test
+    void decode_TamperedPayload_ReturnsNull() {
+        String value = identityHeader.encode(new JwtClaims("user@example.com", "USER", 7L, "access", null,
+                System.currentTimeMillis() + 60_000));
+        String[] parts = value.split("\\.");
+        String forged = identityHeader.encode(new JwtClaims("user@example.com", "ADMIN", 7L, "access",
+                null, System.currentTimeMillis() + 60_000)).split("\\.")[1];
+
+        assertNull(identityHeader.decode(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void decode_OtherSecret_ReturnsNull() {
+        IdentityHeader other = new IdentityHeader("another-identity-header-secret-for-tests");
+        String value = other.encode(new JwtClaims("user@example.com", "USER", 7L, "access", null,
+                System.currentTimeMillis() + 60_000));
+
+        assertNull(identityHeader.decode(value));
+    }
+
+    @Test
+    void decode_Expired_ReturnsNull() {
+        String value = identityHeader.encode(new JwtClaims("user@example.com", "USER", 7L, "access", null,
+                System.currentTimeMillis() - 1));
+
+        assertNull(identityHeader.decode(value));
+    }
+
+    @Test
+    void decode_Garbage_ReturnsNull() {
+        assertNull(identityHeader.decode("v1.%%%.%%%"));
+        assertNull(identityHeader.decode("no-dots"));
+        assertNull(identityHeader.decode(null));
+    }
+
+    @Test
+    void constructor_ShortSecret_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeader("short"));
+    }
+
+    @Test
+    void resolver_TrustsHeaderOnlyFromTrustedNetworks() {
+        GatewayIdentityResolver resolver = GatewayIdentityResolver.create(true, SECRET, List.of("10.0.0.0/8", "::1"));
+        String value = identityHeader.encode(new JwtClaims("user@example.com", "USER", 7L, "access", null,
+                System.currentTimeMillis() + 60_000));
+
+        assertNotNull(resolver.resolve(value, "10.12.0.5"));
+        assertNotNull(resolver.resolve(value, "0:0:0:0:0:0:0:1"));
+        assertNull(resolver.resolve(value, "203.0.113.10"));
+        assertNull(GatewayIdentityResolver.disabled().resolve(value, "10.12.0.5"));
+    }
+
+    @Test
+    void trustedNetworks_MatchesPartialPrefix() {
+        TrustedNetworks networks = TrustedNetworks.of(List.of("172.16.0.0/12"));
+
+        assertTrue(networks.contains("172.31.255.1"));
+        assertFalse(networks.contains("172.32.0.1"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.stoliar.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtClaimsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void verify_SameToken_VerifiedOnceAndCountedAsHit() {
+        JwtClaims claims = new JwtClaims("user@example.com", "USER", 1L, "access", null,
+                System.currentTimeMillis() + 60_000);
+        JwtClaimsCache cache = cache(token -> claims);
+
+        assertSame(claims, cache.verify("token").orElseThrow());
+        assertSame(claims, cache.verify("token").orElseThrow());
+
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.size").tag("cache", "test").gauge().value());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "test").gauge().value());
+    }
+
+    @Test
+    void verify_InvalidToken_CachedAsNegative() {
+        JwtClaimsCache cache = cache(token -> null);
+
+        assertTrue(cache.verify("garbage").isEmpty());
+        assertTrue(cache.verify("garbage").isEmpty());
+
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void verify_ExpiredClaims_NotReturned() {
+        JwtClaimsCache cache = cache(token -> new JwtClaims("user@example.com", "USER", 1L, "access", null,
+                System.currentTimeMillis() - 1));
+
+        assertTrue(cache.verify("token").isEmpty());
+    }
+
+    private JwtClaimsCache cache(Function<String, JwtClaims> verifier) {
+        return new JwtClaimsCache(token -> {
+            verifications.incrementAndGet();
+            return verifier.apply(token);
+        }, meterRegistry, "test", 100, Duration.ofSeconds(30));
+    }
+}
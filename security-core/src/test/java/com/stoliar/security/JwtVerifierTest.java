@@ -0,0 +1,87 @@
+package com.stoliar.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-signing-in-tests-only";
+
+    private final JwtVerifier verifier = new JwtVerifier(SECRET);
+
+    @Test
+    void verify_ValidToken_ReturnsAllClaimsAtOnce() {
+        long expiresAt = (System.currentTimeMillis() / 1000 + 3600) * 1000;
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .claim("role", "USER")
+                .claim("userId", 42)
+                .claim("type", "refresh")
+                .setExpiration(new Date(expiresAt))
+                .signWith(verifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        JwtClaims claims = verifier.verify(token);
+
+        assertNotNull(claims);
+        assertEquals("user@example.com", claims.subject());
+        assertEquals("USER", claims.role());
+        assertEquals(42L, claims.userId());
+        assertTrue(claims.isRefreshToken());
+        assertFalse(claims.isServiceToken());
+        assertEquals(expiresAt, claims.expiresAtMillis());
+    }
+
+    @Test
+    void verify_ForeignSignature_ReturnsNull() {
+        SecretKey foreignKey = JwtVerifier.hmacKey("another-secret-key-for-jwt-signing-in-tests");
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(foreignKey, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(verifier.verify(token));
+    }
+
+    @Test
+    void verify_ExpiredToken_ReturnsNull() {
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(verifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(verifier.verify(token));
+    }
+
+    @Test
+    void verify_TokenWithoutExpiration_ReturnsNull() {
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .signWith(verifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(verifier.verify(token));
+    }
+
+    @Test
+    void verify_Garbage_ReturnsNull() {
+        assertNull(verifier.verify("not-a-jwt"));
+        assertNull(verifier.verify(""));
+    }
+
+    @Test
+    void resolveBearer_ExtractsTokenOnlyFromBearerHeader() {
+        assertEquals("abc", BearerTokens.resolve("Bearer abc"));
+        assertNull(BearerTokens.resolve("Bearer "));
+        assertNull(BearerTokens.resolve("Basic abc"));
+        assertNull(BearerTokens.resolve(null));
+    }
+}
@@ -0,0 +1,75 @@
+package com.stoliar.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceTokenCacheTest {
+
+    private final JwtVerifier verifier = new JwtVerifier("test-secret-key-for-jwt-signing-in-tests-only");
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private final ServiceTokenCache cache = new ServiceTokenCache(verifier.getSigningKey(), "order-service", "ADMIN",
+            Duration.ofHours(1), Duration.ofMinutes(5), clock);
+
+    @Test
+    void getToken_ReusesTokenUntilRefreshMargin() {
+        String first = cache.getToken();
+
+        clock.advance(Duration.ofMinutes(54));
+        assertSame(first, cache.getToken());
+
+        clock.advance(Duration.ofMinutes(1));
+        assertNotEquals(first, cache.getToken());
+    }
+
+    @Test
+    void getToken_IssuesServiceClaims() {
+        JwtClaims claims = verifier.verify(cache.getToken());
+
+        assertNotNull(claims);
+        assertEquals("order-service", claims.subject());
+        assertEquals("order-service", claims.service());
+        assertEquals("ADMIN", claims.role());
+        assertTrue(claims.isServiceToken());
+    }
+
+    @Test
+    void constructor_RefreshMarginNotShorterThanTtl_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ServiceTokenCache(verifier.getSigningKey(),
+                "order-service", "ADMIN", Duration.ofMinutes(5), Duration.ofMinutes(5)));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
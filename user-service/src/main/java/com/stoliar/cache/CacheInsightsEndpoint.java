@@ -0,0 +1,104 @@
+package com.stoliar.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * /actuator/cacheinsights: TTL уровней, счетчики и самые частые ключи по выборке для каждого кэша.
+ * DELETE сбрасывает выборку ключей, например после смены TTL
+ */
+@Endpoint(id = "cacheinsights")
+@RequiredArgsConstructor
+public class CacheInsightsEndpoint {
+
+    static final int HOT_KEYS_LIMIT = 20;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, CacheInsight> caches() {
+        Map<String, CacheInsight> insights = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            CacheInsight insight = cache(name);
+            if (insight != null) {
+                insights.put(name, insight);
+            }
+        }
+        return insights;
+    }
+
+    @ReadOperation
+    public CacheInsight cache(@Selector String name) {
+        // getCache создал бы в Redis-менеджере новый кэш под произвольным именем
+        if (!cacheManager.getCacheNames().contains(name)
+                || !(cacheManager.getCache(name) instanceof TwoLevelCache cache)) {
+            return null;
+        }
+
+        CacheStatistics statistics = cache.getStatistics();
+        long lookups = statistics.getHits() + statistics.getMisses();
+        long loads = statistics.getLoadSuccesses() + statistics.getLoadFailures();
+        return new CacheInsight(
+                name,
+                remoteTtl(cache.getRemote()),
+                cacheManager.getLocalTtl().toString(),
+                cacheManager.getLocalMaxSize(),
+                cache.getLocalSize(),
+                statistics.getLocalHits(),
+                statistics.getRemoteHits(),
+                statistics.getMisses(),
+                lookups == 0 ? 0 : (double) statistics.getHits() / lookups,
+                statistics.getPuts(),
+                statistics.getEvictions(),
+                statistics.getLoadSuccesses(),
+                statistics.getLoadFailures(),
+                loads == 0 ? 0 : statistics.getLoadNanos() / 1_000_000.0 / loads,
+                cache.getHotKeys().getSampleRate(),
+                cache.getHotKeys().top(HOT_KEYS_LIMIT));
+    }
+
+    @DeleteOperation
+    public void resetHotKeys() {
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof TwoLevelCache cache) {
+                cache.getHotKeys().reset();
+            }
+        }
+    }
+
+    private static String remoteTtl(Cache remote) {
+        if (remote instanceof RedisCache redisCache) {
+            Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive("", null);
+            return ttl.toString();
+        }
+        return null;
+    }
+
+    public record CacheInsight(String name,
+                               String remoteTtl,
+                               String localTtl,
+                               long localMaxSize,
+                               long localSize,
+                               long localHits,
+                               long remoteHits,
+                               long misses,
+                               double hitRatio,
+                               long puts,
+                               long evictions,
+                               long loads,
+                               long loadFailures,
+                               double averageLoadMillis,
+                               double hotKeySampleRate,
+                               List<HotKeySampler.HotKey> hotKeys) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.stoliar.cache;
+
+/**
+ * Сообщение об инвалидации L1-кэша, передаваемое через Redis pub/sub.
+ * Формат: origin|cacheName|key, пустой key означает очистку всего кэша
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+
+    private static final String SEPARATOR = "|";
+
+    public static CacheInvalidation evict(String origin, String cacheName, Object key) {
+        return new CacheInvalidation(origin, cacheName, String.valueOf(key));
+    }
+
+    public static CacheInvalidation clear(String origin, String cacheName) {
+        return new CacheInvalidation(origin, cacheName, "");
+    }
+
+    public boolean isClear() {
+        return key.isEmpty();
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + cacheName + SEPARATOR + key;
+    }
+
+    public static CacheInvalidation decode(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cache invalidation message: " + message);
+        }
+        return new CacheInvalidation(parts[0], parts[1], parts[2]);
+    }
+}
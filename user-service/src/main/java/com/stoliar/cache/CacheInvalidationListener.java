@@ -0,0 +1,43 @@
+package com.stoliar.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Принимает инвалидации от других реплик и сбрасывает соответствующие записи L1.
+ * Собственные сообщения пропускаются - локальный L1 уже обновлен при записи
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final String instanceId;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        CacheInvalidation invalidation;
+        try {
+            invalidation = CacheInvalidation.decode(body);
+        } catch (IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return;
+        }
+
+        if (instanceId.equals(invalidation.origin())) {
+            return;
+        }
+
+        log.debug("Received cache invalidation: {}", body);
+        if (invalidation.isClear()) {
+            cacheManager.clearLocal(invalidation.cacheName());
+        } else {
+            cacheManager.evictLocal(invalidation.cacheName(), invalidation.key());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.stoliar.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Рассылает инвалидации L1-кэша остальным репликам через Redis pub/sub.
+ * Внутри транзакции сообщение уходит только после коммита, иначе другая реплика
+ * может успеть перечитать из БД еще старое значение
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(CacheInvalidation.evict(instanceId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(CacheInvalidation.clear(instanceId, cacheName));
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(invalidation);
+                }
+            });
+        } else {
+            send(invalidation);
+        }
+    }
+
+    private void send(CacheInvalidation invalidation) {
+        try {
+            redisTemplate.convertAndSend(channel, invalidation.encode());
+        } catch (Exception e) {
+            // Не валим запрос: устаревшая запись в L1 у других реплик проживет не дольше TTL
+            log.warn("Failed to publish cache invalidation {}: {}", invalidation.encode(), e.getMessage());
+        }
+    }
+}
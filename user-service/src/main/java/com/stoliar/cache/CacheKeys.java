@@ -0,0 +1,34 @@
+package com.stoliar.cache;
+
+/**
+ * Раскладка ключей кэша в Redis.
+ * Версия формата в префиксе отделяет значения старого формата: при rolling deploy
+ * поды разных версий не читают данные друг друга, старые записи просто истекают по TTL
+ */
+public final class CacheKeys {
+
+    public static final String FORMAT_VERSION = "c1";
+
+    private CacheKeys() {
+    }
+
+    public static String prefix(String cacheName) {
+        return cacheName + "::" + FORMAT_VERSION + "::";
+    }
+
+    public static String redisKey(String cacheName, Object key) {
+        return prefix(cacheName) + key;
+    }
+
+    public static String leaseKey(String cacheName, Object key) {
+        return cacheName + "::lease::" + key;
+    }
+
+    public static String tagKey(String tag) {
+        return "tag::" + tag;
+    }
+
+    public static String userTag(Object userId) {
+        return "user:" + userId;
+    }
+}
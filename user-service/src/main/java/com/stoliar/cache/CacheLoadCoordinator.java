@@ -0,0 +1,153 @@
+package com.stoliar.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Координация загрузки значений кэша между репликами.
+ * <ul>
+ *     <li>короткая аренда (SET NX PX) на ключ: в БД за значением ходит только одна реплика,
+ *     остальные ждут, пока оно появится в Redis</li>
+ *     <li>вероятностное раннее обновление (XFetch): чем ближе истечение TTL и чем дольше загрузка,
+ *     тем выше шанс, что очередной промах L1 обновит значение заранее. Значение и его TTL
+ *     читаются одним конвейером GET + PTTL</li>
+ * </ul>
+ * Ошибки Redis не должны ломать чтение, поэтому при них считаем аренду полученной
+ */
+@Slf4j
+public class CacheLoadCoordinator {
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+    private final Duration leaseWait;
+    private final double beta;
+    private final Duration minDelta;
+    private final RedisSerializer<Object> valueSerializer;
+
+    public CacheLoadCoordinator(StringRedisTemplate redisTemplate,
+                                Duration leaseTtl,
+                                Duration leaseWait,
+                                double beta,
+                                Duration minDelta) {
+        this(redisTemplate, leaseTtl, leaseWait, beta, minDelta, null);
+    }
+
+    /**
+     * @param valueSerializer сериализатор значений RedisCache; без него {@link #fetch} не используется
+     */
+    public CacheLoadCoordinator(StringRedisTemplate redisTemplate,
+                                Duration leaseTtl,
+                                Duration leaseWait,
+                                double beta,
+                                Duration minDelta,
+                                RedisSerializer<Object> valueSerializer) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+        this.leaseWait = leaseWait;
+        this.beta = beta;
+        this.minDelta = minDelta;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * @return токен аренды или null, если ключ уже загружает другая реплика
+     */
+    public String tryAcquireLease(String cacheName, Object key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(CacheKeys.leaseKey(cacheName, key), token, leaseTtl);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (Exception e) {
+            log.warn("Failed to acquire cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return token;
+        }
+    }
+
+    public void releaseLease(String cacheName, Object key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(CacheKeys.leaseKey(cacheName, key)), token);
+        } catch (Exception e) {
+            // Аренда истечет сама
+            log.warn("Failed to release cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Держит ли кто-то аренду ключа. При ошибке Redis считаем, что нет: ожидающий сразу
+     * перейдет к собственной загрузке, а не простоит весь lease-wait
+     */
+    public boolean isLeaseHeld(String cacheName, Object key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(CacheKeys.leaseKey(cacheName, key)));
+        } catch (Exception e) {
+            log.debug("Failed to check cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return false;
+        }
+    }
+
+    public Duration getLeaseWait() {
+        return leaseWait;
+    }
+
+    /**
+     * Значение из Redis вместе с оставшимся TTL за один сетевой вызов (GET + PTTL конвейером)
+     * @return null, если сериализатор не задан или Redis недоступен - тогда значение читается обычным get
+     */
+    public RemoteEntry fetch(String cacheName, Object key) {
+        if (valueSerializer == null) {
+            return null;
+        }
+        byte[] rawKey = CacheKeys.redisKey(cacheName, key).getBytes(StandardCharsets.UTF_8);
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().get(rawKey);
+                connection.keyCommands().pTtl(rawKey);
+                return null;
+            }, valueSerializer);
+            if (results.size() != 2) {
+                return null;
+            }
+            long remainingMillis = results.get(1) instanceof Long ttl ? ttl : -1;
+            return new RemoteEntry(results.get(0), remainingMillis);
+        } catch (Exception e) {
+            log.debug("Failed to fetch {}::{} with TTL: {}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * XFetch: обновляем заранее, если delta * beta * -ln(rand) >= оставшегося TTL.
+     * delta - время загрузки, но не меньше minDelta: значение из Redis проверяется
+     * только при промахе L1, а не на каждом запросе
+     */
+    public boolean shouldRefreshEarly(RemoteEntry entry, Duration loadTime) {
+        long remainingMillis = entry.remainingMillis();
+        if (remainingMillis <= 0) {
+            return false;
+        }
+
+        long deltaMillis = Math.max(loadTime.toMillis(), minDelta.toMillis());
+        double gap = deltaMillis * beta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return gap >= remainingMillis;
+    }
+
+    /**
+     * @param remainingMillis оставшийся TTL; -1 - без TTL, -2 - ключа нет
+     */
+    public record RemoteEntry(Object value, long remainingMillis) {
+    }
+}
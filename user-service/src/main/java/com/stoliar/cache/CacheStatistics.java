@@ -0,0 +1,80 @@
+package com.stoliar.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики обращений к {@link TwoLevelCache}. Попадание считается отдельно по уровням,
+ * промах - когда значения нет ни в L1, ни в Redis
+ */
+public class CacheStatistics {
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    void recordLocalHit() {
+        localHits.increment();
+    }
+
+    void recordRemoteHit() {
+        remoteHits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordPut() {
+        puts.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordLoad(long nanos, boolean success) {
+        (success ? loadSuccesses : loadFailures).increment();
+        loadNanos.add(nanos);
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getHits() {
+        return getLocalHits() + getRemoteHits();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getLoadSuccesses() {
+        return loadSuccesses.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+}
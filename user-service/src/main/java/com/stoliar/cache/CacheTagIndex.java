@@ -0,0 +1,73 @@
+package com.stoliar.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Индекс ключей кэша по тегам в Redis: tag::{tag} -> множество "cacheName|key".
+ * Позволяет сбросить записи одного пользователя, не очищая кэш целиком.
+ * TTL множества продлевается при каждой записи и не меньше TTL самих записей
+ */
+@Slf4j
+public class CacheTagIndex {
+
+    private static final String MEMBER_SEPARATOR = "|";
+
+    // Чтение и удаление одним скриптом: запись, добавленная между SMEMBERS и DEL, иначе потеряется из индекса
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> POP_SCRIPT = new DefaultRedisScript<>("""
+            local members = redis.call('smembers', KEYS[1])
+            redis.call('del', KEYS[1])
+            return members
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public CacheTagIndex(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    public void add(String tag, String cacheName, Object key) {
+        String tagKey = CacheKeys.tagKey(tag);
+        String member = cacheName + MEMBER_SEPARATOR + key;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.sAdd(tagKey, member);
+                stringConnection.pExpire(tagKey, ttl.toMillis());
+                return null;
+            });
+        } catch (Exception e) {
+            // Запись без индекса все равно истечет по TTL
+            log.warn("Failed to index cache key {} under tag {}: {}", member, tag, e.getMessage());
+        }
+    }
+
+    /**
+     * Забирает и удаляет все записи тега
+     */
+    public Set<String> pop(String tag) {
+        String tagKey = CacheKeys.tagKey(tag);
+        @SuppressWarnings("unchecked")
+        List<String> members = redisTemplate.execute(POP_SCRIPT, List.of(tagKey));
+        return members != null ? new HashSet<>(members) : Set.of();
+    }
+
+    static String cacheName(String member) {
+        return member.substring(0, member.indexOf(MEMBER_SEPARATOR));
+    }
+
+    static String key(String member) {
+        return member.substring(member.indexOf(MEMBER_SEPARATOR) + 1);
+    }
+}
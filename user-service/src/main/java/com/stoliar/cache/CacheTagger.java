@@ -0,0 +1,14 @@
+package com.stoliar.cache;
+
+/**
+ * Определяет тег записи кэша (например, владельца-пользователя),
+ * по которому потом можно сбросить все связанные записи разом
+ */
+@FunctionalInterface
+public interface CacheTagger {
+
+    /**
+     * @return тег или null, если запись не нужно индексировать
+     */
+    String tagOf(Object key, Object value);
+}
@@ -0,0 +1,78 @@
+package com.stoliar.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.dto.UserDTO;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Типы, которые разрешено класть в Redis-кэш, с коротким идентификатором и версией схемы.
+ * Версию нужно поднимать при несовместимом изменении DTO: старые поды не станут
+ * читать значения новой схемы, а просто получат промах кэша
+ */
+public class CacheTypeRegistry {
+
+    static final String LIST_PREFIX = "list:";
+
+    private final Map<String, CacheType> byId = new HashMap<>();
+    private final Map<Class<?>, CacheType> byClass = new HashMap<>();
+
+    public static CacheTypeRegistry defaults() {
+        return new CacheTypeRegistry()
+                .register("user", UserDTO.class, 1)
+                .register("card", PaymentCardDTO.class, 1);
+    }
+
+    public CacheTypeRegistry register(String id, Class<?> type, int schemaVersion) {
+        CacheType cacheType = new CacheType(id, schemaVersion, TypeFactory.defaultInstance().constructType(type));
+        byId.put(id, cacheType);
+        byClass.put(type, cacheType);
+        return this;
+    }
+
+    /**
+     * Тип значения для записи. Списки кодируются как list:<id элемента>,
+     * пустой список - просто list:
+     */
+    public CacheType typeOf(Object value) {
+        if (value instanceof List<?> list) {
+            if (list.isEmpty()) {
+                return new CacheType(LIST_PREFIX, 1, TypeFactory.defaultInstance().constructType(List.class));
+            }
+            CacheType elementType = require(list.get(0).getClass());
+            return listOf(elementType);
+        }
+        return require(value.getClass());
+    }
+
+    public CacheType byId(String id) {
+        if (id.startsWith(LIST_PREFIX)) {
+            if (id.length() == LIST_PREFIX.length()) {
+                return new CacheType(LIST_PREFIX, 1, TypeFactory.defaultInstance().constructType(List.class));
+            }
+            CacheType elementType = byId.get(id.substring(LIST_PREFIX.length()));
+            return elementType != null ? listOf(elementType) : null;
+        }
+        return byId.get(id);
+    }
+
+    private CacheType listOf(CacheType elementType) {
+        return new CacheType(LIST_PREFIX + elementType.id(), elementType.schemaVersion(),
+                TypeFactory.defaultInstance().constructCollectionType(List.class, elementType.javaType()));
+    }
+
+    private CacheType require(Class<?> type) {
+        CacheType cacheType = byClass.get(type);
+        if (cacheType == null) {
+            throw new IllegalArgumentException("Type is not registered for Redis cache: " + type.getName());
+        }
+        return cacheType;
+    }
+
+    public record CacheType(String id, int schemaVersion, JavaType javaType) {
+    }
+}
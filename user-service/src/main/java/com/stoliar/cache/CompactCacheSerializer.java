@@ -0,0 +1,172 @@
+package com.stoliar.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Компактный сериализатор значений Redis-кэша вместо JdkSerializationRedisSerializer.
+ * <pre>
+ * [magic][format version][flags][type id length][type id][schema version][JSON, возможно deflate]
+ * </pre>
+ * Тип задается коротким id из {@link CacheTypeRegistry}, а не именем класса.
+ * Тело сжимается, если длиннее порога. Значение, которое этот под прочитать не может
+ * (чужой формат, неизвестный тип, более новая схема), считается промахом кэша
+ * и будет перезаписано, а не ломает запрос
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_DEFLATED = 0x01;
+    private static final int HEADER_SIZE = 5;
+
+    private final CacheTypeRegistry typeRegistry;
+    private final int compressionThreshold;
+    private final ObjectMapper objectMapper;
+
+    public CompactCacheSerializer(CacheTypeRegistry typeRegistry, int compressionThreshold) {
+        this.typeRegistry = typeRegistry;
+        this.compressionThreshold = compressionThreshold;
+        this.objectMapper = createObjectMapper();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        CacheTypeRegistry.CacheType type;
+        try {
+            type = typeRegistry.typeOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+        try {
+            byte[] body = objectMapper.writerFor(type.javaType()).writeValueAsBytes(value);
+            byte flags = 0;
+            if (body.length > compressionThreshold) {
+                body = deflate(body);
+                flags |= FLAG_DEFLATED;
+            }
+
+            byte[] typeId = type.id().getBytes(StandardCharsets.US_ASCII);
+            return ByteBuffer.allocate(HEADER_SIZE + typeId.length + body.length)
+                    .put(MAGIC)
+                    .put(FORMAT_VERSION)
+                    .put(flags)
+                    .put((byte) typeId.length)
+                    .put(typeId)
+                    .put((byte) type.schemaVersion())
+                    .put(body)
+                    .array();
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize cache value of type " + type.id(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC || bytes[1] > FORMAT_VERSION) {
+            log.debug("Skipping cache value in unknown format");
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+        byte flags = buffer.get();
+        byte[] typeId = new byte[buffer.get()];
+        buffer.get(typeId);
+        int schemaVersion = buffer.get();
+
+        CacheTypeRegistry.CacheType type = typeRegistry.byId(new String(typeId, StandardCharsets.US_ASCII));
+        if (type == null || schemaVersion > type.schemaVersion()) {
+            log.debug("Skipping cache value with unknown type or newer schema: {} v{}",
+                    new String(typeId, StandardCharsets.US_ASCII), schemaVersion);
+            return null;
+        }
+
+        byte[] body = new byte[buffer.remaining()];
+        buffer.get(body);
+        try {
+            if ((flags & FLAG_DEFLATED) != 0) {
+                body = inflate(body);
+            }
+            return objectMapper.readValue(body, type.javaType());
+        } catch (IOException | DataFormatException e) {
+            log.warn("Cannot deserialize cache value of type {}: {}", type.id(), e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] chunk = new byte[1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cache value");
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        // READ_ONLY в DTO относится к REST API; в кэше id, active и даты должны восстанавливаться
+        mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public JsonProperty.Access findPropertyAccess(Annotated annotated) {
+                return JsonProperty.Access.AUTO;
+            }
+        });
+        return mapper;
+    }
+}
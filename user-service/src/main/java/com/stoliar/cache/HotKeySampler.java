@@ -0,0 +1,90 @@
+package com.stoliar.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Самые частые ключи кэша по выборке обращений. Учитывается только доля обращений sampleRate,
+ * частоты считаются алгоритмом Space-Saving в пределах capacity счетчиков:
+ * при переполнении вытесняется самый редкий ключ, а новый наследует его счет как погрешность
+ */
+public class HotKeySampler {
+
+    private final double sampleRate;
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    public HotKeySampler(double sampleRate, int capacity) {
+        this.sampleRate = sampleRate;
+        this.capacity = capacity;
+    }
+
+    public static HotKeySampler disabled() {
+        return new HotKeySampler(0, 0);
+    }
+
+    public void record(String key) {
+        if (capacity <= 0 || sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        synchronized (counters) {
+            Counter counter = counters.get(key);
+            if (counter != null) {
+                counter.count++;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(key, new Counter(1, 0));
+                return;
+            }
+
+            Map.Entry<String, Counter> rarest = counters.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().count))
+                    .orElseThrow();
+            counters.remove(rarest.getKey());
+            long floor = rarest.getValue().count;
+            counters.put(key, new Counter(floor + 1, floor));
+        }
+    }
+
+    public List<HotKey> top(int limit) {
+        List<HotKey> hotKeys = new ArrayList<>();
+        synchronized (counters) {
+            counters.forEach((key, counter) -> hotKeys.add(new HotKey(key, counter.count, counter.error,
+                    Math.round(counter.count / sampleRate))));
+        }
+        hotKeys.sort(Comparator.comparingLong(HotKey::sampledHits).reversed());
+        return hotKeys.size() > limit ? hotKeys.subList(0, limit) : hotKeys;
+    }
+
+    public void reset() {
+        synchronized (counters) {
+            counters.clear();
+        }
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampledHits   обращений в выборке, завышено не более чем на error
+     * @param estimatedHits оценка всех обращений с учетом доли выборки
+     */
+    public record HotKey(String key, long sampledHits, long error, long estimatedHits) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.stoliar.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш из двух уровней: L1 в памяти процесса (Caffeine) перед общим Redis (L2).
+ * Чтение сначала идет в L1, промах заполняется из Redis. Любая запись идет в Redis,
+ * а остальным репликам рассылается инвалидация, чтобы они сбросили свой L1.
+ * Ключи L1 хранятся строками - так же, как их видит Redis и как они приходят в pub/sub.
+ * <p>
+ * Загрузка через {@link #get(Object, Callable)} (@Cacheable(sync = true)) защищена от лавины промахов:
+ * на реплике по ключу работает один загрузчик, остальные потоки ждут его результат,
+ * а между репликами загрузку разделяет аренда в Redis из {@link CacheLoadCoordinator}.
+ * <p>
+ * Обращения считаются в {@link CacheStatistics}, ключи выборочно учитываются в {@link HotKeySampler}
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final long LEASE_POLL_INTERVAL_MS = 50;
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadCoordinator coordinator;
+    private final CacheTagIndex tagIndex;
+    private final CacheTagger tagger;
+    private final HotKeySampler hotKeys;
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Скользящее среднее времени загрузки для раннего обновления
+    private final AtomicLong averageLoadNanos = new AtomicLong();
+
+    public TwoLevelCache(Cache remote,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         CacheInvalidationPublisher publisher,
+                         CacheLoadCoordinator coordinator,
+                         CacheTagIndex tagIndex,
+                         CacheTagger tagger) {
+        this(remote, local, publisher, coordinator, tagIndex, tagger, HotKeySampler.disabled());
+    }
+
+    public TwoLevelCache(Cache remote,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         CacheInvalidationPublisher publisher,
+                         CacheLoadCoordinator coordinator,
+                         CacheTagIndex tagIndex,
+                         CacheTagger tagger,
+                         HotKeySampler hotKeys) {
+        this.remote = remote;
+        this.local = local;
+        this.publisher = publisher;
+        this.coordinator = coordinator;
+        this.tagIndex = tagIndex;
+        this.tagger = tagger;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        hotKeys.record(localKey);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            statistics.recordLocalHit();
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            statistics.recordRemoteHit();
+            local.put(localKey, wrapper.get());
+        } else {
+            statistics.recordMiss();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        hotKeys.record(localKey);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            statistics.recordLocalHit();
+            return (T) value;
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, flight);
+        if (existing != null) {
+            // Ждет чужую загрузку, для вызывающего это промах
+            statistics.recordMiss();
+            return (T) await(existing);
+        }
+
+        try {
+            Object loaded = loadShared(key, valueLoader);
+            flight.complete(loaded);
+            return (T) loaded;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    private Object loadShared(Object key, Callable<?> valueLoader) {
+        // Значение и TTL для раннего обновления - одним походом в Redis
+        CacheLoadCoordinator.RemoteEntry entry = coordinator.fetch(getName(), key);
+        Object cached = entry != null ? entry.value() : valueOf(remote.get(key));
+        if (cached != null) {
+            statistics.recordRemoteHit();
+            if (entry == null || !coordinator.shouldRefreshEarly(entry, Duration.ofNanos(averageLoadNanos.get()))) {
+                return putLocal(key, cached);
+            }
+            String lease = coordinator.tryAcquireLease(getName(), key);
+            if (lease == null) {
+                // Уже обновляет другая реплика, текущее значение еще действительно
+                return putLocal(key, cached);
+            }
+            try {
+                return loadAndStore(key, valueLoader);
+            } finally {
+                coordinator.releaseLease(getName(), key, lease);
+            }
+        }
+
+        String lease = coordinator.tryAcquireLease(getName(), key);
+        if (lease == null) {
+            Object awaited = awaitRemote(key);
+            if (awaited != null) {
+                statistics.recordRemoteHit();
+                return putLocal(key, awaited);
+            }
+            // Владелец отпустил аренду без значения (ошибка загрузки) или ожидание вышло
+            lease = coordinator.tryAcquireLease(getName(), key);
+            if (lease == null) {
+                statistics.recordMiss();
+                return loadAndStore(key, valueLoader);
+            }
+        }
+        try {
+            // Пока ждали аренду, значение мог положить предыдущий владелец
+            Object stored = valueOf(remote.get(key));
+            if (stored != null) {
+                statistics.recordRemoteHit();
+                return putLocal(key, stored);
+            }
+            statistics.recordMiss();
+            return loadAndStore(key, valueLoader);
+        } finally {
+            coordinator.releaseLease(getName(), key, lease);
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            statistics.recordLoad(System.nanoTime() - start, false);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long elapsed = System.nanoTime() - start;
+        statistics.recordLoad(elapsed, true);
+        averageLoadNanos.getAndUpdate(average -> average == 0 ? elapsed : (average * 7 + elapsed) / 8);
+
+        if (value != null) {
+            remote.put(key, value);
+            statistics.recordPut();
+            local.put(localKey(key), value);
+            tag(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Ждет, пока владелец аренды загрузит значение. Опрашивается только ключ аренды:
+     * значение кладется в Redis до ее снятия, поэтому читается один раз, когда аренды уже нет
+     */
+    private Object awaitRemote(Object key) {
+        long deadline = System.nanoTime() + coordinator.getLeaseWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (!coordinator.isLeaseHeld(getName(), key)) {
+                return valueOf(remote.get(key));
+            }
+        }
+        return valueOf(remote.get(key));
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Object valueOf(ValueWrapper wrapper) {
+        return wrapper != null ? wrapper.get() : null;
+    }
+
+    private Object putLocal(Object key, Object value) {
+        local.put(localKey(key), value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        statistics.recordPut();
+        if (value != null) {
+            local.put(localKey(key), value);
+            tag(key, value);
+        } else {
+            local.invalidate(localKey(key));
+        }
+        publisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            statistics.recordPut();
+            publisher.publishEvict(getName(), key);
+        }
+        return existing;
+    }
+
+    /**
+     * Прогрев: кладет значение в Redis, только если там еще ничего нет, и заполняет L1 тем,
+     * что в итоге лежит в Redis. Инвалидация не рассылается - значение не меняет данные,
+     * а свежая запись другой реплики не перетирается снимком из БД
+     *
+     * @return true, если значение было записано в Redis
+     */
+    public boolean warm(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object current = existing != null && existing.get() != null ? existing.get() : value;
+        local.put(localKey(key), current);
+        if (existing == null) {
+            statistics.recordPut();
+            tag(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        statistics.recordEviction();
+        local.invalidate(localKey(key));
+        publisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        if (evicted) {
+            statistics.recordEviction();
+        }
+        local.invalidate(localKey(key));
+        publisher.publishEvict(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        publisher.publishClear(getName());
+        return invalidated;
+    }
+
+    private void tag(Object key, Object value) {
+        if (tagger == null) {
+            return;
+        }
+        String tag = tagger.tagOf(key, value);
+        if (tag != null) {
+            tagIndex.add(tag, getName(), key);
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    public HotKeySampler getHotKeys() {
+        return hotKeys;
+    }
+
+    public long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    Cache getRemote() {
+        return remote;
+    }
+
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,122 @@
+package com.stoliar.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Оборачивает кэши Redis-менеджера в {@link TwoLevelCache}.
+ * У каждого кэша свой L1 с ограничением по размеру и коротким TTL:
+ * если сообщение об инвалидации потеряется, реплика отдаст устаревшее значение не дольше TTL
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadCoordinator coordinator;
+    private final CacheTagIndex tagIndex;
+    private final Map<String, CacheTagger> taggers;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final double hotKeySampleRate;
+    private final int hotKeyCapacity;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationPublisher publisher,
+                                CacheLoadCoordinator coordinator,
+                                CacheTagIndex tagIndex,
+                                Map<String, CacheTagger> taggers,
+                                long localMaxSize,
+                                Duration localTtl) {
+        this(remoteCacheManager, publisher, coordinator, tagIndex, taggers, localMaxSize, localTtl, 0, 0);
+    }
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationPublisher publisher,
+                                CacheLoadCoordinator coordinator,
+                                CacheTagIndex tagIndex,
+                                Map<String, CacheTagger> taggers,
+                                long localMaxSize,
+                                Duration localTtl,
+                                double hotKeySampleRate,
+                                int hotKeyCapacity) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.publisher = publisher;
+        this.coordinator = coordinator;
+        this.tagIndex = tagIndex;
+        this.taggers = taggers;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.hotKeySampleRate = hotKeySampleRate;
+        this.hotKeyCapacity = hotKeyCapacity;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name,
+                cacheName -> new TwoLevelCache(remote, newLocalCache(), publisher, coordinator,
+                        tagIndex, taggers.get(cacheName), new HotKeySampler(hotKeySampleRate, hotKeyCapacity)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Сбрасывает все записи с тегом во всех уровнях и на всех репликах
+     */
+    public void evictTag(String tag) {
+        for (String member : tagIndex.pop(tag)) {
+            Cache cache = getCache(CacheTagIndex.cacheName(member));
+            if (cache != null) {
+                cache.evict(CacheTagIndex.key(member));
+            }
+        }
+    }
+
+    public void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+
+    public void clearLocal(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    public long getLocalMaxSize() {
+        return localMaxSize;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> newLocalCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.stoliar.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики {@link TwoLevelCache}: стандартные cache.gets/puts/evictions по кэшу в целом,
+ * cache.local.* по L1, cache.load* по загрузкам из БД. Статистика самого Redis-кэша
+ * публикуется под теми же именами с тегом cache.manager=redis
+ */
+public class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+
+    static final String REDIS_CACHE_MANAGER = "redis";
+
+    private final Iterable<Tag> tags;
+    private final CacheStatistics statistics;
+
+    public TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.tags = tags;
+        this.statistics = cache.getStatistics();
+    }
+
+    // Число записей в Redis без SCAN неизвестно, размер L1 публикуется отдельно
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        return statistics.getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return statistics.getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return statistics.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return statistics.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.local.gets", statistics, CacheStatistics::getLocalHits)
+                .tags(getTagsWithCacheName()).tag("result", "hit")
+                .description("The number of times the in-process level returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.local.gets", statistics, stats -> stats.getRemoteHits() + stats.getMisses())
+                .tags(getTagsWithCacheName()).tag("result", "miss")
+                .description("The number of times a lookup fell through to Redis")
+                .register(registry);
+
+        TwoLevelCache cache = getCache();
+        if (cache != null) {
+            Gauge.builder("cache.local.size", cache, TwoLevelCache::getLocalSize)
+                    .tags(getTagsWithCacheName())
+                    .description("The approximate number of entries in the in-process level")
+                    .register(registry);
+        }
+
+        FunctionCounter.builder("cache.load", statistics, CacheStatistics::getLoadSuccesses)
+                .tags(getTagsWithCacheName()).tag("result", "success")
+                .description("The number of times a missing value was loaded")
+                .register(registry);
+        FunctionCounter.builder("cache.load", statistics, CacheStatistics::getLoadFailures)
+                .tags(getTagsWithCacheName()).tag("result", "failure")
+                .description("The number of times loading a missing value failed")
+                .register(registry);
+        TimeGauge.builder("cache.load.duration", statistics, TimeUnit.NANOSECONDS, CacheStatistics::getLoadNanos)
+                .tags(getTagsWithCacheName())
+                .description("The total time spent loading missing values")
+                .register(registry);
+
+        if (cache != null && cache.getRemote() instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of(tags).and("cache.manager", REDIS_CACHE_MANAGER))
+                    .bindTo(registry);
+        }
+    }
+}
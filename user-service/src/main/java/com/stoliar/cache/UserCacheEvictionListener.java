@@ -0,0 +1,28 @@
+package com.stoliar.cache;
+
+import com.stoliar.event.UserDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * После удаления пользователя сбрасывает только его записи кэша (карты по тегу user:{id}),
+ * вместо очистки кэшей users и paymentCards целиком
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        log.debug("Evicting cache entries of deleted user {}", event.userId());
+        try {
+            cacheManager.evictTag(CacheKeys.userTag(event.userId()));
+        } catch (Exception e) {
+            // Пользователь уже удален; записи его карт истекут по TTL
+            log.warn("Failed to evict cache entries of user {}: {}", event.userId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.stoliar.config;
+
+import com.stoliar.cache.CacheInsightsEndpoint;
+import com.stoliar.cache.TwoLevelCache;
+import com.stoliar.cache.TwoLevelCacheManager;
+import com.stoliar.cache.TwoLevelCacheMetrics;
+import io.lettuce.core.metrics.MicrometerOptions;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!integration-test")
+public class CacheMetricsConfig {
+
+    // Spring Boot привязывает метрики к кэшам всех CacheManager, для TwoLevelCache нужен свой binder
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return TwoLevelCacheMetrics::new;
+    }
+
+    // Гистограммы задержек команд Lettuce (lettuce.command.completion / firstresponse с тегом command)
+    @Bean
+    public MicrometerOptions lettuceMicrometerOptions() {
+        return MicrometerOptions.builder()
+                .histogram(true)
+                .localDistinction(false)
+                .minLatency(Duration.ofMillis(1))
+                .maxLatency(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Bean
+    public CacheInsightsEndpoint cacheInsightsEndpoint(TwoLevelCacheManager cacheManager) {
+        return new CacheInsightsEndpoint(cacheManager);
+    }
+}
@@ -0,0 +1,29 @@
+package com.stoliar.config;
+
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class JwtConfig {
+
+    // Ключ и парсер создаются один раз на весь сервис
+    @Bean
+    public JwtVerifier jwtVerifier(JwtProperties jwtProperties) {
+        return new JwtVerifier(jwtProperties.getSecret());
+    }
+
+    // Личность, проверенная на gateway; выключено - каждый запрос проверяет JWT сам
+    @Bean
+    public GatewayIdentityResolver gatewayIdentityResolver(
+            @Value("${app.identity-propagation.enabled:false}") boolean enabled,
+            @Value("${app.identity-propagation.secret:}") String secret,
+            @Value("${app.identity-propagation.trusted-networks:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            List<String> trustedNetworks) {
+        return GatewayIdentityResolver.create(enabled, secret, trustedNetworks);
+    }
+}
@@ -1,5 +1,17 @@
 package com.stoliar.config;
 
+import com.stoliar.cache.CacheInvalidationListener;
+import com.stoliar.cache.CacheInvalidationPublisher;
+import com.stoliar.cache.CacheKeys;
+import com.stoliar.cache.CacheLoadCoordinator;
+import com.stoliar.cache.CacheTagIndex;
+import com.stoliar.cache.CacheTagger;
+import com.stoliar.cache.CacheTypeRegistry;
+import com.stoliar.cache.CompactCacheSerializer;
+import com.stoliar.cache.TwoLevelCacheManager;
+import com.stoliar.cache.UserCacheEvictionListener;
+import com.stoliar.dto.PaymentCardDTO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +19,9 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -20,15 +35,85 @@ import java.util.Map;
 public class RedisConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Используем JdkSerializationRedisSerializer вместо Jackson
+    public CompactCacheSerializer cacheValueSerializer(
+            @Value("${app.cache.compression-threshold:512}") int compressionThreshold) {
+        return new CompactCacheSerializer(CacheTypeRegistry.defaults(), compressionThreshold);
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${app.cache.invalidation-channel:user-service:cache-invalidation}") String channel) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, channel);
+    }
+
+    @Bean
+    public CacheLoadCoordinator cacheLoadCoordinator(
+            StringRedisTemplate stringRedisTemplate,
+            CompactCacheSerializer cacheValueSerializer,
+            @Value("${app.cache.stampede.lease-ttl:5s}") Duration leaseTtl,
+            @Value("${app.cache.stampede.lease-wait:2s}") Duration leaseWait,
+            @Value("${app.cache.stampede.early-refresh-beta:1.0}") double beta,
+            @Value("${app.cache.stampede.early-refresh-min-delta:10s}") Duration minDelta) {
+        return new CacheLoadCoordinator(stringRedisTemplate, leaseTtl, leaseWait, beta, minDelta, cacheValueSerializer);
+    }
+
+    @Bean
+    public CacheTagIndex cacheTagIndex(StringRedisTemplate stringRedisTemplate) {
+        // Не меньше самого длинного TTL кэша
+        return new CacheTagIndex(stringRedisTemplate, Duration.ofMinutes(60));
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             CompactCacheSerializer cacheValueSerializer,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             CacheLoadCoordinator cacheLoadCoordinator,
+                                             CacheTagIndex cacheTagIndex,
+                                             @Value("${app.cache.local.max-size:10000}") long localMaxSize,
+                                             @Value("${app.cache.local.ttl:30s}") Duration localTtl,
+                                             @Value("${app.cache.hot-keys.sample-rate:0.01}") double hotKeySampleRate,
+                                             @Value("${app.cache.hot-keys.capacity:200}") int hotKeyCapacity) {
+        // Карты индексируются по владельцу, чтобы при удалении пользователя сбросить только их
+        Map<String, CacheTagger> taggers = Map.of(
+                "paymentCards", (key, value) -> value instanceof PaymentCardDTO card && card.getUserId() != null
+                        ? CacheKeys.userTag(card.getUserId())
+                        : null
+        );
+
+        // L1 в памяти процесса перед Redis, чтобы горячие пользователи не стоили сетевого похода
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory, cacheValueSerializer),
+                cacheInvalidationPublisher, cacheLoadCoordinator, cacheTagIndex, taggers, localMaxSize, localTtl,
+                hotKeySampleRate, hotKeyCapacity);
+    }
+
+    @Bean
+    public UserCacheEvictionListener userCacheEvictionListener(TwoLevelCacheManager cacheManager) {
+        return new UserCacheEvictionListener(cacheManager);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoLevelCacheManager cacheManager,
+            CacheInvalidationPublisher cacheInvalidationPublisher,
+            @Value("${app.cache.invalidation-channel:user-service:cache-invalidation}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                new CacheInvalidationListener(cacheManager, cacheInvalidationPublisher.getInstanceId()),
+                new ChannelTopic(channel));
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                                CompactCacheSerializer cacheValueSerializer) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
                 .disableCachingNullValues()
+                .computePrefixWith(CacheKeys::prefix)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
-                        new org.springframework.data.redis.serializer.JdkSerializationRedisSerializer()
-                ));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer));
 
         // Конфигурация для конкретных кэшей
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
@@ -39,9 +124,15 @@ public class RedisConfig {
         // Кэш карт - меньше живет
         cacheConfigurations.put("paymentCards", defaultConfig.entryTtl(Duration.ofMinutes(30)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Списки карт пользователя - сбрасываются при любом изменении его карт
+        cacheConfigurations.put("userCards", defaultConfig.entryTtl(Duration.ofMinutes(30)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics()
                 .build();
+        redisCacheManager.initializeCaches();
+        return redisCacheManager;
     }
 }
\ No newline at end of file
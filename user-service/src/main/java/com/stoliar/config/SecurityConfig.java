@@ -27,6 +27,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Горячие ключи кэша - это идентификаторы пользователей
+                        .requestMatchers("/actuator/cacheinsights/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers(
                                 "/api/v1/users/internal/**",
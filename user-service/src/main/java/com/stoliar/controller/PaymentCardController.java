@@ -1,10 +1,12 @@
 package com.stoliar.controller;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.response.ApiResponse;
 import com.stoliar.service.PaymentCardService;
+import com.stoliar.util.IndexedSort;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,7 +17,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,6 +24,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/users/{userId}/payment-cards")
@@ -32,6 +34,9 @@ import java.util.List;
 @Tag(name = "Payment Card Management", description = "APIs for managing user payment cards")
 public class PaymentCardController {
 
+    // Поля с индексом в payment_cards
+    private static final Set<String> SORT_FIELDS = Set.of("createdAt", "id", "number", "expirationDate");
+
     private final PaymentCardService paymentCardService;
 
     @Operation(summary = "Create payment card", description = "Create a new payment card for user")
@@ -99,11 +104,29 @@ public class PaymentCardController {
 
         log.info("Fetching paginated cards for user id: {}, page: {}, size: {}, sort: {}", userId, page, size, sort);
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
+        Pageable pageable = PageRequest.of(page, size, IndexedSort.by(sort, SORT_FIELDS));
         Page<PaymentCardDTO> cardsPage = paymentCardService.getAllCardsByUserId(userId, pageable);
         return ResponseEntity.ok(ApiResponse.success(cardsPage, "Paginated cards retrieved successfully"));
     }
 
+    @Operation(summary = "Scroll user cards", description = "Retrieve user cards ordered by creation time using a cursor")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Cards retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal")
+    public ResponseEntity<ApiResponse<CursorPage<PaymentCardDTO>>> scrollCards(
+            @Parameter(description = "User ID", required = true) @PathVariable Long userId,
+            @Parameter(description = "Cursor from the previous page (empty for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 100)") @RequestParam(defaultValue = "100") int size,
+            @Parameter(description = "Include total count (default: false)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("Scrolling cards for user id: {}, cursor: {}, size: {}", userId, cursor, size);
+        CursorPage<PaymentCardDTO> cards = paymentCardService.getCardsByUserIdAfter(userId, cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(cards, "Cards retrieved successfully"));
+    }
+
     @Operation(summary = "Update payment card", description = "Update an existing payment card")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment card updated successfully"),
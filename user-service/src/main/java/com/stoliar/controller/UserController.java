@@ -1,9 +1,11 @@
 package com.stoliar.controller;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
 import com.stoliar.response.ApiResponse;
 import com.stoliar.service.UserService;
+import com.stoliar.util.IndexedSort;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -16,13 +18,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/v1/users")
 @Validated
@@ -31,6 +34,9 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "User Management", description = "APIs for managing users")
 public class UserController {
 
+    // Поля с индексом в users: created_at (idx_users_created_at_id), id, email (uk_users_email)
+    private static final Set<String> SORT_FIELDS = Set.of("createdAt", "id", "email");
+
     private final UserService userService;
 
     @Value("${api.gateway.internal-token}")
@@ -79,11 +85,28 @@ public class UserController {
             @Parameter(description = "Sort by field (default: createdAt)") @RequestParam(defaultValue = "createdAt") String sort) {
 
         log.info("Fetching all users - page: {}, size: {}, sort: {}", page, size, sort);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
+        Pageable pageable = PageRequest.of(page, size, IndexedSort.by(sort, SORT_FIELDS));
         Page<UserDTO> users = userService.getAllUsers(pageable);
         return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
     }
 
+    @Operation(summary = "Scroll users", description = "Retrieve users ordered by creation time using a cursor (ADMIN only)")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<UserDTO>>> scrollUsers(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 100)") @RequestParam(defaultValue = "100") int size,
+            @Parameter(description = "Include total count (default: false)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("Scrolling users - cursor: {}, size: {}", cursor, size);
+        CursorPage<UserDTO> users = userService.getUsersAfter(cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
+    }
+
     @Operation(summary = "Get users with filters", description = "Retrieve filtered and paginated list of users (ADMIN only)")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Filtered users retrieved successfully")
@@ -0,0 +1,48 @@
+package com.stoliar.controller;
+
+import com.stoliar.dto.ImportReportDTO;
+import com.stoliar.response.ApiResponse;
+import com.stoliar.service.UserImportService;
+import com.stoliar.service.importing.ImportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/users/import")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "User Import", description = "APIs for bulk user and payment card import")
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    @Operation(summary = "Import users and cards",
+            description = "Stream a CSV (text/csv) or NDJSON (application/x-ndjson) file of users and cards (ADMIN only). "
+                    + "Each row has type 'user' (email, name, surname, birthDate) or 'card' "
+                    + "(email of the owner, number, holder, expirationDate)")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Import completed, rejected rows are listed in the report"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "415", description = "Unsupported content type")
+    })
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ImportReportDTO>> importUsers(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        log.info("Importing users, format: {}", format);
+
+        // Тело читается потоком прямо из запроса, без буферизации файла
+        ImportReportDTO report = userImportService.importUsers(request.getInputStream(), format);
+        return ResponseEntity.ok(ApiResponse.success(report, "Import completed"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.stoliar.util.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    // Курсор следующей страницы, null на последней
+    private String nextCursor;
+    private boolean hasNext;
+    // Считается только по запросу: COUNT по всей таблице дороже самой страницы
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    // rows выбираются с запасом в одну строку: лишняя строка означает, что есть следующая страница
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, KeysetCursor> position,
+                                          Function<E, T> mapper,
+                                          Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? position.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor, hasNext, totalElements);
+    }
+}
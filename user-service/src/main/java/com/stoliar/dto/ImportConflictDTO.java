@@ -0,0 +1,17 @@
+package com.stoliar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportConflictDTO {
+    // Номер строки во входном файле (для CSV заголовок - строка 1)
+    private long line;
+    private String reason;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.stoliar.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReportDTO {
+    private long totalRows;
+    private long insertedUsers;
+    private long insertedCards;
+    private long rejectedRows;
+    // В отчет попадают только первые конфликты, остальные учитываются в rejectedRows
+    private boolean conflictsTruncated;
+    private List<ImportConflictDTO> conflicts = new ArrayList<>();
+}
@@ -14,7 +14,8 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "payment_cards", indexes = {
     @Index(name = "idx_card_number", columnList = "number"),
-    @Index(name = "idx_card_expiration_date", columnList = "expiration_date")
+    @Index(name = "idx_card_expiration_date", columnList = "expiration_date"),
+    @Index(name = "idx_payment_cards_user_created_at_id", columnList = "user_id, created_at, id")
     },
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_payment_cards_number", columnNames = "number")
@@ -0,0 +1,39 @@
+package com.stoliar.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Обработанное событие регистрации. По eventId повторная доставка не создает второй профиль,
+ * а сохраненный результат отправляется в auth-service еще раз
+ */
+@Entity
+@Table(name = "processed_registrations")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessedRegistration {
+
+    @Id
+    @Column(name = "event_id", length = 36)
+    private String eventId;
+
+    @Column(name = "credentials_id", nullable = false)
+    private Long credentialsId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
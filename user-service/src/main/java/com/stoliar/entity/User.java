@@ -8,6 +8,7 @@ import jakarta.validation.constraints.Past;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,8 +16,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "users", indexes = {
-    @Index(name = "idx_user_created_at", columnList = "created_at")
-})
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_users_updated_at", columnList = "updated_at")
+},
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+        })
 @Getter
 @Setter
 @ToString(exclude = "paymentCards")
@@ -41,12 +46,17 @@ public class User extends AuditableEntity {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(name = "email", nullable = false, unique = true, length = 255)
+    @Column(name = "email", nullable = false, length = 255)
     private String email;
 
     @Column(name = "active", nullable = false)
     private Boolean active = true;
 
+    // Поддерживается триггером на payment_cards, приложение его не пишет
+    @ColumnDefault("0")
+    @Column(name = "active_card_count", nullable = false, insertable = false, updatable = false)
+    private int activeCardCount;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PaymentCard> paymentCards = new ArrayList<>();
 }
\ No newline at end of file
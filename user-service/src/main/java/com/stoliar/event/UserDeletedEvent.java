@@ -0,0 +1,7 @@
+package com.stoliar.event;
+
+/**
+ * Публикуется при удалении пользователя; обрабатывается после коммита транзакции
+ */
+public record UserDeletedEvent(Long userId) {
+}
@@ -1,7 +1,11 @@
 package com.stoliar.filter;
 
 import com.stoliar.entity.Role;
-import com.stoliar.util.JwtTokenProvider;
+import com.stoliar.security.BearerTokens;
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.IdentityHeader;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtVerifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,19 +29,18 @@ import java.util.Collections;
 @Profile("!integration-test")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtVerifier jwtVerifier;
+    private final GatewayIdentityResolver gatewayIdentityResolver;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            String token = getTokenFromRequest(request);
-
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-                Role role = jwtTokenProvider.getRoleFromToken(token);
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            JwtClaims claims = resolveClaims(request);
+            if (claims != null) {
+                Role role = Role.valueOf(claims.role());
+                Long userId = claims.userId();
 
                 var authorities = Collections.singletonList(
                         new SimpleGrantedAuthority("ROLE_" + role.name())
@@ -47,9 +50,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 var authentication = new UsernamePasswordAuthenticationToken(
                         userId, null, authorities
                 );
+                authentication.setDetails(claims);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Authenticated user: {} with role: {} and userId: {}", username, role, userId);
+                log.debug("Authenticated user: {} with role: {} and userId: {}", claims.subject(), role, userId);
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication", e);
@@ -59,21 +64,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    // Сначала личность от gateway (один HMAC), иначе полная проверка JWT - токен разбирается один раз
+    private JwtClaims resolveClaims(HttpServletRequest request) {
+        JwtClaims claims = gatewayIdentityResolver.resolve(
+                request.getHeader(IdentityHeader.NAME), request.getRemoteAddr());
+        if (claims != null) {
+            return claims;
         }
-        return null;
+        String token = BearerTokens.resolve(request.getHeader("Authorization"));
+        return StringUtils.hasText(token) ? jwtVerifier.verify(token) : null;
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        // Пропускаем внутренние эндпоинты и health checks
+        // Пропускаем внутренние эндпоинты и health checks.
+        // /actuator/cacheinsights доступен только ADMIN, поэтому токен для него проверяется
         String path = request.getRequestURI();
+        if (path.startsWith("/actuator/cacheinsights")) {
+            return false;
+        }
         return path.startsWith("/api/v1/users/internal/") ||
                 path.startsWith("/actuator/") ||
                 path.startsWith("/swagger-ui") ||
                 path.startsWith("/v3/api-docs");
     }
-}
\ No newline at end of file
+}
@@ -2,18 +2,27 @@ package com.stoliar.repository;
 
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PaymentCardRepository extends JpaRepository<PaymentCard, Long>, JpaSpecificationExecutor<PaymentCard> {
@@ -29,14 +38,56 @@ public interface PaymentCardRepository extends JpaRepository<PaymentCard, Long>,
                            @Param("holder") String holder,
                            @Param("expirationDate") LocalDate expirationDate);
 
+    // Создание карты одним запросом: блокирует строку пользователя и проверяет активность и лимит карт
+    // по счетчику active_card_count. Пустой результат - пользователь не найден, неактивен или лимит исчерпан
+    @Query(value = """
+    WITH owner AS (
+        UPDATE users SET active_card_count = active_card_count
+        WHERE id = :userId AND active = true AND active_card_count < :maxActiveCards
+        RETURNING id
+    )
+    INSERT INTO payment_cards (user_id, number, holder, expiration_date, active, created_at, updated_at)
+    SELECT id, :number, :holder, :expirationDate, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM owner
+    RETURNING *
+    """, nativeQuery = true)
+    PaymentCard createCardForActiveUser(@Param("userId") Long userId,
+                                        @Param("number") String number,
+                                        @Param("holder") String holder,
+                                        @Param("expirationDate") LocalDate expirationDate,
+                                        @Param("maxActiveCards") int maxActiveCards);
+
     // NAMED METHODS
     Optional<PaymentCard> findByNumber(String number);
 
     @Query("SELECT pc FROM PaymentCard pc WHERE pc.user.id = :userId")
     List<PaymentCard> findAllByUserId(@Param("userId") Long userId);
 
+    @Query("SELECT pc FROM PaymentCard pc WHERE pc.user.id IN :userIds")
+    List<PaymentCard> findAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
     Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable);
 
+    // KEYSET PAGINATION по индексу idx_payment_cards_user_created_at_id
+    @Query("SELECT pc FROM PaymentCard pc WHERE pc.user.id = :userId ORDER BY pc.createdAt, pc.id")
+    List<PaymentCard> findKeysetFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+    SELECT pc FROM PaymentCard pc
+    WHERE pc.user.id = :userId AND (pc.createdAt, pc.id) > (:createdAt, :id)
+    ORDER BY pc.createdAt, pc.id
+    """)
+    List<PaymentCard> findKeysetPageByUserIdAfter(@Param("userId") Long userId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
+    long countByUserId(Long userId);
+
+    // Потоковое чтение для построения фильтра уникальности, требует открытой транзакции
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT pc.number FROM PaymentCard pc")
+    Stream<String> streamAllNumbers();
+
     // SPECIFICATION METHODS
     Page<PaymentCard> findAll(Specification<PaymentCard> spec, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.ProcessedRegistration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProcessedRegistrationRepository extends JpaRepository<ProcessedRegistration, String> {
+
+    // Повторная регистрация в auth-service сохраняет credentialsId, но отправляет новое событие
+    Optional<ProcessedRegistration> findFirstByCredentialsIdAndStatus(Long credentialsId, String status);
+}
@@ -1,20 +1,30 @@
 package com.stoliar.repository;
 
 import com.stoliar.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserSearchRepository {
 
     // NATIVE SQL QUERY WITH RETURNING
     @Query(value = """
@@ -39,6 +49,24 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     // SPECIFICATION METHODS
     Page<User> findAll(Specification<User> spec, Pageable pageable);
 
+    // KEYSET PAGINATION по индексу idx_users_created_at_id
+    @Query("SELECT u FROM User u ORDER BY u.createdAt, u.id")
+    List<User> findKeysetFirstPage(Limit limit);
+
+    @Query("SELECT u FROM User u WHERE (u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt, u.id")
+    List<User> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Limit limit);
+
+    // Недавно измененные пользователи для прогрева кэша, по индексу idx_users_updated_at
+    @Query("SELECT u.id FROM User u WHERE u.updatedAt IS NOT NULL ORDER BY u.updatedAt DESC")
+    List<Long> findRecentlyUpdatedIds(Limit limit);
+
     @Query("SELECT u.id FROM User u WHERE u.email = :email")
     Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Потоковое чтение для построения фильтра уникальности, требует открытой транзакции
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface UserSearchRepository {
+
+    /**
+     * Страница поиска в пределах первых maxResults совпадений.
+     * Вместо полного COUNT по всем совпадениям итог считается с LIMIT maxResults,
+     * а для неполной страницы не считается вовсе
+     */
+    Page<User> findAllCapped(Specification<User> spec, Pageable pageable, int maxResults);
+}
@@ -0,0 +1,69 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<User> findAllCapped(Specification<User> spec, Pageable pageable, int maxResults) {
+        if (pageable.getOffset() >= maxResults) {
+            return Page.empty(pageable);
+        }
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = criteriaBuilder.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+        query.select(root);
+        applyPredicate(spec, root, query, criteriaBuilder);
+        // Явная сортировка страницы заменяет ранжирование из спецификации, как в findAll(spec, pageable)
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        // Последняя страница обрезается по границе выдачи
+        List<User> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults((int) Math.min(pageable.getPageSize(), maxResults - pageable.getOffset()))
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCapped(spec, maxResults));
+    }
+
+    // Не больше maxResults идентификаторов: подсчет останавливается на границе выдачи
+    private long countCapped(Specification<User> spec, int maxResults) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        query.select(root.get("id"));
+        applyPredicate(spec, root, query, criteriaBuilder);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(maxResults)
+                .getResultList()
+                .size();
+    }
+
+    private static void applyPredicate(Specification<User> spec, Root<User> root, CriteriaQuery<?> query,
+                                       CriteriaBuilder criteriaBuilder) {
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
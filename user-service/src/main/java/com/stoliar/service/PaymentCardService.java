@@ -1,5 +1,6 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import org.springframework.data.domain.Page;
@@ -12,6 +13,7 @@ public interface PaymentCardService {
     PaymentCardDTO getCardById(Long cardId);
     List<PaymentCardDTO> getAllCardsByUserId(Long userId);
     Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable);
+    CursorPage<PaymentCardDTO> getCardsByUserIdAfter(Long userId, String cursor, int size, boolean includeTotal);
     Page<PaymentCardDTO> getAllCards(Pageable pageable);
     PaymentCardDTO updateCard(Long cardId, PaymentCardDTO paymentCardDTO);
     PaymentCardDTO updateCardStatus(Long id, boolean active);
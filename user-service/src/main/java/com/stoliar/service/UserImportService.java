@@ -0,0 +1,10 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.ImportReportDTO;
+import com.stoliar.service.importing.ImportFormat;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportReportDTO importUsers(InputStream input, ImportFormat format);
+}
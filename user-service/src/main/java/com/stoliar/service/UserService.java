@@ -1,5 +1,6 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
 import org.springframework.data.domain.Page;
@@ -9,6 +10,7 @@ public interface UserService {
     UserDTO createUser(UserCreateDTO userCreateDTO);
     UserDTO getUserById(Long id);
     Page<UserDTO> getAllUsers(Pageable pageable);
+    CursorPage<UserDTO> getUsersAfter(String cursor, int size, boolean includeTotal);
     UserDTO updateUser(Long id, UserDTO userDTO);
     UserDTO updateUserStatus(Long id, boolean active);
     void deleteUser(Long id);
@@ -1,5 +1,6 @@
 package com.stoliar.service.impl;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
@@ -11,70 +12,119 @@ import com.stoliar.mapper.PaymentCardMapper;
 import com.stoliar.repository.PaymentCardRepository;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.PaymentCardService;
+import com.stoliar.service.precheck.UniquenessPrecheck;
 import com.stoliar.specification.PaymentCardSpecifications;
+import com.stoliar.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentCardServiceImpl implements PaymentCardService {
 
+    public static final int MAX_ACTIVE_CARDS = 5;
+    private static final String CARD_NUMBER_CONSTRAINT = "uk_payment_cards_number";
+
+    // Поля, по которым страницу карт пользователя можно отсортировать в памяти
+    private static final Map<String, Comparator<PaymentCardDTO>> SORTABLE_FIELDS = Map.of(
+            "id", nullsLast(PaymentCardDTO::getId),
+            "number", nullsLast(PaymentCardDTO::getNumber),
+            "holder", nullsLast(PaymentCardDTO::getHolder),
+            "expirationDate", nullsLast(PaymentCardDTO::getExpirationDate),
+            "active", nullsLast(PaymentCardDTO::getActive),
+            "createdAt", nullsLast(PaymentCardDTO::getCreatedAt),
+            "updatedAt", nullsLast(PaymentCardDTO::getUpdatedAt)
+    );
+
     private final PaymentCardRepository paymentCardRepository;
     private final UserRepository userRepository;
     private final PaymentCardMapper paymentCardMapper;
+    private final UniquenessPrecheck uniquenessPrecheck;
+
+    // Вызов через прокси, чтобы постраничный запрос читал список карт из кэша
+    @Lazy
+    @Autowired
+    private PaymentCardService self;
 
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#result.id")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#result.id"),
+            evict = @CacheEvict(value = "userCards", key = "#userId")
+    )
     public PaymentCardDTO createPaymentCard(Long userId, PaymentCardCreateDTO paymentCardCreateDTO) {
         log.info("Creating payment card for user id: {}", userId);
 
-        // Проверка наличия пользователя и его активности
-        User user = userRepository.findUserById(userId);
-        if (user == null) {
-            throw new EntityNotFoundException("User not found with id: " + userId);
+        // Проверка пользователя, лимита карт и вставка - один атомарный запрос
+        PaymentCard createdCard;
+        try {
+            createdCard = paymentCardRepository.createCardForActiveUser(
+                    userId,
+                    paymentCardCreateDTO.getNumber(),
+                    paymentCardCreateDTO.getHolder(),
+                    paymentCardCreateDTO.getExpirationDate(),
+                    MAX_ACTIVE_CARDS
+            );
+        } catch (DataIntegrityViolationException e) {
+            if (isViolationOf(e, CARD_NUMBER_CONSTRAINT)) {
+                throw new DuplicateResourceException("Card with number " + paymentCardCreateDTO.getNumber() + " already exists");
+            }
+            throw e;
         }
 
-        if (!user.getActive()) {
-            throw new BusinessRuleException("Cannot add card to inactive user");
+        if (createdCard == null) {
+            throw rejectionReason(userId);
         }
+        uniquenessPrecheck.recordCardNumber(createdCard.getNumber());
 
-        // Проверка лимита карт
-        int currentCardCount = userRepository.countActiveCardsByUserId(userId);
-        if (currentCardCount >= 5) {
-            throw new BusinessRuleException("User cannot have more than 5 active cards. Current count: " + currentCardCount);
+        return paymentCardMapper.toDTO(createdCard);
+    }
+
+    // Выясняем причину отказа - только на редком пути ошибки
+    private RuntimeException rejectionReason(Long userId) {
+        User user = userRepository.findUserById(userId);
+        if (user == null) {
+            return new EntityNotFoundException("User not found with id: " + userId);
         }
 
-        // Проверка уникального номера карты
-        if (paymentCardRepository.findByNumber(paymentCardCreateDTO.getNumber()).isPresent()) {
-            throw new DuplicateResourceException("Card with number " + paymentCardCreateDTO.getNumber() + " already exists");
+        if (!user.getActive()) {
+            return new BusinessRuleException("Cannot add card to inactive user");
         }
 
-        PaymentCard createdCard = paymentCardRepository.createCard(
-                userId,
-                paymentCardCreateDTO.getNumber(),
-                paymentCardCreateDTO.getHolder(),
-                paymentCardCreateDTO.getExpirationDate()
-        );
+        int currentCardCount = userRepository.countActiveCardsByUserId(userId);
+        return new BusinessRuleException("User cannot have more than " + MAX_ACTIVE_CARDS
+                + " active cards. Current count: " + currentCardCount);
+    }
 
-        return paymentCardMapper.toDTO(createdCard);
+    private static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(constraintName);
     }
 
     @Override
     @Transactional
-    @Cacheable(value = "paymentCards", key = "#cardId")
+    @Cacheable(value = "paymentCards", key = "#cardId", sync = true)
     public PaymentCardDTO getCardById(Long cardId) {
         log.info("Fetching card by id: {}", cardId);
         PaymentCard card = paymentCardRepository.findById(cardId)
@@ -84,6 +134,7 @@ public class PaymentCardServiceImpl implements PaymentCardService {
 
     @Override
     @Transactional
+    @Cacheable(value = "userCards", key = "#userId", sync = true)
     public List<PaymentCardDTO> getAllCardsByUserId(Long userId) {
         log.info("Fetching all cards for user id: {}", userId);
         List<PaymentCard> cards = paymentCardRepository.findAllByUserId(userId);
@@ -94,6 +145,12 @@ public class PaymentCardServiceImpl implements PaymentCardService {
     @Transactional
     public Page<PaymentCardDTO> getAllCardsByUserId(Long userId, Pageable pageable) {
         log.info("Fetching paginated cards for user id: {}", userId);
+
+        // У пользователя немного карт: страницу собираем из закэшированного списка
+        if (self != null && isSortableInMemory(pageable.getSort())) {
+            return toPage(self.getAllCardsByUserId(userId), pageable);
+        }
+
         Specification<PaymentCard> spec = (root, query, cb) ->
                 cb.equal(root.get("user").get("id"), userId);
 
@@ -101,6 +158,28 @@ public class PaymentCardServiceImpl implements PaymentCardService {
         return cardsPage.map(paymentCardMapper::toDTO);
     }
 
+    @Override
+    @Transactional
+    public CursorPage<PaymentCardDTO> getCardsByUserIdAfter(Long userId, String cursor, int size, boolean includeTotal) {
+        log.info("Fetching cards for user id: {} after cursor: {}, size: {}", userId, cursor, size);
+        KeysetCursor.checkPageSize(size);
+
+        Limit limit = Limit.of(size + 1);
+        List<PaymentCard> cards;
+        if (cursor == null || cursor.isBlank()) {
+            cards = paymentCardRepository.findKeysetFirstPageByUserId(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            cards = paymentCardRepository.findKeysetPageByUserIdAfter(userId, after.createdAt(), after.id(), limit);
+        }
+
+        Long total = includeTotal ? paymentCardRepository.countByUserId(userId) : null;
+        return CursorPage.of(cards, size,
+                card -> new KeysetCursor(card.getCreatedAt(), card.getId()),
+                paymentCardMapper::toDTO,
+                total);
+    }
+
     @Override
     @Transactional
     public Page<PaymentCardDTO> getAllCards(Pageable pageable) {
@@ -113,7 +192,10 @@ public class PaymentCardServiceImpl implements PaymentCardService {
 
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#cardId")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#cardId"),
+            evict = @CacheEvict(value = "userCards", key = "#result.userId")
+    )
     public PaymentCardDTO updateCard(Long cardId, PaymentCardDTO paymentCardDTO) {
         log.info("Updating card with id: {}", cardId);
 
@@ -121,7 +203,9 @@ public class PaymentCardServiceImpl implements PaymentCardService {
                 .orElseThrow(() -> new EntityNotFoundException("Card not found with id: " + cardId));
 
         // Проверка уникальности номера карты
-        if (!existingCard.getNumber().equals(paymentCardDTO.getNumber()) &&
+        boolean numberChanged = !existingCard.getNumber().equals(paymentCardDTO.getNumber());
+        if (numberChanged &&
+                !uniquenessPrecheck.isCardNumberDefinitelyAbsent(paymentCardDTO.getNumber()) &&
                 paymentCardRepository.findByNumber(paymentCardDTO.getNumber()).isPresent()) {
             throw new DuplicateResourceException("Card with number " + paymentCardDTO.getNumber() + " already exists");
         }
@@ -131,13 +215,28 @@ public class PaymentCardServiceImpl implements PaymentCardService {
         existingCard.setExpirationDate(paymentCardDTO.getExpirationDate());
 
         PaymentCard updatedCard = paymentCardRepository.save(existingCard);
+        if (numberChanged) {
+            // Нарушение уникальности должно проявиться здесь, а не при коммите
+            try {
+                paymentCardRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                if (isViolationOf(e, CARD_NUMBER_CONSTRAINT)) {
+                    throw new DuplicateResourceException("Card with number " + paymentCardDTO.getNumber() + " already exists");
+                }
+                throw e;
+            }
+            uniquenessPrecheck.recordCardNumber(paymentCardDTO.getNumber());
+        }
 
         return paymentCardMapper.toDTO(updatedCard);
     }
 
     @Override
     @Transactional
-    @CachePut(value = "paymentCards", key = "#cardId")
+    @Caching(
+            put = @CachePut(value = "paymentCards", key = "#cardId"),
+            evict = @CacheEvict(value = "userCards", key = "#result.userId")
+    )
     public PaymentCardDTO updateCardStatus(Long cardId, boolean active) {
         log.info("Updating card status: {}", active);
 
@@ -154,7 +253,8 @@ public class PaymentCardServiceImpl implements PaymentCardService {
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = "paymentCards", key = "#cardId"),
-            @CacheEvict(value = "users", key = "#userId")
+            @CacheEvict(value = "users", key = "#userId"),
+            @CacheEvict(value = "userCards", key = "#userId")
     })
     public void deleteCard(Long userId, Long cardId) {
         log.info("Deleting card with id: {}", cardId);
@@ -168,4 +268,33 @@ public class PaymentCardServiceImpl implements PaymentCardService {
 
         paymentCardRepository.delete(card);
     }
+
+    private static boolean isSortableInMemory(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE_FIELDS.containsKey(order.getProperty()));
+    }
+
+    private static Page<PaymentCardDTO> toPage(List<PaymentCardDTO> cards, Pageable pageable) {
+        Comparator<PaymentCardDTO> comparator = null;
+        for (Sort.Order order : pageable.getSort()) {
+            Comparator<PaymentCardDTO> byField = SORTABLE_FIELDS.get(order.getProperty());
+            if (order.isDescending()) {
+                byField = byField.reversed();
+            }
+            comparator = comparator == null ? byField : comparator.thenComparing(byField);
+        }
+
+        List<PaymentCardDTO> sorted = comparator == null ? cards : cards.stream().sorted(comparator).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted, pageable, sorted.size());
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<PaymentCardDTO> nullsLast(
+            Function<PaymentCardDTO, T> field) {
+        return Comparator.comparing(field, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.stoliar.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoliar.dto.ImportConflictDTO;
+import com.stoliar.dto.ImportReportDTO;
+import com.stoliar.service.UserImportService;
+import com.stoliar.service.importing.CsvImportRecordReader;
+import com.stoliar.service.importing.ImportFormat;
+import com.stoliar.service.importing.ImportRecord;
+import com.stoliar.service.importing.ImportRecordReader;
+import com.stoliar.service.importing.ImportRow;
+import com.stoliar.service.importing.ImportRowValidator;
+import com.stoliar.service.importing.NdjsonImportRecordReader;
+import com.stoliar.service.importing.StagingCopyWriter;
+import com.stoliar.service.precheck.UniquenessPrecheck;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    static final int MAX_REPORTED_CONFLICTS = 1000;
+    static final String INVALID_ROW = "INVALID_ROW";
+
+    private static final int RESULT_FETCH_SIZE = 1000;
+
+    // Временная таблица живет до конца транзакции импорта, параллельные импорты не пересекаются
+    private static final String CREATE_STAGING_SQL = """
+    CREATE TEMP TABLE import_rows (
+        line_no BIGINT NOT NULL,
+        kind CHAR(1) NOT NULL,
+        email VARCHAR(255) NOT NULL,
+        name VARCHAR(100),
+        surname VARCHAR(100),
+        birth_date DATE,
+        number VARCHAR(19),
+        holder VARCHAR(100),
+        expiration_date DATE
+    ) ON COMMIT DROP
+    """;
+
+    // Один запрос переносит staging в users/payment_cards и возвращает строки, которые не были вставлены.
+    // Первое вхождение email/номера в файле выигрывает; карты привязываются к новым и существующим
+    // пользователям по email; строки существующих владельцев блокируются, чтобы лимит карт
+    // считался по актуальному active_card_count
+    private static final String MERGE_SQL = """
+    WITH user_rows AS (
+        SELECT r.line_no, r.email, r.name, r.surname, r.birth_date,
+               row_number() OVER (PARTITION BY r.email ORDER BY r.line_no) AS occurrence
+        FROM import_rows r
+        WHERE r.kind = 'U'
+    ),
+    new_users AS (
+        INSERT INTO users (name, surname, birth_date, email, active, created_at, updated_at)
+        SELECT name, surname, birth_date, email, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+        FROM user_rows
+        WHERE occurrence = 1
+        ON CONFLICT (email) DO NOTHING
+        RETURNING id, email
+    ),
+    card_rows AS (
+        SELECT r.line_no, r.email, r.number, r.holder, r.expiration_date,
+               row_number() OVER (PARTITION BY r.number ORDER BY r.line_no) AS occurrence
+        FROM import_rows r
+        WHERE r.kind = 'C'
+    ),
+    existing_owners AS (
+        SELECT u.id, u.email, u.active, u.active_card_count
+        FROM users u
+        WHERE u.email IN (SELECT email FROM card_rows)
+        FOR UPDATE
+    ),
+    owners AS (
+        SELECT id, email, active, active_card_count FROM existing_owners
+        UNION ALL
+        SELECT id, email, true, 0 FROM new_users
+    ),
+    card_candidates AS (
+        SELECT c.line_no, c.number, c.holder, c.expiration_date, o.id AS user_id,
+               o.active_card_count + row_number() OVER (PARTITION BY o.id ORDER BY c.line_no) AS card_position
+        FROM card_rows c
+        JOIN owners o ON o.email = c.email
+        WHERE c.occurrence = 1
+          AND o.active
+          AND NOT EXISTS (SELECT 1 FROM payment_cards p WHERE p.number = c.number)
+    ),
+    new_cards AS (
+        INSERT INTO payment_cards (user_id, number, holder, expiration_date, active, created_at, updated_at)
+        SELECT user_id, number, holder, expiration_date, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+        FROM card_candidates
+        WHERE card_position <= ?
+        ON CONFLICT (number) DO NOTHING
+        RETURNING number
+    )
+    SELECT 'U' AS kind, u.line_no,
+           CASE WHEN u.occurrence > 1 THEN 'DUPLICATE_IN_IMPORT' ELSE 'EMAIL_EXISTS' END AS reason
+    FROM user_rows u
+    WHERE u.occurrence > 1
+       OR NOT EXISTS (SELECT 1 FROM new_users n WHERE n.email = u.email)
+    UNION ALL
+    SELECT 'C', c.line_no,
+           CASE
+               WHEN c.occurrence > 1 THEN 'DUPLICATE_IN_IMPORT'
+               WHEN o.id IS NULL THEN 'OWNER_NOT_FOUND'
+               WHEN NOT o.active THEN 'OWNER_INACTIVE'
+               WHEN k.card_position > ? THEN 'CARD_LIMIT_EXCEEDED'
+               ELSE 'CARD_NUMBER_EXISTS'
+           END
+    FROM card_rows c
+    LEFT JOIN owners o ON o.email = c.email
+    LEFT JOIN card_candidates k ON k.line_no = c.line_no
+    WHERE c.occurrence > 1
+       OR NOT EXISTS (SELECT 1 FROM new_cards n WHERE n.number = c.number)
+    ORDER BY line_no
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UniquenessPrecheck uniquenessPrecheck;
+
+    @Override
+    @Transactional
+    @CacheEvict(value = "userCards", allEntries = true)
+    public ImportReportDTO importUsers(InputStream input, ImportFormat format) {
+        log.info("Starting bulk import, format: {}", format);
+
+        ImportReportDTO report = jdbcTemplate.execute(
+                (ConnectionCallback<ImportReportDTO>) connection -> importInto(connection, input, format));
+
+        log.info("Bulk import finished - rows: {}, users: {}, cards: {}, rejected: {}",
+                report.getTotalRows(), report.getInsertedUsers(), report.getInsertedCards(), report.getRejectedRows());
+        return report;
+    }
+
+    private ImportReportDTO importInto(Connection connection, InputStream input, ImportFormat format)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+
+        ImportReportDTO report = new ImportReportDTO();
+        ImportRowValidator rowValidator = new ImportRowValidator(validator);
+        StagingCopyWriter staging = new StagingCopyWriter(connection.unwrap(PGConnection.class));
+        long stagedUsers = 0;
+        long stagedCards = 0;
+
+        try (ImportRecordReader records = openReader(input, format)) {
+            ImportRecord record;
+            while ((record = records.next()) != null) {
+                report.setTotalRows(report.getTotalRows() + 1);
+
+                ImportRowValidator.Result result = rowValidator.validate(record);
+                if (!result.isValid()) {
+                    reject(report, new ImportConflictDTO(record.line(), INVALID_ROW, result.error()));
+                    continue;
+                }
+
+                ImportRow row = result.row();
+                staging.write(row);
+                // Лишнее значение в фильтре безопасно, даже если строка не пройдет слияние
+                if (row.kind() == ImportRow.Kind.USER) {
+                    uniquenessPrecheck.recordEmail(row.email());
+                    stagedUsers++;
+                } else {
+                    uniquenessPrecheck.recordCardNumber(row.number());
+                    stagedCards++;
+                }
+            }
+            staging.finish();
+        } catch (IOException e) {
+            staging.abort();
+            throw new UncheckedIOException("Failed to read import stream", e);
+        } catch (RuntimeException | SQLException e) {
+            staging.abort();
+            throw e;
+        }
+
+        // Автоанализ не видит временные таблицы, без статистики планировщик ошибается в оценке размеров
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE import_rows");
+        }
+
+        long userConflicts = 0;
+        long cardConflicts = 0;
+        try (PreparedStatement merge = connection.prepareStatement(MERGE_SQL)) {
+            merge.setInt(1, PaymentCardServiceImpl.MAX_ACTIVE_CARDS);
+            merge.setInt(2, PaymentCardServiceImpl.MAX_ACTIVE_CARDS);
+            merge.setFetchSize(RESULT_FETCH_SIZE);
+
+            try (ResultSet conflicts = merge.executeQuery()) {
+                while (conflicts.next()) {
+                    if (ImportRow.Kind.USER.getCode().equals(conflicts.getString("kind"))) {
+                        userConflicts++;
+                    } else {
+                        cardConflicts++;
+                    }
+                    reject(report, new ImportConflictDTO(conflicts.getLong("line_no"), conflicts.getString("reason"), null));
+                }
+            }
+        }
+
+        report.setInsertedUsers(stagedUsers - userConflicts);
+        report.setInsertedCards(stagedCards - cardConflicts);
+        return report;
+    }
+
+    private ImportRecordReader openReader(InputStream input, ImportFormat format) {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        return switch (format) {
+            case CSV -> new CsvImportRecordReader(reader);
+            case NDJSON -> new NdjsonImportRecordReader(reader, objectMapper);
+        };
+    }
+
+    private static void reject(ImportReportDTO report, ImportConflictDTO conflict) {
+        report.setRejectedRows(report.getRejectedRows() + 1);
+        if (report.getConflicts().size() < MAX_REPORTED_CONFLICTS) {
+            report.getConflicts().add(conflict);
+        } else {
+            report.setConflictsTruncated(true);
+        }
+    }
+}
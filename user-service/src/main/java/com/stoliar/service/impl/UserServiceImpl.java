@@ -1,32 +1,50 @@
 package com.stoliar.service.impl;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
 import com.stoliar.entity.User;
 import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.event.UserDeletedEvent;
 import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.mapper.UserMapper;
 import com.stoliar.repository.UserRepository;
 import com.stoliar.service.UserService;
+import com.stoliar.service.precheck.UniquenessPrecheck;
 import com.stoliar.specification.UserSpecifications;
+import com.stoliar.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // Поиск отдает не больше этого числа лучших совпадений: глубже не листают.
+    // Итог считается не дальше этой границы; ранжирование по-прежнему читает все совпадения,
+    // но с LIMIT сортирует только верхушку (top-N)
+    static final int MAX_SEARCH_RESULTS = 1000;
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UniquenessPrecheck uniquenessPrecheck;
 
     @Override
     @Transactional
@@ -34,24 +52,32 @@ public class UserServiceImpl implements UserService {
     public UserDTO createUser(UserCreateDTO userCreateDTO) {
         log.info("Creating new user with email: {}", userCreateDTO.getEmail());
 
-        if (userRepository.existsByEmail(userCreateDTO.getEmail())) {
+        // Отрицательный ответ фильтра уникальности избавляет от запроса в БД
+        if (!uniquenessPrecheck.isEmailDefinitelyAbsent(userCreateDTO.getEmail())
+                && userRepository.existsByEmail(userCreateDTO.getEmail())) {
             throw new DuplicateResourceException("User with email " + userCreateDTO.getEmail() + " already exists");
         }
 
         // Используем нативный запрос с RETURNING
-        User createdUser = userRepository.createUser(
-                userCreateDTO.getName(),
-                userCreateDTO.getSurname(),
-                userCreateDTO.getBirthDate(),
-                userCreateDTO.getEmail()
-        );
+        User createdUser;
+        try {
+            createdUser = userRepository.createUser(
+                    userCreateDTO.getName(),
+                    userCreateDTO.getSurname(),
+                    userCreateDTO.getBirthDate(),
+                    userCreateDTO.getEmail()
+            );
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOr(e, userCreateDTO.getEmail());
+        }
+        uniquenessPrecheck.recordEmail(createdUser.getEmail());
 
         return userMapper.toDTO(createdUser);
     }
 
     @Override
     @Transactional
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserDTO getUserById(Long id) {
         log.info("Fetching user by id: {}", id);
         User user = userRepository.findUserById(id);
@@ -69,6 +95,28 @@ public class UserServiceImpl implements UserService {
                 .map(userMapper::toDTO);
     }
 
+    @Override
+    @Transactional
+    public CursorPage<UserDTO> getUsersAfter(String cursor, int size, boolean includeTotal) {
+        log.info("Fetching users after cursor: {}, size: {}", cursor, size);
+        KeysetCursor.checkPageSize(size);
+
+        Limit limit = Limit.of(size + 1);
+        List<User> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = userRepository.findKeysetFirstPage(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            users = userRepository.findKeysetPageAfter(after.createdAt(), after.id(), limit);
+        }
+
+        Long total = includeTotal ? userRepository.count() : null;
+        return CursorPage.of(users, size,
+                user -> new KeysetCursor(user.getCreatedAt(), user.getId()),
+                userMapper::toDTO,
+                total);
+    }
+
     @Override
     @Transactional
     @CachePut(value = "users", key = "#id")
@@ -81,7 +129,9 @@ public class UserServiceImpl implements UserService {
         }
 
         // Проверка уникальности почты
-        if (!existingUser.getEmail().equals(userDTO.getEmail()) &&
+        boolean emailChanged = !existingUser.getEmail().equals(userDTO.getEmail());
+        if (emailChanged &&
+                !uniquenessPrecheck.isEmailDefinitelyAbsent(userDTO.getEmail()) &&
                 userRepository.existsByEmail(userDTO.getEmail())) {
             throw new DuplicateResourceException("Email " + userDTO.getEmail() + " already exists");
         }
@@ -92,6 +142,15 @@ public class UserServiceImpl implements UserService {
         existingUser.setEmail(userDTO.getEmail());
 
         User updatedUser = userRepository.save(existingUser);
+        if (emailChanged) {
+            // Нарушение уникальности должно проявиться здесь, а не при коммите
+            try {
+                userRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateEmailOr(e, userDTO.getEmail());
+            }
+            uniquenessPrecheck.recordEmail(userDTO.getEmail());
+        }
         return userMapper.toDTO(updatedUser);
     }
 
@@ -114,7 +173,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"users", "paymentCards"}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "#id"),
+            @CacheEvict(value = "userCards", key = "#id")
+    })
     public void deleteUser(Long id) {
         log.info("Deleting user with id: {}", id);
         User user = userRepository.findUserById(id);
@@ -122,6 +184,9 @@ public class UserServiceImpl implements UserService {
             throw new EntityNotFoundException("User not found with id: " + id);
         }
         userRepository.delete(user);
+
+        // Карты пользователя удаляются каскадно - их записи кэша сбрасываются по индексу после коммита
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 
     @Override
@@ -129,10 +194,15 @@ public class UserServiceImpl implements UserService {
     public Page<UserDTO> getUsersWithFilters(String firstName, String surname, Pageable pageable) {
         log.info("Fetching users with filters - firstName: {}, surname: {}", firstName, surname);
 
+        if (pageable.getOffset() >= MAX_SEARCH_RESULTS) {
+            return Page.empty(pageable);
+        }
+
         Specification<User> spec = UserSpecifications.hasFirstName(firstName)
-                .and(UserSpecifications.hasSurname(surname));
+                .and(UserSpecifications.hasSurname(surname))
+                .and(UserSpecifications.rankedByNameMatch(firstName, surname));
 
-        return userRepository.findAll(spec, pageable).map(userMapper::toDTO);
+        return userRepository.findAllCapped(spec, pageable, MAX_SEARCH_RESULTS).map(userMapper::toDTO);
     }
 
     @Override
@@ -145,4 +215,12 @@ public class UserServiceImpl implements UserService {
 
         return userId;
     }
+
+    private static RuntimeException duplicateEmailOr(DataIntegrityViolationException e, String email) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(EMAIL_CONSTRAINT)) {
+            return new DuplicateResourceException("Email " + email + " already exists");
+        }
+        return e;
+    }
 }
\ No newline at end of file
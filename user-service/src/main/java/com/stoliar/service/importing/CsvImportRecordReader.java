@@ -0,0 +1,104 @@
+package com.stoliar.service.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV по RFC 4180: первая запись - заголовок, поля в кавычках могут содержать запятые, кавычки и переводы строк.
+ */
+public class CsvImportRecordReader implements ImportRecordReader {
+
+    private static final int EOF = -1;
+
+    private final BufferedReader reader;
+    private List<String> header;
+    private long line;
+    private long recordLine;
+
+    public CsvImportRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        if (header == null) {
+            List<String> columns = readRecord();
+            if (columns == null) {
+                return null;
+            }
+            header = columns.stream().map(ImportRecord::fieldKey).toList();
+        }
+
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        if (values.size() != header.size()) {
+            return ImportRecord.malformed(recordLine,
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        return ImportRecord.of(recordLine, fields);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == EOF) {
+            return null;
+        }
+        line++;
+        recordLine = line;
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (c != EOF) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
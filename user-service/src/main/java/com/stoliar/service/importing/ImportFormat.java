@@ -0,0 +1,30 @@
+package com.stoliar.service.importing;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (ImportFormat format : values()) {
+                if (MediaType.parseMediaType(format.mediaType).equalsTypeAndSubtype(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+}
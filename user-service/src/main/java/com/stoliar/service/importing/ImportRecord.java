@@ -0,0 +1,27 @@
+package com.stoliar.service.importing;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сырая запись файла импорта: значения полей как строки либо ошибка разбора.
+ */
+public record ImportRecord(long line, Map<String, String> fields, String error) {
+
+    public static ImportRecord of(long line, Map<String, String> fields) {
+        return new ImportRecord(line, fields, null);
+    }
+
+    public static ImportRecord malformed(long line, String error) {
+        return new ImportRecord(line, Map.of(), error);
+    }
+
+    public String get(String field) {
+        return fields.get(fieldKey(field));
+    }
+
+    // birth_date, birthDate и BIRTHDATE считаются одним полем
+    public static String fieldKey(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.stoliar.service.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Потоковое чтение файла импорта по одной записи, без загрузки файла в память.
+ */
+public interface ImportRecordReader extends Closeable {
+
+    // null, когда записи закончились
+    ImportRecord next() throws IOException;
+}
@@ -0,0 +1,40 @@
+package com.stoliar.service.importing;
+
+import java.time.LocalDate;
+
+/**
+ * Проверенная строка импорта: пользователь или карта, привязанная к пользователю по email.
+ */
+public record ImportRow(long line,
+                        Kind kind,
+                        String email,
+                        String name,
+                        String surname,
+                        LocalDate birthDate,
+                        String number,
+                        String holder,
+                        LocalDate expirationDate) {
+
+    public enum Kind {
+        USER("U"),
+        CARD("C");
+
+        private final String code;
+
+        Kind(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    public static ImportRow user(long line, String email, String name, String surname, LocalDate birthDate) {
+        return new ImportRow(line, Kind.USER, email, name, surname, birthDate, null, null, null);
+    }
+
+    public static ImportRow card(long line, String email, String number, String holder, LocalDate expirationDate) {
+        return new ImportRow(line, Kind.CARD, email, null, null, null, number, holder, expirationDate);
+    }
+}
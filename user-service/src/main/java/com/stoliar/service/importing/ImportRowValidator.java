@@ -0,0 +1,143 @@
+package com.stoliar.service.importing;
+
+import com.stoliar.dto.PaymentCardCreateDTO;
+import com.stoliar.dto.UserCreateDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проверяет записи импорта теми же ограничениями, что и POST /api/v1/users и POST .../payment-cards,
+ * плюс длины колонок, чтобы COPY в staging-таблицу не падал на отдельной строке.
+ */
+@RequiredArgsConstructor
+public class ImportRowValidator {
+
+    static final int MAX_NAME_LENGTH = 100;
+    static final int MAX_EMAIL_LENGTH = 255;
+
+    private final Validator validator;
+
+    public Result validate(ImportRecord record) {
+        if (record.error() != null) {
+            return Result.invalid(record.error());
+        }
+
+        String type = record.get("type");
+        if (type == null) {
+            return Result.invalid("Field 'type' is required");
+        }
+        return switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "user" -> validateUser(record);
+            case "card" -> validateCard(record);
+            default -> Result.invalid("Unknown type '" + type + "', expected 'user' or 'card'");
+        };
+    }
+
+    private Result validateUser(ImportRecord record) {
+        UserCreateDTO user = new UserCreateDTO();
+        user.setName(trim(record.get("name")));
+        user.setSurname(trim(record.get("surname")));
+        user.setEmail(trim(record.get("email")));
+        try {
+            user.setBirthDate(parseDate(record.get("birthDate")));
+        } catch (DateTimeParseException e) {
+            return Result.invalid("Birth date must be in yyyy-MM-dd format");
+        }
+
+        String error = describe(validator.validate(user));
+        if (error == null) {
+            error = checkLength("name", user.getName(), MAX_NAME_LENGTH);
+        }
+        if (error == null) {
+            error = checkLength("surname", user.getSurname(), MAX_NAME_LENGTH);
+        }
+        if (error == null) {
+            error = checkLength("email", user.getEmail(), MAX_EMAIL_LENGTH);
+        }
+        return error != null
+                ? Result.invalid(error)
+                : Result.valid(ImportRow.user(record.line(), user.getEmail(), user.getName(), user.getSurname(),
+                        user.getBirthDate()));
+    }
+
+    private Result validateCard(ImportRecord record) {
+        PaymentCardCreateDTO card = new PaymentCardCreateDTO();
+        card.setNumber(trim(record.get("number")));
+        card.setHolder(trim(record.get("holder")));
+        try {
+            card.setExpirationDate(parseDate(record.get("expirationDate")));
+        } catch (DateTimeParseException e) {
+            return Result.invalid("Expiration date must be in yyyy-MM-dd format");
+        }
+
+        // Владелец карты задается email, поэтому проверяем его так же, как при создании пользователя
+        String email = trim(record.get("email"));
+        String error = describe(validator.validate(card));
+        if (error == null) {
+            error = describe(validator.validateValue(UserCreateDTO.class, "email", email));
+        }
+        if (error == null) {
+            error = checkLength("holder", card.getHolder(), MAX_NAME_LENGTH);
+        }
+        if (error == null) {
+            error = checkLength("email", email, MAX_EMAIL_LENGTH);
+        }
+        return error != null
+                ? Result.invalid(error)
+                : Result.valid(ImportRow.card(record.line(), email, card.getNumber(), card.getHolder(),
+                        card.getExpirationDate()));
+    }
+
+    private static <T> String describe(Set<ConstraintViolation<T>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        // Порядок нарушений у валидатора не определен, сортируем для стабильного отчета
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String checkLength(String field, String value, int max) {
+        return value != null && value.length() > max
+                ? "Field '" + field + "' must be at most " + max + " characters"
+                : null;
+    }
+
+    private static LocalDate parseDate(String value) {
+        String trimmed = trim(value);
+        return trimmed == null ? null : LocalDate.parse(trimmed);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public record Result(ImportRow row, String error) {
+
+        static Result valid(ImportRow row) {
+            return new Result(row, null);
+        }
+
+        static Result invalid(String error) {
+            return new Result(null, error);
+        }
+
+        public boolean isValid() {
+            return row != null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.stoliar.service.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NDJSON: один JSON-объект на строку. Битая строка становится ошибкой этой записи и не прерывает импорт.
+ */
+public class NdjsonImportRecordReader implements ImportRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonImportRecordReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.malformed(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return ImportRecord.malformed(line, "Expected a JSON object");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(field -> fields.put(
+                ImportRecord.fieldKey(field.getKey()),
+                field.getValue().isNull() ? null : field.getValue().asText()));
+        return ImportRecord.of(line, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
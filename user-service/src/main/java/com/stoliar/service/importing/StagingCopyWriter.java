@@ -0,0 +1,86 @@
+package com.stoliar.service.importing;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Пишет строки импорта в staging-таблицу через COPY FROM STDIN в формате CSV.
+ * Строки уходят в сервер буферами фиксированного размера, память не зависит от объема файла.
+ */
+public class StagingCopyWriter {
+
+    static final String COPY_SQL = "COPY import_rows (line_no, kind, email, name, surname, birth_date, "
+            + "number, holder, expiration_date) FROM STDIN WITH (FORMAT csv)";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PGCopyOutputStream copy;
+    private final Writer writer;
+    private long rows;
+
+    public StagingCopyWriter(PGConnection connection) throws SQLException {
+        this.copy = new PGCopyOutputStream(connection, COPY_SQL, BUFFER_SIZE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public void write(ImportRow row) throws IOException {
+        writer.write(Long.toString(row.line()));
+        writer.write(',');
+        writer.write(row.kind().getCode());
+        writeField(row.email());
+        writeField(row.name());
+        writeField(row.surname());
+        writeField(row.birthDate());
+        writeField(row.number());
+        writeField(row.holder());
+        writeField(row.expirationDate());
+        writer.write('\n');
+        rows++;
+    }
+
+    // Завершает COPY, возвращает число строк, принятых сервером
+    public long finish() throws IOException, SQLException {
+        writer.flush();
+        long copied = copy.endCopy();
+        if (copied != rows) {
+            throw new IllegalStateException("COPY accepted " + copied + " rows, expected " + rows);
+        }
+        return copied;
+    }
+
+    // Прерывает COPY, чтобы соединение можно было откатить и вернуть в пул
+    public void abort() {
+        try {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        } catch (SQLException ignored) {
+            // Транзакция все равно откатывается
+        }
+    }
+
+    private void writeField(LocalDate value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    // null - пустое поле без кавычек, строка - всегда в кавычках, чтобы пустая строка не стала NULL
+    private void writeField(String value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.stoliar.service.precheck;
+
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Предварительная проверка уникальности email и номеров карт по фильтрам Блума в памяти.
+ * Если фильтр отвечает "точно нет", запрос existsByEmail/findByNumber в БД не нужен;
+ * положительный ответ по-прежнему проверяется в БД.
+ * <p>
+ * Фильтры строятся потоковым чтением таблиц при старте и периодически перестраиваются
+ * (удаленные значения фильтр забыть не может). Записи других реплик сюда не попадают
+ * до следующей перестройки, поэтому окончательную гарантию дают уникальные ограничения БД -
+ * сервисы переводят их нарушение в DuplicateResourceException
+ */
+@Slf4j
+@Component
+public class UniquenessPrecheck {
+
+    private final UserRepository userRepository;
+    private final PaymentCardRepository paymentCardRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long expectedItems;
+    private final double falsePositiveRate;
+
+    private final Counter emailSkipped;
+    private final Counter emailProbed;
+    private final Counter cardNumberSkipped;
+    private final Counter cardNumberProbed;
+
+    // null, пока фильтр не построен - тогда всегда идем в БД
+    private volatile Filters filters;
+    // Фильтры, которые сейчас строятся: записи во время перестройки попадают и в них
+    private volatile Filters building;
+
+    public UniquenessPrecheck(UserRepository userRepository,
+                              PaymentCardRepository paymentCardRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.uniqueness-filter.enabled:true}") boolean enabled,
+                              @Value("${app.uniqueness-filter.expected-items:2000000}") long expectedItems,
+                              @Value("${app.uniqueness-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.paymentCardRepository = paymentCardRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedItems = expectedItems;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.emailSkipped = counter(meterRegistry, "email", "skipped");
+        this.emailProbed = counter(meterRegistry, "email", "probed");
+        this.cardNumberSkipped = counter(meterRegistry, "card_number", "skipped");
+        this.cardNumberProbed = counter(meterRegistry, "card_number", "probed");
+    }
+
+    /**
+     * @return true, если email точно не занят и проверку в БД можно пропустить
+     */
+    public boolean isEmailDefinitelyAbsent(String email) {
+        Filters current = filters;
+        boolean absent = current != null && !current.emails().mightContain(email);
+        (absent ? emailSkipped : emailProbed).increment();
+        return absent;
+    }
+
+    /**
+     * @return true, если номер карты точно не занят и проверку в БД можно пропустить
+     */
+    public boolean isCardNumberDefinitelyAbsent(String number) {
+        Filters current = filters;
+        boolean absent = current != null && !current.cardNumbers().mightContain(number);
+        (absent ? cardNumberSkipped : cardNumberProbed).increment();
+        return absent;
+    }
+
+    public void recordEmail(String email) {
+        record(email, Filters::emails);
+    }
+
+    public void recordCardNumber(String number) {
+        record(number, Filters::cardNumbers);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.uniqueness-filter.rebuild-interval:PT10M}",
+            fixedDelayString = "${app.uniqueness-filter.rebuild-interval:PT10M}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long users = userRepository.count();
+            long cards = paymentCardRepository.count();
+            // Запас в 2 раза, чтобы до следующей перестройки не выйти за расчетную долю ложных срабатываний
+            Filters next = new Filters(
+                    BloomFilter.create(Math.max(expectedItems, users * 2), falsePositiveRate),
+                    BloomFilter.create(Math.max(expectedItems, cards * 2), falsePositiveRate));
+            building = next;
+
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(next.emails()::put);
+                }
+                try (Stream<String> numbers = paymentCardRepository.streamAllNumbers()) {
+                    numbers.forEach(next.cardNumbers()::put);
+                }
+            });
+
+            filters = next;
+            log.info("Uniqueness filters rebuilt in {} ms: {} users, {} cards",
+                    System.currentTimeMillis() - start, users, cards);
+        } catch (Exception e) {
+            // Остаемся на старых фильтрах (или без них - тогда все проверки идут в БД)
+            log.error("Failed to rebuild uniqueness filters: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private void record(String value, Function<Filters, BloomFilter> filter) {
+        Filters current = filters;
+        if (current != null) {
+            filter.apply(current).put(value);
+        }
+        Filters next = building;
+        if (next != null) {
+            filter.apply(next).put(value);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String field, String result) {
+        return Counter.builder("uniqueness.precheck")
+                .description("Uniqueness checks answered by the Bloom filter (skipped) or sent to the database (probed)")
+                .tag("field", field)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter cardNumbers) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Вызывается обработчиком ошибок, когда повторы события регистрации исчерпаны.
+ * Публикует FAILED-результат, чтобы auth-service выполнил компенсацию и освободил email.
+ * Если отправка не удалась, исключение пробрасывается и запись обрабатывается повторно
+ */
+@Slf4j
+@Component
+@Profile("!integration-test")
+public class RegistrationFailureRecoverer implements ConsumerRecordRecoverer {
+
+    private final RegistrationHandler registrationHandler;
+    private final KafkaTemplate<String, UserRegistrationResultEvent> registrationResultKafkaTemplate;
+    private final String resultsTopic;
+    private final Duration sendTimeout;
+
+    public RegistrationFailureRecoverer(RegistrationHandler registrationHandler,
+                                        KafkaTemplate<String, UserRegistrationResultEvent> registrationResultKafkaTemplate,
+                                        @Value("${spring.kafka.topics.registration-results}") String resultsTopic,
+                                        @Value("${app.registration.send-timeout:10s}") Duration sendTimeout) {
+        this.registrationHandler = registrationHandler;
+        this.registrationResultKafkaTemplate = registrationResultKafkaTemplate;
+        this.resultsTopic = resultsTopic;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        log.error("Failed to process registration request: {} after retries. Error: {}",
+                record, exception.getMessage());
+
+        // Нечитаемое событие не содержит credentialsId: такую регистрацию завершит по таймауту auth-service
+        if (!(record.value() instanceof UserRegistrationRequestedEvent event)
+                || event.getEventId() == null || event.getCredentialsId() == null) {
+            log.warn("Registration request at offset {} cannot be compensated, skipping", record.offset());
+            return;
+        }
+
+        UserRegistrationResultEvent result = registrationHandler.recordFailure(event, rootMessage(exception));
+        try {
+            registrationResultKafkaTemplate.send(resultsTopic, String.valueOf(result.getCredentialsId()), result)
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing registration failure", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish registration failure for credentials id "
+                    + result.getCredentialsId(), e);
+        }
+        log.info("Published {} result for credentials id {}", result.getStatus(), result.getCredentialsId());
+    }
+
+    private static String rootMessage(Throwable exception) {
+        Throwable cause = exception;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
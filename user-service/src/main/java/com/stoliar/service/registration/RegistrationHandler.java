@@ -0,0 +1,127 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.UserCreateDTO;
+import com.stoliar.dto.UserDTO;
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.entity.ProcessedRegistration;
+import com.stoliar.repository.ProcessedRegistrationRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Создает профиль по событию регистрации из auth-service.
+ * Профиль и запись в processed_registrations сохраняются в одной транзакции,
+ * поэтому повторная доставка события возвращает уже сохраненный результат
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegistrationHandler {
+
+    static final String STATUS_COMPLETED = "COMPLETED";
+    static final String STATUS_FAILED = "FAILED";
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final ProcessedRegistrationRepository processedRegistrationRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    @Transactional
+    public UserRegistrationResultEvent handle(UserRegistrationRequestedEvent event) {
+        ProcessedRegistration processed = processedRegistrationRepository.findById(event.getEventId()).orElse(null);
+        if (processed != null) {
+            log.info("Registration event {} already processed with status {}", event.getEventId(), processed.getStatus());
+            return toResult(processed);
+        }
+
+        processed = new ProcessedRegistration();
+        processed.setEventId(event.getEventId());
+        processed.setCredentialsId(event.getCredentialsId());
+        processed.setProcessedAt(LocalDateTime.now());
+
+        // Прежняя попытка этой регистрации уже создала профиль (поздно, после таймаута в auth-service):
+        // повтор получает тот же результат, а не отказ "already exists"
+        ProcessedRegistration completed = processedRegistrationRepository
+                .findFirstByCredentialsIdAndStatus(event.getCredentialsId(), STATUS_COMPLETED)
+                .orElse(null);
+        if (completed != null) {
+            processed.setStatus(STATUS_COMPLETED);
+            processed.setUserId(completed.getUserId());
+            processedRegistrationRepository.save(processed);
+            log.info("Registration for credentials id {} already completed by event {}, user id {}",
+                    event.getCredentialsId(), completed.getEventId(), completed.getUserId());
+            return toResult(processed);
+        }
+
+        // Дубликат проверяется заранее: исключение из createUser пометило бы общую транзакцию на откат
+        if (userRepository.existsByEmail(event.getEmail())) {
+            processed.setStatus(STATUS_FAILED);
+            processed.setReason(truncate("User with email " + event.getEmail() + " already exists"));
+        } else {
+            UserDTO created = userService.createUser(toCreateDTO(event));
+            processed.setStatus(STATUS_COMPLETED);
+            processed.setUserId(created.getId());
+        }
+
+        processedRegistrationRepository.save(processed);
+        log.info("Registration for credentials id {} processed with status {}",
+                event.getCredentialsId(), processed.getStatus());
+        return toResult(processed);
+    }
+
+    /**
+     * Фиксирует отказ, когда обработка события исчерпала повторы. Транзакция handle к этому моменту
+     * откачена, поэтому запись FAILED сохраняется отдельно: поздняя повторная доставка вернет тот же отказ,
+     * а не создаст профиль для уже компенсированной в auth-service регистрации
+     */
+    @Transactional
+    public UserRegistrationResultEvent recordFailure(UserRegistrationRequestedEvent event, String reason) {
+        ProcessedRegistration processed = processedRegistrationRepository.findById(event.getEventId()).orElse(null);
+        if (processed != null) {
+            return toResult(processed);
+        }
+
+        processed = new ProcessedRegistration();
+        processed.setEventId(event.getEventId());
+        processed.setCredentialsId(event.getCredentialsId());
+        processed.setProcessedAt(LocalDateTime.now());
+        processed.setStatus(STATUS_FAILED);
+        processed.setReason(truncate(reason != null ? reason : "Registration processing failed"));
+
+        processedRegistrationRepository.save(processed);
+        log.warn("Registration for credentials id {} recorded as failed: {}",
+                event.getCredentialsId(), processed.getReason());
+        return toResult(processed);
+    }
+
+    private static String truncate(String reason) {
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+
+    private static UserCreateDTO toCreateDTO(UserRegistrationRequestedEvent event) {
+        UserCreateDTO dto = new UserCreateDTO();
+        dto.setName(event.getName());
+        dto.setSurname(event.getSurname());
+        dto.setBirthDate(event.getBirthDate());
+        dto.setEmail(event.getEmail());
+        return dto;
+    }
+
+    private static UserRegistrationResultEvent toResult(ProcessedRegistration processed) {
+        return UserRegistrationResultEvent.builder()
+                .eventId(processed.getEventId())
+                .credentialsId(processed.getCredentialsId())
+                .userId(processed.getUserId())
+                .status(processed.getStatus())
+                .reason(processed.getReason())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+@Profile("!integration-test")
+public class RegistrationRequestConsumer {
+
+    private final RegistrationHandler registrationHandler;
+    private final KafkaTemplate<String, UserRegistrationResultEvent> registrationResultKafkaTemplate;
+    private final String resultsTopic;
+    private final Duration sendTimeout;
+
+    public RegistrationRequestConsumer(RegistrationHandler registrationHandler,
+                                       KafkaTemplate<String, UserRegistrationResultEvent> registrationResultKafkaTemplate,
+                                       @Value("${spring.kafka.topics.registration-results}") String resultsTopic,
+                                       @Value("${app.registration.send-timeout:10s}") Duration sendTimeout) {
+        this.registrationHandler = registrationHandler;
+        this.registrationResultKafkaTemplate = registrationResultKafkaTemplate;
+        this.resultsTopic = resultsTopic;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @KafkaListener(
+            topics = "${spring.kafka.topics.registration-requests}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "registrationKafkaListenerContainerFactory"
+    )
+    public void handleRegistrationRequested(
+            @Payload UserRegistrationRequestedEvent event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
+            @Header(KafkaHeaders.OFFSET) Long offset,
+            Acknowledgment acknowledgment) throws ExecutionException, InterruptedException, TimeoutException {
+
+        log.info("Received registration request: eventId={}, credentialsId={}, partition={}, offset={}",
+                event.getEventId(), event.getCredentialsId(), partition, offset);
+
+        if (event.getEventId() == null || event.getCredentialsId() == null || event.getEmail() == null) {
+            log.warn("Invalid UserRegistrationRequestedEvent received, skipping. event={}", event);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        UserRegistrationResultEvent result = registrationHandler.handle(event);
+
+        // Offset подтверждается только после отправки результата: при сбое событие придет снова,
+        // а обработчик вернет уже сохраненный результат
+        registrationResultKafkaTemplate.send(resultsTopic, String.valueOf(result.getCredentialsId()), result)
+                .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        acknowledgment.acknowledge();
+    }
+}
@@ -0,0 +1,332 @@
+package com.stoliar.service.warmup;
+
+import com.stoliar.cache.HotKeySampler;
+import com.stoliar.cache.TwoLevelCache;
+import com.stoliar.cache.TwoLevelCacheManager;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.mapper.UserMapper;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import io.lettuce.core.event.Event;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогрев кэшей users и userCards, чтобы новая реплика не начинала с одних промахов.
+ * <p>
+ * Запускается как ApplicationRunner: Spring Boot переводит readiness в ACCEPTING_TRAFFIC только после
+ * всех раннеров, поэтому трафик приходит на уже прогретую реплику. Прогрев ограничен по времени
+ * и при ошибке не мешает старту - реплика просто работает с холодным кэшем.
+ * <p>
+ * Ключи - горячие ключи, собранные {@link HotKeySampler} (после переподключения к Redis), затем
+ * недавно измененные пользователи по индексу updated_at. Загрузка идет пачками в несколько потоков
+ * с ограничением скорости, чтобы не забрать пул соединений у живого трафика.
+ * После восстановления соединения с Redis (failover) прогрев повторяется в фоне
+ */
+@Slf4j
+@Component
+@Profile("!integration-test")
+public class CacheWarmer implements ApplicationRunner {
+
+    static final String TRIGGER_STARTUP = "startup";
+    static final String TRIGGER_RECONNECT = "reconnect";
+    static final String OUTCOME_COMPLETED = "completed";
+    static final String OUTCOME_TIMEOUT = "timeout";
+    static final String OUTCOME_FAILED = "failed";
+    static final String OUTCOME_SKIPPED = "skipped";
+
+    private static final String USERS_CACHE = "users";
+    private static final String USER_CARDS_CACHE = "userCards";
+
+    private final UserRepository userRepository;
+    private final PaymentCardRepository paymentCardRepository;
+    private final UserMapper userMapper;
+    private final PaymentCardMapper paymentCardMapper;
+    private final TwoLevelCacheManager cacheManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ClientResources> clientResources;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final int batchSize;
+    private final int parallelism;
+    private final int usersPerSecond;
+    private final Duration timeout;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong warmedUsers = new AtomicLong();
+    private final AtomicLong warmedCardLists = new AtomicLong();
+
+    // Разрыв соединения с Redis, после которого нужно прогреть кэш заново
+    private final AtomicBoolean redisDisconnected = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Disposable redisEvents;
+
+    public CacheWarmer(UserRepository userRepository,
+                       PaymentCardRepository paymentCardRepository,
+                       UserMapper userMapper,
+                       PaymentCardMapper paymentCardMapper,
+                       TwoLevelCacheManager cacheManager,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       ObjectProvider<ClientResources> clientResources,
+                       @Value("${app.cache.warmup.enabled:true}") boolean enabled,
+                       @Value("${app.cache.warmup.users:10000}") int maxUsers,
+                       @Value("${app.cache.warmup.batch-size:200}") int batchSize,
+                       @Value("${app.cache.warmup.parallelism:4}") int parallelism,
+                       @Value("${app.cache.warmup.rate:5000}") int usersPerSecond,
+                       @Value("${app.cache.warmup.timeout:60s}") Duration timeout) {
+        this.userRepository = userRepository;
+        this.paymentCardRepository = paymentCardRepository;
+        this.userMapper = userMapper;
+        this.paymentCardMapper = paymentCardMapper;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.clientResources = clientResources;
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.usersPerSecond = usersPerSecond;
+        this.timeout = timeout;
+
+        Gauge.builder("cache.warmup.requested", requested, AtomicLong::get)
+                .description("Keys selected for the last cache warm-up")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.warmed", warmedUsers, AtomicLong::get)
+                .description("Entries present in the cache after the last warm-up")
+                .tag("cache", USERS_CACHE)
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.warmed", warmedCardLists, AtomicLong::get)
+                .description("Entries present in the cache after the last warm-up")
+                .tag("cache", USER_CARDS_CACHE)
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.coverage", this, CacheWarmer::coverage)
+                .description("Share of selected keys warmed by the last warm-up")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        subscribeToRedisEvents();
+        warmUp(TRIGGER_STARTUP);
+    }
+
+    /**
+     * Прогревает кэши и возвращает исход: completed, timeout, failed или skipped
+     * (выключен либо уже идет другой прогрев)
+     */
+    public String warmUp(String trigger) {
+        if (!enabled || maxUsers <= 0 || !running.compareAndSet(false, true)) {
+            return OUTCOME_SKIPPED;
+        }
+
+        long start = System.nanoTime();
+        String outcome = OUTCOME_FAILED;
+        try {
+            TwoLevelCache users = cache(USERS_CACHE);
+            TwoLevelCache userCards = cache(USER_CARDS_CACHE);
+            warmedUsers.set(0);
+            warmedCardLists.set(0);
+
+            List<Long> ids = selectKeys(users);
+            requested.set(ids.size());
+            outcome = load(ids, users, userCards);
+        } catch (RuntimeException e) {
+            log.error("Cache warm-up ({}) failed: {}", trigger, e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("cache.warmup")
+                    .description("Cache warm-up duration")
+                    .tag("trigger", trigger)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            running.set(false);
+            log.info("Cache warm-up ({}) {} in {} ms: {} of {} users, {} card lists",
+                    trigger, outcome, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    warmedUsers.get(), requested.get(), warmedCardLists.get());
+        }
+        return outcome;
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable subscription = redisEvents;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    void onRedisEvent(Event event) {
+        if (event instanceof ConnectionDeactivatedEvent) {
+            redisDisconnected.set(true);
+        } else if (event instanceof ConnectionActivatedEvent && redisDisconnected.compareAndSet(true, false)) {
+            // Readiness уже не трогаем: реплика обслуживает трафик, пока кэш догревается
+            Thread thread = new Thread(() -> warmUp(TRIGGER_RECONNECT), "cache-rewarm");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    double coverage() {
+        long total = requested.get();
+        return total == 0 ? 0 : (double) warmedUsers.get() / total;
+    }
+
+    private void subscribeToRedisEvents() {
+        ClientResources resources = clientResources.getIfAvailable();
+        if (resources != null && redisEvents == null) {
+            redisEvents = resources.eventBus().get().subscribe(this::onRedisEvent);
+        }
+    }
+
+    private List<Long> selectKeys(TwoLevelCache users) {
+        Set<Long> ids = new LinkedHashSet<>();
+        // Сразу после старта сэмплер пуст, ключи появляются при повторном прогреве
+        for (HotKeySampler.HotKey hotKey : users.getHotKeys().top(maxUsers)) {
+            try {
+                ids.add(Long.valueOf(hotKey.key()));
+            } catch (NumberFormatException e) {
+                log.debug("Skipping non-numeric hot key: {}", hotKey.key());
+            }
+        }
+        if (ids.size() < maxUsers) {
+            ids.addAll(userRepository.findRecentlyUpdatedIds(Limit.of(maxUsers)));
+        }
+        return ids.stream().limit(maxUsers).toList();
+    }
+
+    private String load(List<Long> ids, TwoLevelCache users, TwoLevelCache userCards) {
+        if (ids.isEmpty()) {
+            return OUTCOME_COMPLETED;
+        }
+
+        Pacer pacer = new Pacer(usersPerSecond);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<?>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            batches.add(executor.submit(() -> {
+                pacer.acquire(batch.size());
+                warmBatch(batch, users, userCards);
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (Future<?> batch : batches) {
+                batch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            return OUTCOME_COMPLETED;
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up did not finish in {}, continuing with a partially warmed cache", timeout);
+            return OUTCOME_TIMEOUT;
+        } catch (ExecutionException e) {
+            log.error("Cache warm-up batch failed: {}", e.getCause().getMessage(), e.getCause());
+            return OUTCOME_FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OUTCOME_FAILED;
+        } finally {
+            // Оставшиеся пачки не нужны ни после ошибки, ни после таймаута
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmBatch(List<Long> ids, TwoLevelCache users, TwoLevelCache userCards) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Map<Long, List<PaymentCardDTO>> cardsByUser = new HashMap<>();
+            for (PaymentCard card : paymentCardRepository.findAllByUserIdIn(ids)) {
+                cardsByUser.computeIfAbsent(card.getUser().getId(), id -> new ArrayList<>())
+                        .add(paymentCardMapper.toDTO(card));
+            }
+
+            for (User user : userRepository.findAllById(ids)) {
+                users.warm(user.getId(), userMapper.toDTO(user));
+                warmedUsers.incrementAndGet();
+                userCards.warm(user.getId(), cardsByUser.getOrDefault(user.getId(), new ArrayList<>()));
+                warmedCardLists.incrementAndGet();
+            }
+        });
+    }
+
+    private TwoLevelCache cache(String name) {
+        if (cacheManager.getCache(name) instanceof TwoLevelCache cache) {
+            return cache;
+        }
+        throw new IllegalStateException("Cache not configured: " + name);
+    }
+
+    /**
+     * Равномерно распределяет загрузку пачек во времени: не больше usersPerSecond пользователей в секунду
+     */
+    private static final class Pacer {
+
+        private final long nanosPerUser;
+        private long nextSlot = System.nanoTime();
+
+        Pacer(int usersPerSecond) {
+            this.nanosPerUser = usersPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / usersPerSecond : 0;
+        }
+
+        void acquire(int users) throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(nextSlot, now);
+                nextSlot = slot + users * nanosPerUser;
+                wait = slot - now;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
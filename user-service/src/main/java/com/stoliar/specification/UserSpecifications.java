@@ -1,33 +1,83 @@
 package com.stoliar.specification;
 
 import com.stoliar.entity.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 public class UserSpecifications {
 
+    private static final char LIKE_ESCAPE = '\\';
+
+    // lower(name) LIKE '%x%' обслуживается триграммным GIN-индексом idx_users_name_trgm
     public static Specification<User> hasFirstName(String firstName) {
+        return containsIgnoreCase("name", firstName);
+    }
+
+    // lower(surname) LIKE '%x%' обслуживается триграммным GIN-индексом idx_users_surname_trgm
+    public static Specification<User> hasSurname(String surname) {
+        return containsIgnoreCase("surname", surname);
+    }
+
+    /**
+     * Ранжирование результатов поиска: совпадение ближе к началу строки выше,
+     * при равной позиции выше более короткое (более точное) значение.
+     * Сортировка не добавляется в count-запрос и при пустых фильтрах
+     */
+    public static Specification<User> rankedByNameMatch(String firstName, String surname) {
         return (root, query, criteriaBuilder) -> {
-            if (!StringUtils.hasText(firstName)) {
-                return criteriaBuilder.conjunction(); // пустое условие
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                List<Order> orders = new ArrayList<>();
+                addMatchOrders(orders, root, criteriaBuilder, "name", firstName);
+                addMatchOrders(orders, root, criteriaBuilder, "surname", surname);
+                if (!orders.isEmpty()) {
+                    orders.add(criteriaBuilder.asc(root.get("id")));
+                    query.orderBy(orders);
+                }
             }
-            return criteriaBuilder.like(
-                criteriaBuilder.lower(root.get("name")),
-                "%" + firstName.toLowerCase() + "%"
-            );
+            return criteriaBuilder.conjunction();
         };
     }
 
-    public static Specification<User> hasSurname(String surname) {
+    private static Specification<User> containsIgnoreCase(String attribute, String value) {
         return (root, query, criteriaBuilder) -> {
-            if (!StringUtils.hasText(surname)) {
+            if (!StringUtils.hasText(value)) {
                 return criteriaBuilder.conjunction(); // пустое условие
             }
             return criteriaBuilder.like(
-                criteriaBuilder.lower(root.get("surname")),
-                "%" + surname.toLowerCase() + "%"
+                criteriaBuilder.lower(root.get(attribute)),
+                "%" + escapeLike(normalize(value)) + "%",
+                LIKE_ESCAPE
             );
         };
     }
 
-}
\ No newline at end of file
+    private static void addMatchOrders(List<Order> orders, Root<User> root, CriteriaBuilder criteriaBuilder,
+                                       String attribute, String value) {
+        if (!StringUtils.hasText(value)) {
+            return;
+        }
+        Expression<String> lowered = criteriaBuilder.lower(root.get(attribute));
+        orders.add(criteriaBuilder.asc(criteriaBuilder.locate(lowered, normalize(value))));
+        orders.add(criteriaBuilder.asc(criteriaBuilder.length(lowered)));
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Пользовательский ввод не должен работать как шаблон LIKE
+    static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
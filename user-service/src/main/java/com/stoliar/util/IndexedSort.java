@@ -0,0 +1,26 @@
+package com.stoliar.util;
+
+import com.stoliar.exception.ValidationException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Сортировка для постраничных списков только по полям, покрытым индексом.
+ */
+public final class IndexedSort {
+
+    private static final String ID = "id";
+
+    private IndexedSort() {
+    }
+
+    // id добавляется вторым ключом: порядок страниц детерминирован и совпадает с составными индексами (..., id)
+    public static Sort by(String property, Set<String> allowed) {
+        if (!allowed.contains(property)) {
+            throw new ValidationException("Unsupported sort field: " + property + ". Allowed: " + new TreeSet<>(allowed));
+        }
+        return ID.equals(property) ? Sort.by(ID) : Sort.by(property, ID);
+    }
+}
@@ -0,0 +1,111 @@
+package com.stoliar.benchmark;
+
+import com.stoliar.cache.CacheTypeRegistry;
+import com.stoliar.cache.CompactCacheSerializer;
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение JdkSerializationRedisSerializer и {@link CompactCacheSerializer}:
+ * байт на запись и время кодирования/декодирования одной записи.
+ * Запись - то, что реально лежит в кэше: пользователь, одна карта и список карт пользователя.
+ * <p>
+ * Меряем в той же JVM после прогрева, поэтому наносекунды ориентировочные,
+ * а размеры - точные.
+ * Запуск: ./gradlew :user-service:test --tests '*CacheSerializerBenchmarkTest' -Drun.benchmarks=true
+ */
+@EnabledIfSystemProperty(named = "run.benchmarks", matches = "true")
+class CacheSerializerBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    private final RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+    private final RedisSerializer<Object> compact = new CompactCacheSerializer(CacheTypeRegistry.defaults(), 512);
+
+    @Test
+    void compareSerializers() {
+        List<PaymentCardDTO> cards = LongStream.rangeClosed(1, 20).mapToObj(this::card).toList();
+
+        System.out.printf("%-12s %-8s %10s %12s %12s%n", "entry", "format", "bytes", "encode ns", "decode ns");
+        for (Object value : List.of(user(), card(1L), cards)) {
+            String entry = value instanceof List<?> ? "cards[20]" : value.getClass().getSimpleName();
+            Result jdkResult = measure(jdk, value);
+            Result compactResult = measure(compact, value);
+            print(entry, "jdk", jdkResult);
+            print(entry, "compact", compactResult);
+
+            assertThat(compactResult.bytes()).isLessThan(jdkResult.bytes());
+        }
+    }
+
+    private Result measure(RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += serializer.serialize(value).length;
+            sink += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.serialize(value).length;
+        }
+        long encodeNs = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+        long decodeNs = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        assertThat(sink).isPositive();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+        return new Result(bytes.length, encodeNs, decodeNs);
+    }
+
+    private void print(String entry, String format, Result result) {
+        System.out.printf("%-12s %-8s %10d %12d %12d%n",
+                entry, format, result.bytes(), result.encodeNs(), result.decodeNs());
+    }
+
+    private UserDTO user() {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        user.setName("John");
+        user.setSurname("Doe");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setEmail("john.doe@example.com");
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 10, 0, 0));
+        return user;
+    }
+
+    private PaymentCardDTO card(Long id) {
+        PaymentCardDTO card = new PaymentCardDTO();
+        card.setId(id);
+        card.setUserId(1L);
+        card.setNumber(String.format("4111111111%06d", id));
+        card.setHolder("JOHN DOE");
+        card.setExpirationDate(LocalDate.of(2030, 12, 31));
+        card.setActive(true);
+        card.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        card.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        return card;
+    }
+
+    private record Result(int bytes, long encodeNs, long decodeNs) {
+    }
+}
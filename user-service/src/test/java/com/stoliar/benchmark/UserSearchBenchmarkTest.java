@@ -0,0 +1,148 @@
+package com.stoliar.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поиск пользователей по подстроке имени/фамилии на таблице users с несколькими миллионами строк:
+ * последовательное сканирование против триграммных GIN-индексов из 003-create-user-name-trgm-indexes.
+ * Запрос повторяет то, что строят UserSpecifications: lower(x) LIKE '%q%', ранжирование и LIMIT.
+ * <p>
+ * Время - медиана EXPLAIN ANALYZE (Execution Time) по нескольким прогонам.
+ * Запуск: ./gradlew :user-service:test --tests '*UserSearchBenchmarkTest' -Drun.benchmarks=true
+ * Размер таблицы: -Dbenchmark.users=5000000 (по умолчанию 2 000 000)
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "run.benchmarks", matches = "true")
+class UserSearchBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 2_000_000);
+    private static final int RUNS = 7;
+
+    private static final String SEARCH_SQL = """
+            SELECT id, name, surname FROM users
+            WHERE lower(name) LIKE ? ESCAPE '\\' AND lower(surname) LIKE ? ESCAPE '\\'
+            ORDER BY position(? in lower(name)), length(name), position(? in lower(surname)), length(surname), id
+            LIMIT 10
+            """;
+
+    private static final String[][] QUERIES = {
+            {"ale", "ova"},
+            {"xander", ""},
+            {"", "petr"},
+            {"kir", "sto"}
+    };
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+            .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_parallel_workers_per_gather=0");
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE users (
+                        id BIGSERIAL PRIMARY KEY,
+                        name VARCHAR(100) NOT NULL,
+                        surname VARCHAR(100) NOT NULL,
+                        birth_date DATE NOT NULL,
+                        email VARCHAR(255) NOT NULL UNIQUE,
+                        active BOOLEAN NOT NULL DEFAULT true,
+                        created_at TIMESTAMP NOT NULL,
+                        updated_at TIMESTAMP
+                    )""");
+            // Имена из слогов дают реалистичное распределение триграмм
+            statement.execute("""
+                    INSERT INTO users (name, surname, birth_date, email, created_at, updated_at)
+                    SELECT initcap(s1.v || s2.v || s3.v),
+                           initcap(s2.v || s4.v || s1.v || 'ova'),
+                           DATE '1950-01-01' + (g % 20000),
+                           'user' || g || '@example.com',
+                           now(), now()
+                    FROM generate_series(1, %d) g
+                    CROSS JOIN LATERAL (SELECT (ARRAY['al','ki','pe','ma','se','an','ol','iv','dm','ni'])[1 + (g * 7) %% 10] AS v) s1
+                    CROSS JOIN LATERAL (SELECT (ARRAY['ex','ri','tr','ri','rg','na','ga','an','it','ko'])[1 + (g * 13 / 10) %% 10] AS v) s2
+                    CROSS JOIN LATERAL (SELECT (ARRAY['ander','l','r','ya','ei','tol','','slav','ry','lai'])[1 + (g / 97) %% 10] AS v) s3
+                    CROSS JOIN LATERAL (SELECT (ARRAY['st','lov','sm','kov','zh','tr','nov','sh','b','v'])[1 + (g / 31) %% 10] AS v) s4
+                    """.formatted(USERS));
+            statement.execute("ANALYZE users");
+        }
+    }
+
+    @Test
+    void compareSequentialScanWithTrigramIndex() throws SQLException {
+        List<Double> withoutIndex = measureAll();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("CREATE INDEX idx_users_name_trgm ON users USING gin (lower(name) gin_trgm_ops)");
+            statement.execute("CREATE INDEX idx_users_surname_trgm ON users USING gin (lower(surname) gin_trgm_ops)");
+            statement.execute("ANALYZE users");
+        }
+        List<Double> withIndex = measureAll();
+
+        System.out.printf("users: %d%n", USERS);
+        System.out.printf("%-22s %14s %14s%n", "query (name, surname)", "seq scan ms", "trigram ms");
+        for (int i = 0; i < QUERIES.length; i++) {
+            System.out.printf("%-22s %14.1f %14.1f%n",
+                    QUERIES[i][0] + ", " + QUERIES[i][1], withoutIndex.get(i), withIndex.get(i));
+        }
+
+        double totalWithout = withoutIndex.stream().mapToDouble(Double::doubleValue).sum();
+        double totalWith = withIndex.stream().mapToDouble(Double::doubleValue).sum();
+        assertThat(totalWith).isLessThan(totalWithout);
+    }
+
+    private List<Double> measureAll() throws SQLException {
+        List<Double> medians = new ArrayList<>();
+        try (Connection connection = connect()) {
+            for (String[] query : QUERIES) {
+                List<Double> timings = new ArrayList<>();
+                for (int run = 0; run < RUNS; run++) {
+                    timings.add(executionTimeMs(connection, query[0], query[1]));
+                }
+                timings.sort(Double::compare);
+                medians.add(timings.get(RUNS / 2));
+            }
+        }
+        return medians;
+    }
+
+    private double executionTimeMs(Connection connection, String name, String surname) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, FORMAT TEXT) " + SEARCH_SQL)) {
+            statement.setString(1, "%" + name + "%");
+            statement.setString(2, "%" + surname + "%");
+            statement.setString(3, name);
+            statement.setString(4, surname);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String line = resultSet.getString(1);
+                    if (line.startsWith("Execution Time:")) {
+                        return Double.parseDouble(line.replaceAll("[^0-9.]", ""));
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("EXPLAIN ANALYZE returned no execution time");
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,96 @@
+package com.stoliar.cache;
+
+import com.stoliar.config.SecurityConfig;
+import com.stoliar.security.GatewayIdentityResolver;
+import com.stoliar.security.JwtClaims;
+import com.stoliar.security.JwtVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Правила доступа к /actuator/cacheinsights: настоящая цепочка безопасности и JWT-фильтр,
+ * вместо actuator - заглушка по тому же пути
+ */
+@WebMvcTest(controllers = CacheInsightsSecurityTest.CacheInsightsStub.class)
+@Import({SecurityConfig.class, CacheInsightsSecurityTest.JwtTestConfig.class})
+@ActiveProfiles("test")
+class CacheInsightsSecurityTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-signing-in-tests-only";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Test
+    void cacheInsights_Admin_Allowed() throws Exception {
+        mockMvc.perform(get("/actuator/cacheinsights").header("Authorization", "Bearer " + token("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/cacheinsights/users").header("Authorization", "Bearer " + token("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void cacheInsights_User_Forbidden() throws Exception {
+        mockMvc.perform(get("/actuator/cacheinsights").header("Authorization", "Bearer " + token("USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void cacheInsights_Anonymous_Rejected() throws Exception {
+        mockMvc.perform(get("/actuator/cacheinsights"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    private String token(String role) {
+        return Jwts.builder()
+                .setSubject(role.toLowerCase() + "@example.com")
+                .claim("role", role)
+                .claim("userId", 1L)
+                .claim("type", JwtClaims.TYPE_ACCESS)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtVerifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @TestConfiguration
+    static class JwtTestConfig {
+
+        @Bean
+        JwtVerifier jwtVerifier() {
+            return new JwtVerifier(SECRET);
+        }
+
+        @Bean
+        GatewayIdentityResolver gatewayIdentityResolver() {
+            return GatewayIdentityResolver.disabled();
+        }
+    }
+
+    @RestController
+    static class CacheInsightsStub {
+
+        @GetMapping({"/actuator/cacheinsights", "/actuator/cacheinsights/users"})
+        Map<String, String> caches() {
+            return Map.of("users", "ok");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.stoliar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheLoadCoordinatorTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisSerializer<Object> valueSerializer;
+
+    @Test
+    void tryAcquireLease_KeyFree_ReturnsToken() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("users::lease::1"), anyString(), eq(Duration.ofSeconds(5))))
+                .thenReturn(true);
+
+        assertNotNull(coordinator(1.0).tryAcquireLease("users", 1L));
+    }
+
+    @Test
+    void tryAcquireLease_HeldByOtherNode_ReturnsNull() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertNull(coordinator(1.0).tryAcquireLease("users", 1L));
+    }
+
+    @Test
+    void tryAcquireLease_RedisUnavailable_LoadsLocally() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertNotNull(coordinator(1.0).tryAcquireLease("users", 1L));
+    }
+
+    @Test
+    void isLeaseHeld_LeaseKeyPresent_ReturnsTrue() {
+        when(redisTemplate.hasKey("users::lease::1")).thenReturn(true);
+
+        assertTrue(coordinator(1.0).isLeaseHeld("users", 1L));
+    }
+
+    @Test
+    void isLeaseHeld_RedisUnavailable_StopsWaiting() {
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertFalse(coordinator(1.0).isLeaseHeld("users", 1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_ReturnsValueWithTtlFromSinglePipeline() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class), eq(valueSerializer)))
+                .thenReturn(List.of("value", 5_000L));
+
+        CacheLoadCoordinator.RemoteEntry entry = coordinator(1.0, valueSerializer).fetch("users", 1L);
+
+        assertEquals(new CacheLoadCoordinator.RemoteEntry("value", 5_000L), entry);
+        verify(redisTemplate, never()).getExpire(anyString(), any());
+    }
+
+    @Test
+    void fetch_WithoutSerializer_ReturnsNull() {
+        assertNull(coordinator(1.0).fetch("users", 1L));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void shouldRefreshEarly_FarFromExpiry_ReturnsFalse() {
+        CacheLoadCoordinator.RemoteEntry entry =
+                new CacheLoadCoordinator.RemoteEntry("v", Duration.ofDays(1).toMillis());
+
+        assertFalse(coordinator(1.0).shouldRefreshEarly(entry, Duration.ofMillis(5)));
+    }
+
+    @Test
+    void shouldRefreshEarly_AboutToExpire_ReturnsTrue() {
+        CacheLoadCoordinator.RemoteEntry entry = new CacheLoadCoordinator.RemoteEntry("v", 1L);
+
+        assertTrue(coordinator(1_000_000.0).shouldRefreshEarly(entry, Duration.ofMillis(5)));
+    }
+
+    @Test
+    void shouldRefreshEarly_NoTtl_ReturnsFalse() {
+        CacheLoadCoordinator.RemoteEntry entry = new CacheLoadCoordinator.RemoteEntry(null, -2L);
+
+        assertFalse(coordinator(1_000_000.0).shouldRefreshEarly(entry, Duration.ofMillis(5)));
+    }
+
+    private CacheLoadCoordinator coordinator(double beta) {
+        return coordinator(beta, null);
+    }
+
+    private CacheLoadCoordinator coordinator(double beta, RedisSerializer<Object> serializer) {
+        return new CacheLoadCoordinator(redisTemplate, Duration.ofSeconds(5), Duration.ofSeconds(2),
+                beta, Duration.ofSeconds(10), serializer);
+    }
+}
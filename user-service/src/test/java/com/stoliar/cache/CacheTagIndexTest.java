@@ -0,0 +1,56 @@
+package com.stoliar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheTagIndexTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void pop_ReadsAndDeletesTagInOneScript() {
+        // Given
+        CacheTagIndex tagIndex = new CacheTagIndex(redisTemplate, Duration.ofMinutes(10));
+        when(redisTemplate.execute(any(RedisScript.class), anyList()))
+                .thenReturn(List.of("users|1", "paymentCards|10"));
+
+        // When
+        Set<String> members = tagIndex.pop("user:1");
+
+        // Then
+        assertEquals(Set.of("users|1", "paymentCards|10"), members);
+        ArgumentCaptor<RedisScript> script = ArgumentCaptor.forClass(RedisScript.class);
+        verify(redisTemplate).execute(script.capture(), eq(List.of(CacheKeys.tagKey("user:1"))));
+        assertTrue(script.getValue().getScriptAsString().contains("smembers"));
+        assertTrue(script.getValue().getScriptAsString().contains("del"));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pop_MissingTag_ReturnsEmptySet() {
+        // Given
+        CacheTagIndex tagIndex = new CacheTagIndex(redisTemplate, Duration.ofMinutes(10));
+        when(redisTemplate.execute(any(RedisScript.class), anyList())).thenReturn(null);
+
+        // When & Then
+        assertTrue(tagIndex.pop("user:2").isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package com.stoliar.cache;
+
+import com.stoliar.dto.PaymentCardDTO;
+import com.stoliar.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(CacheTypeRegistry.defaults(), 512);
+
+    @Test
+    void roundTrip_User_KeepsReadOnlyFields() {
+        UserDTO user = user(1L);
+
+        Object result = serializer.deserialize(serializer.serialize(user));
+
+        assertEquals(user, result);
+    }
+
+    @Test
+    void roundTrip_CardList() {
+        List<PaymentCardDTO> cards = List.of(card(1L), card(2L));
+
+        Object result = serializer.deserialize(serializer.serialize(cards));
+
+        assertEquals(cards, result);
+    }
+
+    @Test
+    void roundTrip_EmptyList() {
+        assertEquals(List.of(), serializer.deserialize(serializer.serialize(List.of())));
+    }
+
+    @Test
+    void serialize_LargeValue_IsCompressed() {
+        List<PaymentCardDTO> cards = LongStream.rangeClosed(1, 50).mapToObj(this::card).toList();
+
+        byte[] bytes = serializer.serialize(cards);
+
+        assertEquals(1, bytes[2] & 0x01);
+        assertEquals(cards, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void serialize_IsSmallerThanJdkSerialization() {
+        UserDTO user = user(1L);
+
+        byte[] compact = serializer.serialize(user);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(user);
+
+        assertTrue(compact.length < jdk.length);
+    }
+
+    @Test
+    void serialize_UnregisteredType_ThrowsException() {
+        assertThrows(SerializationException.class, () -> serializer.serialize("plain string"));
+    }
+
+    @Test
+    void deserialize_JdkSerializedValue_ReturnsNull() {
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(user(1L));
+
+        assertNull(serializer.deserialize(jdk));
+    }
+
+    @Test
+    void deserialize_NewerSchemaVersion_ReturnsNull() {
+        CompactCacheSerializer newer = new CompactCacheSerializer(
+                new CacheTypeRegistry().register("user", UserDTO.class, 2), 512);
+
+        assertNull(serializer.deserialize(newer.serialize(user(1L))));
+    }
+
+    @Test
+    void deserialize_CorruptedBody_ReturnsNull() {
+        byte[] bytes = serializer.serialize(user(1L));
+        bytes[bytes.length - 1] = '#';
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    private UserDTO user(Long id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setName("John");
+        user.setSurname("Doe");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setEmail("john" + id + "@example.com");
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 10, 0, 0));
+        return user;
+    }
+
+    private PaymentCardDTO card(Long id) {
+        PaymentCardDTO card = new PaymentCardDTO();
+        card.setId(id);
+        card.setUserId(1L);
+        card.setNumber(String.format("4111111111%06d", id));
+        card.setHolder("JOHN DOE");
+        card.setExpirationDate(LocalDate.of(2030, 12, 31));
+        card.setActive(true);
+        card.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        card.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0));
+        return card;
+    }
+}
@@ -0,0 +1,61 @@
+package com.stoliar.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeySamplerTest {
+
+    @Test
+    void top_OrdersKeysByFrequency() {
+        HotKeySampler sampler = new HotKeySampler(1.0, 10);
+        record(sampler, "a", 5);
+        record(sampler, "b", 9);
+        record(sampler, "c", 1);
+
+        List<HotKeySampler.HotKey> top = sampler.top(2);
+
+        assertEquals(List.of("b", "a"), top.stream().map(HotKeySampler.HotKey::key).toList());
+        assertEquals(9, top.get(0).sampledHits());
+    }
+
+    @Test
+    void record_AtCapacity_ReplacesRarestKeyAndKeepsItsCountAsError() {
+        HotKeySampler sampler = new HotKeySampler(1.0, 2);
+        record(sampler, "hot", 10);
+        record(sampler, "cold", 2);
+
+        sampler.record("new");
+
+        List<HotKeySampler.HotKey> top = sampler.top(10);
+        assertEquals(List.of("hot", "new"), top.stream().map(HotKeySampler.HotKey::key).toList());
+        assertEquals(3, top.get(1).sampledHits());
+        assertEquals(2, top.get(1).error());
+    }
+
+    @Test
+    void disabled_RecordsNothing() {
+        HotKeySampler sampler = HotKeySampler.disabled();
+        record(sampler, "a", 100);
+
+        assertTrue(sampler.top(10).isEmpty());
+    }
+
+    @Test
+    void reset_ClearsSamples() {
+        HotKeySampler sampler = new HotKeySampler(1.0, 10);
+        record(sampler, "a", 3);
+
+        sampler.reset();
+
+        assertTrue(sampler.top(10).isEmpty());
+    }
+
+    private static void record(HotKeySampler sampler, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            sampler.record(key);
+        }
+    }
+}
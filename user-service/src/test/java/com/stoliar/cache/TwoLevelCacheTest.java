@@ -0,0 +1,355 @@
+package com.stoliar.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    @Mock
+    private CacheLoadCoordinator coordinator;
+
+    @Mock
+    private CacheTagIndex tagIndex;
+
+    private ConcurrentMapCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("users");
+        cache = new TwoLevelCache(remote, Caffeine.newBuilder().maximumSize(100).build(), publisher,
+                coordinator, tagIndex, (key, value) -> "user:" + value);
+    }
+
+    @Test
+    void get_RemoteHit_IsServedFromLocalAfterwards() {
+        remote.put(1L, "user-1");
+
+        assertEquals("user-1", cache.get(1L).get());
+        remote.evict(1L);
+
+        assertEquals("user-1", cache.get(1L).get());
+    }
+
+    @Test
+    void get_Miss_ReturnsNull() {
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void get_WithLoader_StoresInBothLevels() {
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn("lease");
+
+        assertEquals("user-1", cache.get(1L, () -> "user-1"));
+
+        assertEquals("user-1", remote.get(1L).get());
+        assertEquals("user-1", cache.get(1L, () -> "other"));
+        verify(coordinator).releaseLease("users", 1L, "lease");
+    }
+
+    @Test
+    void get_WithLoader_ConcurrentMisses_LoadOnce() throws Exception {
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn("lease");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return "user-1";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1L, loader)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("user-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WithLoader_LeaseHeldElsewhere_WaitsForRemoteValue() {
+        AtomicBoolean leaseHeld = new AtomicBoolean(true);
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn(null);
+        when(coordinator.getLeaseWait()).thenReturn(Duration.ofSeconds(2));
+        when(coordinator.isLeaseHeld("users", 1L)).thenAnswer(invocation -> leaseHeld.get());
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            remote.put(1L, "loaded-by-other-node");
+            leaseHeld.set(false);
+        }).start();
+
+        Object result = cache.get(1L, () -> fail("Loader must not run"));
+
+        assertEquals("loaded-by-other-node", result);
+    }
+
+    @Test
+    void get_WithLoader_LeaseReleasedWithoutValue_StopsWaitingAndLoads() {
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn(null, "lease");
+        when(coordinator.getLeaseWait()).thenReturn(Duration.ofSeconds(10));
+        when(coordinator.isLeaseHeld("users", 1L)).thenReturn(false);
+
+        long start = System.nanoTime();
+        assertEquals("loaded", cache.get(1L, () -> "loaded"));
+
+        // Аренда снята при первом опросе - весь lease-wait не ждем
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals("loaded", remote.get(1L).get());
+        verify(coordinator).releaseLease("users", 1L, "lease");
+    }
+
+    @Test
+    void get_WithLoader_RemoteHitFromFetch_ServedWithoutSeparateRead() {
+        // Значение и TTL пришли одним конвейером, обычный get в Redis не нужен
+        CacheLoadCoordinator.RemoteEntry entry = new CacheLoadCoordinator.RemoteEntry("from-redis", 60_000);
+        when(coordinator.fetch("users", 1L)).thenReturn(entry);
+        when(coordinator.shouldRefreshEarly(eq(entry), any())).thenReturn(false);
+
+        assertEquals("from-redis", cache.get(1L, () -> fail("Loader must not run")));
+
+        assertEquals(1, cache.getStatistics().getRemoteHits());
+        verify(coordinator, never()).tryAcquireLease(any(), any());
+    }
+
+    @Test
+    void get_WithLoader_EarlyRefresh_ReloadsHotKey() {
+        remote.put(1L, "stale");
+        CacheLoadCoordinator.RemoteEntry entry = new CacheLoadCoordinator.RemoteEntry("stale", 5);
+        when(coordinator.fetch("users", 1L)).thenReturn(entry);
+        when(coordinator.shouldRefreshEarly(eq(entry), any())).thenReturn(true);
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn("lease");
+
+        assertEquals("fresh", cache.get(1L, () -> "fresh"));
+
+        assertEquals("fresh", remote.get(1L).get());
+    }
+
+    @Test
+    void get_WithLoader_LoaderFails_WrapsException() {
+        when(coordinator.tryAcquireLease("users", 1L)).thenReturn("lease");
+        IllegalStateException failure = new IllegalStateException("db down");
+
+        Cache.ValueRetrievalException exception = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get(1L, () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, exception.getCause());
+        assertNull(remote.get(1L));
+    }
+
+    @Test
+    void put_WritesThroughAndBroadcastsEviction() {
+        cache.put(1L, "user-1");
+
+        assertEquals("user-1", remote.get(1L).get());
+        verify(publisher).publishEvict("users", 1L);
+    }
+
+    @Test
+    void put_IndexesKeyUnderTag() {
+        cache.put(1L, "owner-7");
+
+        verify(tagIndex).add("user:owner-7", "users", 1L);
+    }
+
+    @Test
+    void evictTag_EvictsIndexedEntriesOnly() {
+        ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("users", "paymentCards");
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(
+                remoteManager, publisher, coordinator, tagIndex, Map.of(), 100, Duration.ofMinutes(1));
+        Cache cards = manager.getCache("paymentCards");
+        cards.put("10", "card-10");
+        cards.put("11", "card-11");
+        when(tagIndex.pop("user:1")).thenReturn(Set.of("paymentCards|10"));
+
+        manager.evictTag("user:1");
+
+        assertNull(cards.get("10"));
+        assertEquals("card-11", cards.get("11").get());
+        // Один раз при записи, второй - при сбросе по тегу
+        verify(publisher, times(2)).publishEvict("paymentCards", "10");
+    }
+
+    @Test
+    void evict_DropsBothLevelsAndBroadcasts() {
+        cache.put(1L, "user-1");
+
+        cache.evict(1L);
+
+        assertNull(remote.get(1L));
+        assertNull(cache.get(1L));
+        verify(publisher, times(2)).publishEvict("users", 1L);
+    }
+
+    @Test
+    void clear_BroadcastsClear() {
+        cache.put(1L, "user-1");
+
+        cache.clear();
+
+        assertNull(cache.get(1L));
+        verify(publisher).publishClear("users");
+    }
+
+    @Test
+    void listener_ForeignInvalidation_EvictsLocalEntry() {
+        ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("users");
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(
+                remoteManager, publisher, coordinator, tagIndex, Map.of(), 100, Duration.ofMinutes(1));
+        Cache users = manager.getCache("users");
+        users.put(1L, "user-1");
+        // Другая реплика обновила запись в Redis
+        remoteManager.getCache("users").evict(1L);
+        CacheInvalidationListener listener = new CacheInvalidationListener(manager, "local");
+
+        listener.onMessage(message(CacheInvalidation.evict("remote", "users", 1L)), null);
+
+        assertNull(users.get(1L));
+    }
+
+    @Test
+    void listener_OwnInvalidation_IsIgnored() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(
+                new ConcurrentMapCacheManager("users"), publisher, coordinator, tagIndex, Map.of(),
+                100, Duration.ofMinutes(1));
+        Cache users = manager.getCache("users");
+        users.put(1L, "user-1");
+        CacheInvalidationListener listener = new CacheInvalidationListener(manager, "local");
+
+        listener.onMessage(message(CacheInvalidation.clear("local", "users")), null);
+
+        assertEquals("user-1", users.get(1L).get());
+    }
+
+    @Test
+    void decode_RoundTrip() {
+        CacheInvalidation invalidation = CacheInvalidation.evict("node-1", "paymentCards", "42");
+
+        assertEquals(invalidation, CacheInvalidation.decode(invalidation.encode()));
+        assertTrue(CacheInvalidation.decode(CacheInvalidation.clear("node-1", "users").encode()).isClear());
+        assertThrows(IllegalArgumentException.class, () -> CacheInvalidation.decode("garbage"));
+    }
+
+    private DefaultMessage message(CacheInvalidation invalidation) {
+        return new DefaultMessage("channel".getBytes(StandardCharsets.UTF_8),
+                invalidation.encode().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void statistics_CountHitsPerLevelMissesLoadsAndEvictions() {
+        when(coordinator.tryAcquireLease("users", 2L)).thenReturn("lease");
+        remote.put(1L, "user-1");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(3L);
+        cache.get(2L, () -> "user-2");
+        cache.evict(1L);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getLocalHits());
+        assertEquals(1, statistics.getRemoteHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(1, statistics.getLoadSuccesses());
+        assertEquals(1, statistics.getPuts());
+        assertEquals(1, statistics.getEvictions());
+    }
+
+    @Test
+    void metrics_ExposeStatisticsThroughMeterBinder() {
+        remote.put(1L, "user-1");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TwoLevelCacheMetrics(cache, Tags.of("cache.manager", "cacheManager")).bindTo(registry);
+
+        assertEquals(2, registry.get("cache.gets").tags("cache", "users", "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "users", "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.local.gets").tags("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.local.size").gauge().value());
+    }
+
+    @Test
+    void hotKeys_SampledOnEveryAccessWhenRateIsOne() {
+        TwoLevelCache sampled = new TwoLevelCache(remote, Caffeine.newBuilder().maximumSize(100).build(), publisher,
+                coordinator, tagIndex, null, new HotKeySampler(1.0, 10));
+        remote.put(1L, "user-1");
+        remote.put(2L, "user-2");
+
+        for (int i = 0; i < 3; i++) {
+            sampled.get(1L);
+        }
+        sampled.get(2L);
+
+        List<HotKeySampler.HotKey> top = sampled.getHotKeys().top(1);
+        assertEquals(1, top.size());
+        assertEquals("1", top.get(0).key());
+        assertEquals(3, top.get(0).estimatedHits());
+    }
+
+    @Test
+    void warm_KeepsExistingRemoteValueAndDoesNotBroadcast() {
+        remote.put(1L, "fresh");
+
+        assertFalse(cache.warm(1L, "stale"));
+        assertTrue(cache.warm(2L, "user-2"));
+
+        assertEquals("fresh", remote.get(1L).get());
+        assertEquals("user-2", remote.get(2L).get());
+        remote.clear();
+        assertEquals("fresh", cache.get(1L).get());
+        assertEquals("user-2", cache.get(2L).get());
+        verify(tagIndex).add("user:user-2", "users", 2L);
+        verifyNoInteractions(publisher);
+    }
+}
@@ -0,0 +1,190 @@
+package com.stoliar.repository;
+
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.service.impl.PaymentCardServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Счетчик users.active_card_count и лимит карт на схеме из changelog: триггер существует только
+ * в миграции 004, поэтому здесь вместо ddl-auto запускается Liquibase на отдельном контейнере.
+ * Каждый шаг коммитится в своей транзакции, как в сервисе
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.yaml",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@ActiveProfiles("integration-test")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentCardActiveCountRepositoryTest {
+
+    private static final AtomicLong CARD_NUMBERS = new AtomicLong(4000_0000_0000_0000L);
+
+    @Container
+    static final PostgreSQLContainer<?> postgresqlContainer = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:15-alpine")
+    )
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    static {
+        postgresqlContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresqlContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresqlContainer::getUsername);
+        registry.add("spring.datasource.password", postgresqlContainer::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @Autowired
+    private PaymentCardRepository paymentCardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void activeCardCount_TracksInsertDeactivateAndDelete() {
+        // Given
+        Long userId = createUser();
+
+        // When & Then - вставка
+        PaymentCard first = createCard(userId);
+        PaymentCard second = createCard(userId);
+        assertEquals(2, activeCardCount(userId));
+
+        // деактивация
+        transactionTemplate.executeWithoutResult(status ->
+                paymentCardRepository.findById(first.getId()).orElseThrow().setActive(false));
+        assertEquals(1, activeCardCount(userId));
+
+        // удаление неактивной карты счетчик не меняет, активной - уменьшает
+        transactionTemplate.executeWithoutResult(status -> paymentCardRepository.deleteById(first.getId()));
+        assertEquals(1, activeCardCount(userId));
+        transactionTemplate.executeWithoutResult(status -> paymentCardRepository.deleteById(second.getId()));
+        assertEquals(0, activeCardCount(userId));
+    }
+
+    @Test
+    void createCardForActiveUser_SixthCard_ShouldBeRejected() {
+        // Given
+        Long userId = createUser();
+        for (int i = 0; i < PaymentCardServiceImpl.MAX_ACTIVE_CARDS; i++) {
+            assertNotNull(createCard(userId));
+        }
+
+        // When
+        PaymentCard sixth = createCard(userId);
+
+        // Then
+        assertNull(sixth);
+        assertEquals(PaymentCardServiceImpl.MAX_ACTIVE_CARDS, activeCardCount(userId));
+        assertEquals(PaymentCardServiceImpl.MAX_ACTIVE_CARDS, cardCount(userId));
+    }
+
+    @Test
+    void createCardForActiveUser_ConcurrentCreatesAtLimitMinusOne_ShouldInsertExactlyOne() throws Exception {
+        // Given - четыре карты, осталось одно место
+        Long userId = createUser();
+        for (int i = 0; i < PaymentCardServiceImpl.MAX_ACTIVE_CARDS - 1; i++) {
+            createCard(userId);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<PaymentCard> create = () -> {
+            start.await();
+            return createCard(userId);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            List<Future<PaymentCard>> results = List.of(executor.submit(create), executor.submit(create));
+            start.countDown();
+            long created = 0;
+            for (Future<PaymentCard> result : results) {
+                if (result.get(30, TimeUnit.SECONDS) != null) {
+                    created++;
+                }
+            }
+
+            // Then
+            assertEquals(1, created);
+            assertEquals(PaymentCardServiceImpl.MAX_ACTIVE_CARDS, activeCardCount(userId));
+            assertEquals(PaymentCardServiceImpl.MAX_ACTIVE_CARDS, cardCount(userId));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long createUser() {
+        return transactionTemplate.execute(status -> userRepository.createUser("Card", "Owner",
+                LocalDate.of(1990, 1, 1), "cards" + UUID.randomUUID() + "@example.com")).getId();
+    }
+
+    private PaymentCard createCard(Long userId) {
+        return transactionTemplate.execute(status -> paymentCardRepository.createCardForActiveUser(
+                userId,
+                String.valueOf(CARD_NUMBERS.incrementAndGet()),
+                "Card Owner",
+                LocalDate.now().plusYears(2),
+                PaymentCardServiceImpl.MAX_ACTIVE_CARDS));
+    }
+
+    private int activeCardCount(Long userId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT active_card_count FROM users WHERE id = ?", Integer.class, userId));
+    }
+
+    private int cardCount(Long userId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payment_cards WHERE user_id = ?", Integer.class, userId));
+    }
+}
@@ -222,6 +222,53 @@ class PaymentCardRepositoryTest extends AbstractJpaTest {
         assertFalse(deletedCard.isPresent());
     }
 
+    @Test
+    @Transactional
+    void testCreateCardForActiveUser_ShouldCreateCard() {
+        // Given
+        User user = createTestUser();
+
+        // When
+        PaymentCard card = paymentCardRepository.createCardForActiveUser(
+                user.getId(), "4444333322221111", "Test Holder", LocalDate.now().plusYears(2), 5);
+
+        // Then
+        assertNotNull(card);
+        assertEquals("4444333322221111", card.getNumber());
+        assertTrue(card.getActive());
+    }
+
+    @Test
+    @Transactional
+    void testCreateCardForActiveUser_InactiveUser_ShouldReturnNull() {
+        // Given
+        User user = createTestUser();
+        user.setActive(false);
+        entityManager.persistAndFlush(user);
+
+        // When
+        PaymentCard card = paymentCardRepository.createCardForActiveUser(
+                user.getId(), "4444333322221112", "Test Holder", LocalDate.now().plusYears(2), 5);
+
+        // Then
+        assertNull(card);
+        assertTrue(paymentCardRepository.findByNumber("4444333322221112").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void testCreateCardForActiveUser_LimitReached_ShouldReturnNull() {
+        // Given
+        User user = createTestUser();
+
+        // When
+        PaymentCard card = paymentCardRepository.createCardForActiveUser(
+                user.getId(), "4444333322221113", "Test Holder", LocalDate.now().plusYears(2), 0);
+
+        // Then
+        assertNull(card);
+    }
+
     private User createTestUser() {
         User user = new User();
         user.setName("Test");
@@ -2,14 +2,20 @@ package com.stoliar.repository;
 
 import com.stoliar.entity.PaymentCard;
 import com.stoliar.entity.User;
+import com.stoliar.specification.UserSpecifications;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -188,6 +194,77 @@ class UserRepositoryTest extends AbstractJpaTest {
         assertEquals(2, activeCardCount); // Две активные карты
     }
 
+    @Test
+    void testFindKeysetPageAfter_SameCreatedAt_ShouldSeekById() {
+        // Given - в одной транзакции CURRENT_TIMESTAMP одинаковый, порядок задает id
+        User first = userRepository.createUser("John", "Doe", LocalDate.of(1990, 1, 1),
+                "first" + UUID.randomUUID() + "@example.com");
+        User second = userRepository.createUser("Jane", "Doe", LocalDate.of(1991, 1, 1),
+                "second" + UUID.randomUUID() + "@example.com");
+        User third = userRepository.createUser("Jack", "Doe", LocalDate.of(1992, 1, 1),
+                "third" + UUID.randomUUID() + "@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Long> firstPage = userRepository.findKeysetFirstPage(Limit.of(2)).stream()
+                .map(User::getId)
+                .toList();
+        List<Long> afterFirst = userRepository.findKeysetPageAfter(first.getCreatedAt(), first.getId(), Limit.of(10))
+                .stream()
+                .map(User::getId)
+                .toList();
+
+        // Then
+        assertEquals(List.of(first.getId(), second.getId()), firstPage);
+        assertEquals(List.of(second.getId(), third.getId()), afterFirst);
+    }
+
+    @Test
+    void testFindAllCapped_MoreMatchesThanCap_ShouldCapTotalAndLastPage() {
+        // Given - пять совпадений при границе выдачи в три
+        String surname = "Capped" + UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 5; i++) {
+            userRepository.createUser("John", surname, LocalDate.of(1990, 1, 1),
+                    "capped" + i + UUID.randomUUID() + "@example.com");
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Specification<User> spec = UserSpecifications.hasSurname(surname);
+
+        // When
+        Page<User> firstPage = userRepository.findAllCapped(spec, PageRequest.of(0, 2), 3);
+        Page<User> lastPage = userRepository.findAllCapped(spec, PageRequest.of(1, 2), 3);
+        Page<User> beyondCap = userRepository.findAllCapped(spec, PageRequest.of(2, 2), 3);
+
+        // Then
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertEquals(3, firstPage.getTotalElements());
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertEquals(3, lastPage.getTotalElements());
+        assertTrue(beyondCap.isEmpty());
+    }
+
+    @Test
+    void testFindAllCapped_FewerMatchesThanCap_ShouldReturnExactTotal() {
+        // Given
+        String surname = "Exact" + UUID.randomUUID().toString().substring(0, 8);
+        userRepository.createUser("John", surname, LocalDate.of(1990, 1, 1),
+                "exact" + UUID.randomUUID() + "@example.com");
+        userRepository.createUser("Jane", surname, LocalDate.of(1991, 1, 1),
+                "exact" + UUID.randomUUID() + "@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Page<User> page = userRepository.findAllCapped(UserSpecifications.hasSurname(surname),
+                PageRequest.of(0, 10), 1000);
+
+        // Then
+        assertEquals(2, page.getNumberOfElements());
+        assertEquals(2, page.getTotalElements());
+    }
+
     @Test
     void testCreateUser_WithDuplicateEmail_ShouldThrowException() {
         // Given
@@ -1,26 +1,38 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.PaymentCardCreateDTO;
 import com.stoliar.dto.PaymentCardDTO;
 import com.stoliar.entity.PaymentCard;
 import com.stoliar.entity.User;
+import com.stoliar.exception.BusinessRuleException;
+import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.exception.EntityNotFoundException;
 import com.stoliar.mapper.PaymentCardMapper;
 import com.stoliar.repository.PaymentCardRepository;
 import com.stoliar.repository.UserRepository;
+import com.stoliar.service.precheck.UniquenessPrecheck;
 import com.stoliar.service.impl.PaymentCardServiceImpl;
+import com.stoliar.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +53,9 @@ class PaymentCardServiceTest {
     @Mock
     private PaymentCardMapper paymentCardMapper;
 
+    @Mock
+    private UniquenessPrecheck uniquenessPrecheck;
+
     @InjectMocks
     private PaymentCardServiceImpl paymentCardService;
 
@@ -69,14 +84,12 @@ class PaymentCardServiceTest {
         expectedDTO.setNumber("1234567890123456");
         expectedDTO.setUserId(userId);
 
-        when(userRepository.findUserById(userId)).thenReturn(user);
-        when(userRepository.countActiveCardsByUserId(userId)).thenReturn(2);
-        when(paymentCardRepository.findByNumber("1234567890123456")).thenReturn(Optional.empty());
-        when(paymentCardRepository.createCard(
+        when(paymentCardRepository.createCardForActiveUser(
                 eq(userId),
                 eq("1234567890123456"),
                 eq("John Doe"),
-                eq(createDTO.getExpirationDate())
+                eq(createDTO.getExpirationDate()),
+                eq(5)
         )).thenReturn(card);
         when(paymentCardMapper.toDTO(card)).thenReturn(expectedDTO);
 
@@ -88,12 +101,91 @@ class PaymentCardServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("1234567890123456", result.getNumber());
 
-        verify(paymentCardRepository).createCard(
+        verify(paymentCardRepository).createCardForActiveUser(
                 userId,
                 "1234567890123456",
                 "John Doe",
-                createDTO.getExpirationDate()
+                createDTO.getExpirationDate(),
+                5
         );
+        // Проверки выполняются в том же запросе, что и вставка
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testCreatePaymentCard_UserNotFound_ShouldThrowException() {
+        // Given
+        when(paymentCardRepository.createCardForActiveUser(eq(1L), any(), any(), any(), eq(5))).thenReturn(null);
+        when(userRepository.findUserById(1L)).thenReturn(null);
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class,
+                () -> paymentCardService.createPaymentCard(1L, createDTO("1234567890123456")));
+    }
+
+    @Test
+    void testCreatePaymentCard_InactiveUser_ShouldThrowException() {
+        // Given
+        User user = new User();
+        user.setId(1L);
+        user.setActive(false);
+
+        when(paymentCardRepository.createCardForActiveUser(eq(1L), any(), any(), any(), eq(5))).thenReturn(null);
+        when(userRepository.findUserById(1L)).thenReturn(user);
+
+        // When & Then
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> paymentCardService.createPaymentCard(1L, createDTO("1234567890123456")));
+        assertEquals("Cannot add card to inactive user", exception.getMessage());
+    }
+
+    @Test
+    void testCreatePaymentCard_CardLimitReached_ShouldThrowException() {
+        // Given
+        User user = new User();
+        user.setId(1L);
+        user.setActive(true);
+
+        when(paymentCardRepository.createCardForActiveUser(eq(1L), any(), any(), any(), eq(5))).thenReturn(null);
+        when(userRepository.findUserById(1L)).thenReturn(user);
+        when(userRepository.countActiveCardsByUserId(1L)).thenReturn(5);
+
+        // When & Then
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> paymentCardService.createPaymentCard(1L, createDTO("1234567890123456")));
+        assertTrue(exception.getMessage().contains("Current count: 5"));
+    }
+
+    @Test
+    void testCreatePaymentCard_DuplicateNumber_ShouldThrowDuplicateResourceException() {
+        // Given
+        when(paymentCardRepository.createCardForActiveUser(eq(1L), any(), any(), any(), eq(5)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("ERROR: duplicate key value violates unique constraint \"uk_payment_cards_number\"")));
+
+        // When & Then
+        assertThrows(DuplicateResourceException.class,
+                () -> paymentCardService.createPaymentCard(1L, createDTO("1234567890123456")));
+    }
+
+    @Test
+    void testCreatePaymentCard_OtherIntegrityViolation_ShouldPropagate() {
+        // Given
+        when(paymentCardRepository.createCardForActiveUser(eq(1L), any(), any(), any(), eq(5)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("ERROR: value too long for type character varying(19)")));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> paymentCardService.createPaymentCard(1L, createDTO("1234567890123456")));
+    }
+
+    private PaymentCardCreateDTO createDTO(String number) {
+        PaymentCardCreateDTO createDTO = new PaymentCardCreateDTO();
+        createDTO.setNumber(number);
+        createDTO.setHolder("John Doe");
+        createDTO.setExpirationDate(LocalDate.now().plusYears(2));
+        return createDTO;
     }
 
     @Test
@@ -263,4 +355,81 @@ class PaymentCardServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllCardsByUserIdPaged_ShouldBuildPageFromCardList() {
+        // Given
+        Long userId = 1L;
+        ReflectionTestUtils.setField(paymentCardService, "self", paymentCardService);
+
+        List<PaymentCard> cards = List.of(new PaymentCard(), new PaymentCard(), new PaymentCard());
+        List<PaymentCardDTO> cardDTOs = List.of(cardDTO(1L), cardDTO(2L), cardDTO(3L));
+
+        when(paymentCardRepository.findAllByUserId(userId)).thenReturn(cards);
+        when(paymentCardMapper.toDTOList(cards)).thenReturn(cardDTOs);
+
+        // When
+        Page<PaymentCardDTO> result = paymentCardService.getAllCardsByUserId(
+                userId, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        // Then
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of(3L, 2L), result.getContent().stream().map(PaymentCardDTO::getId).toList());
+        verify(paymentCardRepository, never()).findAll((Specification<PaymentCard>) any(), any(Pageable.class));
+    }
+
+    @Test
+    void testGetAllCardsByUserIdPaged_UnknownSortField_ShouldQueryDatabase() {
+        // Given
+        Long userId = 1L;
+        ReflectionTestUtils.setField(paymentCardService, "self", paymentCardService);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("user.email"));
+
+        PaymentCard card = new PaymentCard();
+        when(paymentCardRepository.findAll((Specification<PaymentCard>) any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(card)));
+        when(paymentCardMapper.toDTO(card)).thenReturn(cardDTO(1L));
+
+        // When
+        Page<PaymentCardDTO> result = paymentCardService.getAllCardsByUserId(userId, pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        verify(paymentCardRepository, never()).findAllByUserId(userId);
+    }
+
+    private PaymentCardDTO cardDTO(Long id) {
+        PaymentCardDTO cardDTO = new PaymentCardDTO();
+        cardDTO.setId(id);
+        cardDTO.setUserId(1L);
+        return cardDTO;
+    }
+
+    @Test
+    void testGetCardsByUserIdAfter_WithCursor_ShouldReturnNextCursorAndTotal() {
+        // Given
+        Long userId = 1L;
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        PaymentCard card = new PaymentCard();
+        card.setId(11L);
+        card.setCreatedAt(createdAt);
+        PaymentCard extra = new PaymentCard();
+        extra.setId(12L);
+        extra.setCreatedAt(createdAt);
+
+        when(paymentCardRepository.findKeysetPageByUserIdAfter(userId, createdAt, 10L, Limit.of(2)))
+                .thenReturn(List.of(card, extra));
+        when(paymentCardMapper.toDTO(card)).thenReturn(new PaymentCardDTO());
+        when(paymentCardRepository.countByUserId(userId)).thenReturn(5L);
+
+        // When
+        CursorPage<PaymentCardDTO> result = paymentCardService.getCardsByUserIdAfter(
+                userId, new KeysetCursor(createdAt, 10L).encode(), 1, true);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(new KeysetCursor(createdAt, 11L), KeysetCursor.decode(result.getNextCursor()));
+        assertEquals(5L, result.getTotalElements());
+    }
+}
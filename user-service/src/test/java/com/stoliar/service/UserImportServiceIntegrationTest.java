@@ -0,0 +1,118 @@
+package com.stoliar.service;
+
+import com.stoliar.dto.ImportConflictDTO;
+import com.stoliar.dto.ImportReportDTO;
+import com.stoliar.entity.User;
+import com.stoliar.integration.AbstractIntegrationTest;
+import com.stoliar.integration.TestIntegrationSecurityConfig;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.service.importing.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration-test")
+@Transactional
+@Import(TestIntegrationSecurityConfig.class)
+class UserImportServiceIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentCardRepository paymentCardRepository;
+
+    @Test
+    void testImportCsv_ShouldMergeRowsAndReportConflicts() {
+        // Given
+        saveUser("existing@import.test", true);
+        saveUser("inactive@import.test", false);
+        String expiration = LocalDate.now().plusYears(2).toString();
+        String csv = """
+                type,email,name,surname,birth_date,number,holder,expiration_date
+                user,new@import.test,New,User,1990-01-01,,,
+                user,new@import.test,Again,User,1990-01-01,,,
+                user,existing@import.test,Existing,User,1990-01-01,,,
+                card,new@import.test,,,,1111000011110000,NEW USER,%1$s
+                card,new@import.test,,,,1111000011110000,NEW USER,%1$s
+                card,ghost@import.test,,,,2222000022220000,GHOST,%1$s
+                card,inactive@import.test,,,,3333000033330000,INACTIVE,%1$s
+                user,not-an-email,Bad,User,1990-01-01,,,
+                card,existing@import.test,,,,4444000044440000,EXISTING,%1$s
+                """.formatted(expiration);
+
+        // When
+        ImportReportDTO report = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        // Then
+        assertEquals(9, report.getTotalRows());
+        assertEquals(1, report.getInsertedUsers());
+        assertEquals(2, report.getInsertedCards());
+        assertEquals(6, report.getRejectedRows());
+        assertEquals(List.of(
+                "9:INVALID_ROW",
+                "3:DUPLICATE_IN_IMPORT",
+                "4:EMAIL_EXISTS",
+                "6:DUPLICATE_IN_IMPORT",
+                "7:OWNER_NOT_FOUND",
+                "8:OWNER_INACTIVE"
+        ), report.getConflicts().stream().map(UserImportServiceIntegrationTest::describe).toList());
+
+        Long newUserId = userRepository.findIdByEmail("new@import.test").orElseThrow();
+        assertEquals(1, paymentCardRepository.findAllByUserId(newUserId).size());
+        assertTrue(paymentCardRepository.findByNumber("4444000044440000").isPresent());
+    }
+
+    @Test
+    void testImportNdjson_CardLimit_ShouldRejectCardsOverLimit() {
+        // Given
+        User owner = saveUser("limit@import.test", true);
+        String expiration = LocalDate.now().plusYears(2).toString();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            ndjson.append("""
+                    {"type":"card","email":"limit@import.test","number":"555500005555000%d","holder":"LIMIT","expirationDate":"%s"}
+                    """.formatted(i, expiration));
+        }
+
+        // When
+        ImportReportDTO report = userImportService.importUsers(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        // Then
+        assertEquals(5, report.getInsertedCards());
+        assertEquals(1, report.getRejectedRows());
+        assertEquals("6:CARD_LIMIT_EXCEEDED", describe(report.getConflicts().get(0)));
+        assertEquals(5, paymentCardRepository.findAllByUserId(owner.getId()).size());
+    }
+
+    private User saveUser(String email, boolean active) {
+        User user = new User();
+        user.setName("Test");
+        user.setSurname("User");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setEmail(email);
+        user.setActive(active);
+        return userRepository.saveAndFlush(user);
+    }
+
+    private static String describe(ImportConflictDTO conflict) {
+        return conflict.getLine() + ":" + conflict.getReason();
+    }
+}
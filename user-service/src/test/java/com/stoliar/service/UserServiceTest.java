@@ -1,17 +1,26 @@
 package com.stoliar.service;
 
+import com.stoliar.dto.CursorPage;
 import com.stoliar.dto.UserCreateDTO;
 import com.stoliar.dto.UserDTO;
 import com.stoliar.entity.User;
+import com.stoliar.event.UserDeletedEvent;
 import com.stoliar.exception.DuplicateResourceException;
+import com.stoliar.exception.EntityNotFoundException;
+import com.stoliar.exception.ValidationException;
 import com.stoliar.mapper.UserMapper;
 import com.stoliar.repository.UserRepository;
+import com.stoliar.service.precheck.UniquenessPrecheck;
 import com.stoliar.service.impl.UserServiceImpl;
+import com.stoliar.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,7 +28,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +48,12 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UniquenessPrecheck uniquenessPrecheck;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -203,6 +220,62 @@ class UserServiceTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    void testGetUsersAfter_FirstPage_ShouldReturnCursorOfLastUser() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123456000);
+        User first = userCreatedAt(1L, createdAt);
+        User second = userCreatedAt(2L, createdAt);
+        User extra = userCreatedAt(3L, createdAt.plusSeconds(1));
+
+        when(userRepository.findKeysetFirstPage(Limit.of(3))).thenReturn(List.of(first, second, extra));
+        when(userMapper.toDTO(any(User.class))).thenReturn(new UserDTO());
+
+        // When
+        CursorPage<UserDTO> result = userService.getUsersAfter(null, 2, false);
+
+        // Then
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(new KeysetCursor(createdAt, 2L), KeysetCursor.decode(result.getNextCursor()));
+        assertNull(result.getTotalElements());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void testGetUsersAfter_WithCursor_ShouldSeekPastCursor() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        String cursor = new KeysetCursor(createdAt, 2L).encode();
+        User user = userCreatedAt(3L, createdAt);
+
+        when(userRepository.findKeysetPageAfter(createdAt, 2L, Limit.of(3))).thenReturn(List.of(user));
+        when(userMapper.toDTO(user)).thenReturn(new UserDTO());
+        when(userRepository.count()).thenReturn(3L);
+
+        // When
+        CursorPage<UserDTO> result = userService.getUsersAfter(cursor, 2, true);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(3L, result.getTotalElements());
+    }
+
+    @Test
+    void testGetUsersAfter_InvalidCursor_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> userService.getUsersAfter("not-a-cursor", 10, false));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testGetUsersAfter_SizeTooLarge_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> userService.getUsersAfter(null, KeysetCursor.MAX_PAGE_SIZE + 1, false));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void testGetUsersWithFilters_ShouldReturnFilteredUsers() {
         // Given
@@ -217,7 +290,9 @@ class UserServiceTest {
         UserDTO userDTO = new UserDTO();
         userDTO.setId(1L);
 
-        when(userRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(userPage);
+        when(userRepository.findAllCapped(
+                any(Specification.class), eq(pageable), eq(UserServiceImpl.MAX_SEARCH_RESULTS)))
+                .thenReturn(userPage);
         when(userMapper.toDTO(user)).thenReturn(userDTO);
 
         // When
@@ -226,7 +301,8 @@ class UserServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(userRepository).findAll(any(Specification.class), eq(pageable));
+        verify(userRepository).findAllCapped(
+                any(Specification.class), eq(pageable), eq(UserServiceImpl.MAX_SEARCH_RESULTS));
     }
 
     @Test
@@ -245,6 +321,32 @@ class UserServiceTest {
         verify(userRepository).delete(user);
     }
 
+    @Test
+    void testDeleteUser_ShouldPublishUserDeletedEvent() {
+        // Given
+        Long userId = 1L;
+        User user = new User();
+        user.setId(userId);
+
+        when(userRepository.findUserById(userId)).thenReturn(user);
+
+        // When
+        userService.deleteUser(userId);
+
+        // Then
+        verify(eventPublisher).publishEvent(new UserDeletedEvent(userId));
+    }
+
+    @Test
+    void testDeleteUser_WhenUserNotFound_ShouldNotPublishEvent() {
+        // Given
+        when(userRepository.findUserById(1L)).thenReturn(null);
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> userService.deleteUser(1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void testUpdateUser_DuplicateEmail_ShouldThrowException() {
         // Given
@@ -276,7 +378,9 @@ class UserServiceTest {
         UserDTO userDTO = new UserDTO();
         userDTO.setId(1L);
 
-        when(userRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(userPage);
+        when(userRepository.findAllCapped(
+                any(Specification.class), eq(pageable), eq(UserServiceImpl.MAX_SEARCH_RESULTS)))
+                .thenReturn(userPage);
         when(userMapper.toDTO(user)).thenReturn(userDTO);
 
         // When
@@ -286,4 +390,82 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetUsersWithFilters_PageBeyondCap_ShouldReturnEmptyPage() {
+        // Given
+        Pageable pageable = PageRequest.of(UserServiceImpl.MAX_SEARCH_RESULTS / 10, 10);
+
+        // When
+        Page<UserDTO> result = userService.getUsersWithFilters("john", null, pageable);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testGetUsersWithFilters_ShouldNotRunUnboundedCount() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findAllCapped(
+                any(Specification.class), eq(pageable), eq(UserServiceImpl.MAX_SEARCH_RESULTS)))
+                .thenReturn(Page.empty(pageable));
+
+        // When
+        userService.getUsersWithFilters("a", null, pageable);
+
+        // Then
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(userRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void testCreateUser_EmailDefinitelyAbsent_ShouldSkipDatabaseProbe() {
+        // Given
+        UserCreateDTO createDTO = new UserCreateDTO();
+        createDTO.setName("John");
+        createDTO.setSurname("Doe");
+        createDTO.setBirthDate(LocalDate.of(1990, 1, 1));
+        createDTO.setEmail("new@example.com");
+
+        User createdUser = new User();
+        createdUser.setId(1L);
+        createdUser.setEmail("new@example.com");
+
+        when(uniquenessPrecheck.isEmailDefinitelyAbsent("new@example.com")).thenReturn(true);
+        when(userRepository.createUser("John", "Doe", LocalDate.of(1990, 1, 1), "new@example.com"))
+                .thenReturn(createdUser);
+        when(userMapper.toDTO(createdUser)).thenReturn(new UserDTO());
+
+        // When
+        userService.createUser(createDTO);
+
+        // Then
+        verify(userRepository, never()).existsByEmail(any());
+        verify(uniquenessPrecheck).recordEmail("new@example.com");
+    }
+
+    @Test
+    void testCreateUser_UniqueConstraintViolation_ShouldThrowDuplicateResourceException() {
+        // Given
+        UserCreateDTO createDTO = new UserCreateDTO();
+        createDTO.setEmail("taken@example.com");
+
+        when(uniquenessPrecheck.isEmailDefinitelyAbsent("taken@example.com")).thenReturn(true);
+        when(userRepository.createUser(any(), any(), any(), eq("taken@example.com")))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("ERROR: duplicate key value violates unique constraint \"uk_users_email\"")));
+
+        // When & Then
+        assertThrows(DuplicateResourceException.class, () -> userService.createUser(createDTO));
+        verify(uniquenessPrecheck, never()).recordEmail(any());
+    }
+
+    private static User userCreatedAt(Long id, LocalDateTime createdAt) {
+        User user = new User();
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}
@@ -0,0 +1,87 @@
+package com.stoliar.service.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRecordReaderTest {
+
+    @Test
+    void testCsv_ShouldMapHeaderColumnsAndHandleQuotes() throws IOException {
+        // Given
+        String csv = """
+                type,email,name,surname,birth_date
+                user,john@example.com,"Doe, ""JD""",Smith,1990-01-01
+                user,jane@example.com,"Multi
+                line",Doe,1991-02-02
+                """;
+
+        // When
+        List<ImportRecord> records = readAll(new CsvImportRecordReader(new StringReader(csv)));
+
+        // Then
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(0).line());
+        assertEquals("Doe, \"JD\"", records.get(0).get("name"));
+        assertEquals("1990-01-01", records.get(0).get("birthDate"));
+        assertEquals(3, records.get(1).line());
+        assertEquals("Multi\nline", records.get(1).get("name"));
+    }
+
+    @Test
+    void testCsv_WrongColumnCount_ShouldReturnMalformedRecord() throws IOException {
+        // Given
+        String csv = "type,email\r\nuser\r\n\r\ncard,john@example.com,extra\r\n";
+
+        // When
+        List<ImportRecord> records = readAll(new CsvImportRecordReader(new StringReader(csv)));
+
+        // Then
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(0).line());
+        assertNotNull(records.get(0).error());
+        assertEquals(4, records.get(1).line());
+        assertNotNull(records.get(1).error());
+    }
+
+    @Test
+    void testNdjson_ShouldSkipBlankLinesAndReportMalformedJson() throws IOException {
+        // Given
+        String ndjson = """
+                {"type":"card","email":"john@example.com","number":"1234567890123456","expiration_date":null}
+
+                {"type":"user",
+                [1,2]
+                """;
+
+        // When
+        List<ImportRecord> records = readAll(new NdjsonImportRecordReader(new StringReader(ndjson), new ObjectMapper()));
+
+        // Then
+        assertEquals(3, records.size());
+        assertEquals("1234567890123456", records.get(0).get("number"));
+        assertNull(records.get(0).get("expirationDate"));
+        assertNull(records.get(0).error());
+        assertEquals(3, records.get(1).line());
+        assertNotNull(records.get(1).error());
+        assertEquals(4, records.get(2).line());
+        assertEquals("Expected a JSON object", records.get(2).error());
+    }
+
+    private static List<ImportRecord> readAll(ImportRecordReader reader) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        try (reader) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,78 @@
+package com.stoliar.service.importing;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRowValidatorTest {
+
+    private final ImportRowValidator validator =
+            new ImportRowValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void testValidate_ValidUser_ShouldReturnTrimmedRow() {
+        // Given
+        ImportRecord record = record(Map.of(
+                "type", "User",
+                "email", " john@example.com ",
+                "name", "John",
+                "surname", "Doe",
+                "birthDate", "1990-01-01"));
+
+        // When
+        ImportRowValidator.Result result = validator.validate(record);
+
+        // Then
+        assertTrue(result.isValid());
+        assertEquals(ImportRow.Kind.USER, result.row().kind());
+        assertEquals("john@example.com", result.row().email());
+        assertEquals(LocalDate.of(1990, 1, 1), result.row().birthDate());
+    }
+
+    @Test
+    void testValidate_ValidCard_ShouldReturnRow() {
+        // Given
+        ImportRecord record = record(Map.of(
+                "type", "card",
+                "email", "john@example.com",
+                "number", "1234567890123456",
+                "holder", "JOHN DOE",
+                "expiration_date", LocalDate.now().plusYears(2).toString()));
+
+        // When
+        ImportRowValidator.Result result = validator.validate(record);
+
+        // Then
+        assertTrue(result.isValid());
+        assertEquals(ImportRow.Kind.CARD, result.row().kind());
+        assertEquals("1234567890123456", result.row().number());
+    }
+
+    @Test
+    void testValidate_InvalidRows_ShouldReturnError() {
+        assertFalse(validator.validate(record(Map.of("email", "john@example.com"))).isValid());
+        assertFalse(validator.validate(record(Map.of("type", "account"))).isValid());
+        assertFalse(validator.validate(record(Map.of(
+                "type", "user", "email", "not-an-email", "name", "John", "surname", "Doe",
+                "birthDate", "1990-01-01"))).isValid());
+        assertFalse(validator.validate(record(Map.of(
+                "type", "user", "email", "john@example.com", "name", "x".repeat(101), "surname", "Doe",
+                "birthDate", "1990-01-01"))).isValid());
+        assertEquals("Expiration date must be in yyyy-MM-dd format", validator.validate(record(Map.of(
+                "type", "card", "email", "john@example.com", "number", "1234567890123456", "holder", "JOHN DOE",
+                "expirationDate", "12/30"))).error());
+        assertEquals("Expected a JSON object",
+                validator.validate(ImportRecord.malformed(7, "Expected a JSON object")).error());
+    }
+
+    private static ImportRecord record(Map<String, String> values) {
+        Map<String, String> fields = new HashMap<>();
+        values.forEach((key, value) -> fields.put(ImportRecord.fieldKey(key), value));
+        return ImportRecord.of(1, fields);
+    }
+}
@@ -0,0 +1,96 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationFailureRecovererTest {
+
+    private static final String TOPIC = "user-registration-results";
+
+    @Mock
+    private RegistrationHandler registrationHandler;
+
+    @Mock
+    private KafkaTemplate<String, UserRegistrationResultEvent> kafkaTemplate;
+
+    private RegistrationFailureRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        recoverer = new RegistrationFailureRecoverer(registrationHandler, kafkaTemplate, TOPIC, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void accept_ExhaustedEvent_PublishesFailedResult() {
+        UserRegistrationRequestedEvent event = event();
+        UserRegistrationResultEvent failed = failedResult();
+        when(registrationHandler.recordFailure(eq(event), eq("connection refused"))).thenReturn(failed);
+        when(kafkaTemplate.send(TOPIC, "7", failed))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        recoverer.accept(record(event),
+                new RuntimeException("listener failed", new IllegalStateException("connection refused")));
+
+        verify(kafkaTemplate).send(TOPIC, "7", failed);
+    }
+
+    @Test
+    void accept_SendFails_ThrowsSoRecordIsRetried() {
+        UserRegistrationRequestedEvent event = event();
+        UserRegistrationResultEvent failed = failedResult();
+        when(registrationHandler.recordFailure(any(), anyString())).thenReturn(failed);
+        when(kafkaTemplate.send(TOPIC, "7", failed))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(IllegalStateException.class,
+                () -> recoverer.accept(record(event), new RuntimeException("boom")));
+    }
+
+    @Test
+    void accept_UndeserializableRecord_SkipsWithoutPublishing() {
+        recoverer.accept(new ConsumerRecord<>(TOPIC, 0, 5L, "7", null), new RuntimeException("bad payload"));
+
+        verifyNoInteractions(registrationHandler, kafkaTemplate);
+    }
+
+    private static ConsumerRecord<String, UserRegistrationRequestedEvent> record(UserRegistrationRequestedEvent event) {
+        return new ConsumerRecord<>("user-registration-requests", 0, 10L, "7", event);
+    }
+
+    private static UserRegistrationRequestedEvent event() {
+        return UserRegistrationRequestedEvent.builder()
+                .eventId("event-1")
+                .credentialsId(7L)
+                .email("new@example.com")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private static UserRegistrationResultEvent failedResult() {
+        return UserRegistrationResultEvent.builder()
+                .eventId("event-1")
+                .credentialsId(7L)
+                .status(RegistrationHandler.STATUS_FAILED)
+                .reason("connection refused")
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.stoliar.service.registration;
+
+import com.stoliar.dto.UserCreateDTO;
+import com.stoliar.dto.UserDTO;
+import com.stoliar.dto.event.UserRegistrationRequestedEvent;
+import com.stoliar.dto.event.UserRegistrationResultEvent;
+import com.stoliar.entity.ProcessedRegistration;
+import com.stoliar.repository.ProcessedRegistrationRepository;
+import com.stoliar.repository.UserRepository;
+import com.stoliar.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationHandlerTest {
+
+    @Mock
+    private ProcessedRegistrationRepository processedRegistrationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private RegistrationHandler registrationHandler;
+
+    @Test
+    void handle_NewEvent_CreatesUserAndRecordsCompleted() {
+        UserDTO created = new UserDTO();
+        created.setId(42L);
+        when(processedRegistrationRepository.findById("event-1")).thenReturn(Optional.empty());
+        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+        when(userService.createUser(any(UserCreateDTO.class))).thenReturn(created);
+
+        UserRegistrationResultEvent result = registrationHandler.handle(event("event-1", "new@example.com"));
+
+        assertEquals(RegistrationHandler.STATUS_COMPLETED, result.getStatus());
+        assertEquals(42L, result.getUserId());
+        assertEquals(7L, result.getCredentialsId());
+        assertEquals("event-1", result.getEventId());
+
+        ArgumentCaptor<UserCreateDTO> dto = ArgumentCaptor.forClass(UserCreateDTO.class);
+        verify(userService).createUser(dto.capture());
+        assertEquals("new@example.com", dto.getValue().getEmail());
+        assertEquals("John", dto.getValue().getName());
+
+        ArgumentCaptor<ProcessedRegistration> saved = ArgumentCaptor.forClass(ProcessedRegistration.class);
+        verify(processedRegistrationRepository).save(saved.capture());
+        assertEquals(RegistrationHandler.STATUS_COMPLETED, saved.getValue().getStatus());
+        assertEquals(42L, saved.getValue().getUserId());
+    }
+
+    @Test
+    void handle_EmailAlreadyExists_RecordsFailedWithoutCreating() {
+        when(processedRegistrationRepository.findById("event-2")).thenReturn(Optional.empty());
+        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+        UserRegistrationResultEvent result = registrationHandler.handle(event("event-2", "taken@example.com"));
+
+        assertEquals(RegistrationHandler.STATUS_FAILED, result.getStatus());
+        assertNull(result.getUserId());
+        assertTrue(result.getReason().contains("already exists"));
+        verify(userService, never()).createUser(any());
+        verify(processedRegistrationRepository).save(any(ProcessedRegistration.class));
+    }
+
+    @Test
+    void handle_RedeliveredEvent_ReturnsStoredResult() {
+        ProcessedRegistration processed = new ProcessedRegistration();
+        processed.setEventId("event-3");
+        processed.setCredentialsId(7L);
+        processed.setUserId(42L);
+        processed.setStatus(RegistrationHandler.STATUS_COMPLETED);
+        processed.setProcessedAt(LocalDateTime.now());
+        when(processedRegistrationRepository.findById("event-3")).thenReturn(Optional.of(processed));
+
+        UserRegistrationResultEvent result = registrationHandler.handle(event("event-3", "new@example.com"));
+
+        assertEquals(RegistrationHandler.STATUS_COMPLETED, result.getStatus());
+        assertEquals(42L, result.getUserId());
+        verifyNoInteractions(userService, userRepository);
+        verify(processedRegistrationRepository, never()).save(any());
+    }
+
+    @Test
+    void handle_RetryAfterLateCompletion_ReturnsStoredCompletedResult() {
+        // Первая попытка с тем же credentialsId создала профиль уже после таймаута в auth-service
+        ProcessedRegistration firstAttempt = new ProcessedRegistration();
+        firstAttempt.setEventId("event-first");
+        firstAttempt.setCredentialsId(7L);
+        firstAttempt.setUserId(42L);
+        firstAttempt.setStatus(RegistrationHandler.STATUS_COMPLETED);
+        firstAttempt.setProcessedAt(LocalDateTime.now());
+        when(processedRegistrationRepository.findById("event-retry")).thenReturn(Optional.empty());
+        when(processedRegistrationRepository.findFirstByCredentialsIdAndStatus(
+                7L, RegistrationHandler.STATUS_COMPLETED)).thenReturn(Optional.of(firstAttempt));
+
+        UserRegistrationResultEvent result = registrationHandler.handle(event("event-retry", "retry@example.com"));
+
+        assertEquals(RegistrationHandler.STATUS_COMPLETED, result.getStatus());
+        assertEquals(42L, result.getUserId());
+        assertEquals("event-retry", result.getEventId());
+        verifyNoInteractions(userService, userRepository);
+
+        ArgumentCaptor<ProcessedRegistration> saved = ArgumentCaptor.forClass(ProcessedRegistration.class);
+        verify(processedRegistrationRepository).save(saved.capture());
+        assertEquals("event-retry", saved.getValue().getEventId());
+        assertEquals(42L, saved.getValue().getUserId());
+    }
+
+    @Test
+    void recordFailure_NewEvent_SavesFailedWithTruncatedReason() {
+        when(processedRegistrationRepository.findById("event-4")).thenReturn(Optional.empty());
+
+        UserRegistrationResultEvent result = registrationHandler.recordFailure(
+                event("event-4", "new@example.com"), "x".repeat(300));
+
+        assertEquals(RegistrationHandler.STATUS_FAILED, result.getStatus());
+        assertEquals(7L, result.getCredentialsId());
+        assertEquals(255, result.getReason().length());
+        verify(processedRegistrationRepository).save(any(ProcessedRegistration.class));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void recordFailure_AlreadyProcessed_ReturnsStoredResult() {
+        ProcessedRegistration processed = new ProcessedRegistration();
+        processed.setEventId("event-5");
+        processed.setCredentialsId(7L);
+        processed.setUserId(42L);
+        processed.setStatus(RegistrationHandler.STATUS_COMPLETED);
+        when(processedRegistrationRepository.findById("event-5")).thenReturn(Optional.of(processed));
+
+        UserRegistrationResultEvent result = registrationHandler.recordFailure(
+                event("event-5", "new@example.com"), "boom");
+
+        assertEquals(RegistrationHandler.STATUS_COMPLETED, result.getStatus());
+        verify(processedRegistrationRepository, never()).save(any());
+    }
+
+    private static UserRegistrationRequestedEvent event(String eventId, String email) {
+        return UserRegistrationRequestedEvent.builder()
+                .eventId(eventId)
+                .credentialsId(7L)
+                .email(email)
+                .name("John")
+                .surname("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .role("USER")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
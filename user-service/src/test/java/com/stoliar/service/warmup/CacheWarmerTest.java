@@ -0,0 +1,206 @@
+package com.stoliar.service.warmup;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stoliar.cache.CacheInvalidationPublisher;
+import com.stoliar.cache.CacheLoadCoordinator;
+import com.stoliar.cache.CacheTagIndex;
+import com.stoliar.cache.HotKeySampler;
+import com.stoliar.cache.TwoLevelCache;
+import com.stoliar.cache.TwoLevelCacheManager;
+import com.stoliar.dto.UserDTO;
+import com.stoliar.entity.PaymentCard;
+import com.stoliar.entity.User;
+import com.stoliar.mapper.PaymentCardMapper;
+import com.stoliar.mapper.UserMapper;
+import com.stoliar.repository.PaymentCardRepository;
+import com.stoliar.repository.UserRepository;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PaymentCardRepository paymentCardRepository;
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<ClientResources> clientResources;
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    @Mock
+    private CacheLoadCoordinator coordinator;
+
+    @Mock
+    private CacheTagIndex tagIndex;
+
+    private ConcurrentMapCache remoteUsers;
+    private ConcurrentMapCache remoteUserCards;
+    private TwoLevelCache users;
+    private TwoLevelCache userCards;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        remoteUsers = new ConcurrentMapCache("users");
+        remoteUserCards = new ConcurrentMapCache("userCards");
+        users = new TwoLevelCache(remoteUsers, Caffeine.newBuilder().maximumSize(100).build(), publisher,
+                coordinator, tagIndex, null, new HotKeySampler(1.0, 10));
+        userCards = new TwoLevelCache(remoteUserCards, Caffeine.newBuilder().maximumSize(100).build(), publisher,
+                coordinator, tagIndex, null);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void warmUp_LoadsRecentUsersAndCardListsIntoBothLevels() {
+        stubCaches();
+        when(userRepository.findRecentlyUpdatedIds(Limit.of(10))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<User> found = new ArrayList<>();
+            ids.forEach(id -> found.add(user(id)));
+            return found;
+        });
+        when(paymentCardRepository.findAllByUserIdIn(any())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).contains(1L) ? List.of(card(10L, 1L), card(11L, 1L)) : List.of());
+
+        String outcome = warmer(10, 2).warmUp(CacheWarmer.TRIGGER_STARTUP);
+
+        assertEquals(CacheWarmer.OUTCOME_COMPLETED, outcome);
+        assertEquals("user1@example.com", ((UserDTO) remoteUsers.get(1L).get()).getEmail());
+        assertNotNull(remoteUsers.get(3L));
+        assertEquals(2, ((List<?>) remoteUserCards.get(1L).get()).size());
+        assertEquals(List.of(), remoteUserCards.get(2L).get());
+        assertEquals(3, users.getLocalSize());
+        assertEquals(3, userCards.getLocalSize());
+        // Прогрев не рассылает инвалидацию другим репликам
+        verifyNoInteractions(publisher);
+
+        assertEquals(3, meterRegistry.get("cache.warmup.requested").gauge().value());
+        assertEquals(3, meterRegistry.get("cache.warmup.warmed").tag("cache", "userCards").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cache.warmup.coverage").gauge().value());
+        assertEquals(1, meterRegistry.get("cache.warmup")
+                .tags("trigger", "startup", "outcome", "completed").timer().count());
+    }
+
+    @Test
+    void warmUp_HotKeysGoFirstAndExistingEntriesAreKept() {
+        stubCaches();
+        UserDTO fresh = new UserDTO();
+        fresh.setId(5L);
+        fresh.setEmail("fresh@example.com");
+        remoteUsers.put(5L, fresh);
+        users.get(5L);
+        when(userRepository.findRecentlyUpdatedIds(Limit.of(2))).thenReturn(List.of(1L, 5L, 2L));
+        when(userRepository.findAllById(List.of(5L, 1L))).thenReturn(List.of(user(5L), user(1L)));
+        when(paymentCardRepository.findAllByUserIdIn(List.of(5L, 1L))).thenReturn(List.of());
+
+        warmer(2, 10).warmUp(CacheWarmer.TRIGGER_STARTUP);
+
+        assertSame(fresh, remoteUsers.get(5L).get());
+        assertNotNull(remoteUsers.get(1L));
+        assertNull(remoteUsers.get(2L));
+    }
+
+    @Test
+    void warmUp_BatchFailure_ReportsFailedWithoutThrowing() {
+        stubCaches();
+        when(userRepository.findRecentlyUpdatedIds(Limit.of(10))).thenReturn(List.of(1L));
+        when(paymentCardRepository.findAllByUserIdIn(any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        String outcome = warmer(10, 10).warmUp(CacheWarmer.TRIGGER_STARTUP);
+
+        assertEquals(CacheWarmer.OUTCOME_FAILED, outcome);
+        assertEquals(0.0, meterRegistry.get("cache.warmup.coverage").gauge().value());
+        assertEquals(1, meterRegistry.get("cache.warmup")
+                .tags("trigger", "startup", "outcome", "failed").timer().count());
+    }
+
+    @Test
+    void warmUp_Disabled_IsSkipped() {
+        CacheWarmer warmer = new CacheWarmer(userRepository, paymentCardRepository, UserMapper.INSTANCE,
+                PaymentCardMapper.INSTANCE, cacheManager, transactionManager, meterRegistry, clientResources,
+                false, 10, 10, 1, 0, Duration.ofSeconds(5));
+
+        assertEquals(CacheWarmer.OUTCOME_SKIPPED, warmer.warmUp(CacheWarmer.TRIGGER_STARTUP));
+        verifyNoInteractions(userRepository, cacheManager);
+    }
+
+    @Test
+    void onRedisEvent_ReconnectAfterDisconnect_WarmsAgain() {
+        stubCaches();
+        when(userRepository.findRecentlyUpdatedIds(Limit.of(10))).thenReturn(List.of());
+        CacheWarmer warmer = warmer(10, 10);
+
+        // Первое подключение при старте не считается восстановлением
+        warmer.onRedisEvent(mock(ConnectionActivatedEvent.class));
+        verifyNoInteractions(userRepository);
+
+        warmer.onRedisEvent(mock(ConnectionDeactivatedEvent.class));
+        warmer.onRedisEvent(mock(ConnectionActivatedEvent.class));
+
+        verify(userRepository, timeout(2000)).findRecentlyUpdatedIds(Limit.of(10));
+    }
+
+    private CacheWarmer warmer(int maxUsers, int batchSize) {
+        return new CacheWarmer(userRepository, paymentCardRepository, UserMapper.INSTANCE,
+                PaymentCardMapper.INSTANCE, cacheManager, transactionManager, meterRegistry, clientResources,
+                true, maxUsers, batchSize, 2, 0, Duration.ofSeconds(5));
+    }
+
+    private void stubCaches() {
+        when(cacheManager.getCache("users")).thenReturn(users);
+        when(cacheManager.getCache("userCards")).thenReturn(userCards);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User");
+        user.setSurname("Test");
+        user.setEmail("user" + id + "@example.com");
+        user.setActive(true);
+        return user;
+    }
+
+    private static PaymentCard card(Long id, Long userId) {
+        PaymentCard card = new PaymentCard();
+        card.setId(id);
+        card.setUser(user(userId));
+        card.setNumber("411111111111" + (1000 + id));
+        card.setHolder("USER TEST");
+        card.setActive(true);
+        return card;
+    }
+}
@@ -0,0 +1,44 @@
+package com.stoliar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AlwaysTrue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(filter.mightContain("user" + i + "@example.com")));
+    }
+
+    @Test
+    void mightContain_UnknownValues_FalsePositiveRateWithinBound() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.com"))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilter_ReturnsFalse() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        assertFalse(filter.mightContain("john@example.com"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    void create_InvalidParameters_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1.0));
+    }
+}